@@ -0,0 +1,307 @@
+package com.earlyreviewer.api;
+
+import com.earlyreviewer.domain.ReviewRecord;
+import com.earlyreviewer.domain.Reviewer;
+import com.earlyreviewer.infra.CSVTailFollower;
+import com.earlyreviewer.infra.ReviewerProfileStore;
+import com.earlyreviewer.metrics.MetricsExporter;
+import com.earlyreviewer.metrics.MetricsRegistry;
+import com.earlyreviewer.usecase.ReviewerAnalysis;
+import com.earlyreviewer.usecase.ReviewerAnalyzer;
+import com.earlyreviewer.usecase.ReviewerRouter;
+import com.earlyreviewer.usecase.RoutedReviewer;
+import com.earlyreviewer.util.LoggerUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.ObjLongConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * RoutingHttpServer exposes a ReviewerRouter over local HTTP using the JDK's built-in server.
+ *
+ * Endpoints:
+ *   GET  /route?k=3&exclude=r1,r2             up to k available early reviewers, fastest first, as JSON
+ *   POST /availability?reviewer=r1&available=false   marks a reviewer as (un)available
+ *   GET  /health                              "ok" and the number of ranked reviewers
+ *   GET  /metrics                             pipeline metrics in the Prometheus text format
+ *
+ * Usage: RoutingHttpServer --data=reviews.csv [--port=8080] [--threads=N] [--follow=true] [--store=profiles.log]
+ * With --follow the CSV is tailed and appended events are ingested as they arrive.
+ * With --store reviewer profiles are kept in a ReviewerProfileStore: a restart only aggregates
+ * the lines appended since the last stored batch, and every ingested batch is committed to it.
+ * Metrics are also exported as configured by MetricsExporter.startFromSystemProperties.
+ */
+public class RoutingHttpServer implements AutoCloseable {
+    private static final Logger logger = LoggerUtil.getLogger(RoutingHttpServer.class);
+
+    private static final int DEFAULT_K = 3;
+    private static final int MAX_K = 1000;
+
+    static {
+        // Without TCP_NODELAY small responses wait for delayed ACKs, capping a keep-alive
+        // connection at about 25 requests/s. Read once when the JDK server is first used.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final ReviewerRouter router;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Binds the server; call start to begin serving.
+     *
+     * @param router Router answering the lookups
+     * @param address Address to bind; port 0 picks a free port
+     * @param threads Number of request handler threads
+     * @throws IOException if the address cannot be bound
+     */
+    public RoutingHttpServer(ReviewerRouter router, InetSocketAddress address, int threads) throws IOException {
+        this.router = router;
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/route", this::handleRoute);
+        server.createContext("/availability", this::handleAvailability);
+        server.createContext("/health", this::handleHealth);
+        server.createContext("/metrics", this::handleMetrics);
+    }
+
+    public void start() {
+        server.start();
+        logger.log(Level.INFO, "Routing server listening on port " + getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleRoute(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            send(exchange, 405, "Use GET");
+            return;
+        }
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        int k;
+        try {
+            k = Integer.parseInt(query.getOrDefault("k", Integer.toString(DEFAULT_K)));
+        } catch (NumberFormatException e) {
+            send(exchange, 400, "Invalid k: " + query.get("k"));
+            return;
+        }
+        if (k < 0 || k > MAX_K) {
+            send(exchange, 400, "k must be between 0 and " + MAX_K);
+            return;
+        }
+        String exclude = query.get("exclude");
+        Set<String> excluded = exclude == null || exclude.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(Arrays.asList(exclude.split(",")));
+
+        List<RoutedReviewer> reviewers = router.topK(k, excluded);
+        StringBuilder json = new StringBuilder(64 + reviewers.size() * 96);
+        json.append("{\"reviewers\":[");
+        for (int i = 0; i < reviewers.size(); i++) {
+            RoutedReviewer reviewer = reviewers.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"reviewerId\":");
+            appendString(json, reviewer.getReviewerId());
+            json.append(",\"avgReviewTimeSeconds\":")
+                    .append(String.format(Locale.ROOT, "%.1f", reviewer.getAverageTimeToReview()))
+                    .append(",\"validReviews\":").append(reviewer.getValidRecordCount())
+                    .append(",\"explanation\":");
+            appendString(json, reviewer.getExplanation());
+            json.append('}');
+        }
+        json.append("]}");
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        send(exchange, 200, json.toString());
+    }
+
+    private void handleAvailability(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            send(exchange, 405, "Use POST");
+            return;
+        }
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String reviewerId = query.get("reviewer");
+        String available = query.get("available");
+        if (reviewerId == null || !("true".equals(available) || "false".equals(available))) {
+            send(exchange, 400, "Expected reviewer=<id>&available=true|false");
+            return;
+        }
+        router.setAvailable(reviewerId, Boolean.parseBoolean(available));
+        send(exchange, 200, "ok");
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        send(exchange, 200, "ok " + router.size());
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", MetricsExporter.CONTENT_TYPE);
+        send(exchange, 200, MetricsRegistry.getDefault().toPrometheusText());
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                query.put(decode(pair.substring(0, eq)), decode(pair.substring(eq + 1)));
+            }
+        }
+        return query;
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (java.io.UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 not supported", e);
+        }
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoggerUtil.initialize();
+        MetricsExporter.startFromSystemProperties();
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        String data = options.get("data");
+        if (data == null) {
+            throw new IllegalArgumentException("Missing --data=<reviews.csv>");
+        }
+        File file = new File(data);
+        int port = Integer.parseInt(options.getOrDefault("port", "8080"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                Integer.toString(Runtime.getRuntime().availableProcessors())));
+
+        String storePath = options.get("store");
+        ReviewerProfileStore store = storePath == null ? null : ReviewerProfileStore.open(new File(storePath));
+        ReviewerAnalysis analysis = store == null ? ReviewerAnalyzer.analyzeForFollowing(file)
+                : ReviewerAnalyzer.analyze(file, store);
+        ReviewerRouter router = new ReviewerRouter(analysis);
+        RoutingHttpServer server = new RoutingHttpServer(router, new InetSocketAddress(port), threads);
+        if (Boolean.parseBoolean(options.getOrDefault("follow", "false"))) {
+            // Resume right after the last line the analysis consumed
+            new CSVTailFollower(file, analysis.getInputOffset(), store == null
+                    ? (batch, endOffset) -> router.ingest(batch)
+                    : new ProfileCommitter(router, analysis, store, file)).start();
+        }
+        server.start();
+    }
+
+    /**
+     * Ingests each followed batch and commits the profiles it changed, together with the offset
+     * just past the batch so a restart resumes right after it. Only reviewers re-evaluated by the
+     * batch are passed to the store, plus every reviewer once the sliding window moved into a new
+     * bucket. Profiles that cannot be stored are retried with the next batch; failing the batch
+     * instead would make the follower ingest it twice.
+     */
+    private static class ProfileCommitter implements ObjLongConsumer<List<ReviewRecord>> {
+        private final ReviewerRouter router;
+        private final ReviewerAnalysis analysis;
+        private final ReviewerProfileStore store;
+        private final File file;
+        // Reviewers changed since the last successful commit
+        private final Set<String> unstored = new HashSet<>();
+        private boolean windowMoved;
+
+        ProfileCommitter(ReviewerRouter router, ReviewerAnalysis analysis, ReviewerProfileStore store, File file) {
+            this.router = router;
+            this.analysis = analysis;
+            this.store = store;
+            this.file = file;
+        }
+
+        @Override
+        public void accept(List<ReviewRecord> batch, long endOffset) {
+            long headBucket = analysis.getGlobalWindow().getHeadBucket();
+            unstored.addAll(router.ingest(batch));
+            windowMoved |= analysis.getGlobalWindow().getHeadBucket() != headBucket;
+
+            long newest = Long.MIN_VALUE;
+            for (ReviewRecord record : batch) {
+                if (record.isValid()) {
+                    newest = Math.max(newest, record.getSubmissionTimestamp());
+                }
+            }
+            Map<String, Reviewer> reviewers = analysis.getReviewers();
+            Collection<Reviewer> changed = windowMoved ? reviewers.values() : new ArrayList<>(unstored.size());
+            if (!windowMoved) {
+                for (String reviewerId : unstored) {
+                    changed.add(reviewers.get(reviewerId));
+                }
+            }
+            try {
+                store.commit(changed, newest, file, endOffset);
+                unstored.clear();
+                windowMoved = false;
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Cannot store " + changed.size() + " reviewer profiles in " +
+                        store.getFile() + ", retrying with the next batch: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.earlyreviewer.bench;
+
+import java.util.Locale;
+
+/**
+ * BenchmarkResult holds the measured iteration times of one benchmark.
+ * Each iteration performs a fixed number of operations (e.g. rows parsed or reviewers predicted).
+ */
+public class BenchmarkResult {
+    private final String name;
+    private final long operations;
+    private final long[] samplesNanos;
+    private final long[] allocatedBytes;
+
+    /**
+     * @param name Benchmark name
+     * @param operations Operations per iteration
+     * @param samplesNanos Duration of each measured iteration
+     * @param allocatedBytes Heap bytes allocated in each measured iteration, -1 where unknown
+     */
+    public BenchmarkResult(String name, long operations, long[] samplesNanos, long[] allocatedBytes) {
+        this.name = name;
+        this.operations = operations;
+        this.samplesNanos = samplesNanos.clone();
+        this.allocatedBytes = allocatedBytes.clone();
+    }
+
+    /**
+     * Returns the mean iteration time in nanoseconds.
+     */
+    public double getMeanNanos() {
+        double sum = 0;
+        for (long sample : samplesNanos) {
+            sum += sample;
+        }
+        return samplesNanos.length == 0 ? 0.0 : sum / samplesNanos.length;
+    }
+
+    /**
+     * Returns the sample standard deviation of the iteration time in nanoseconds.
+     */
+    public double getStdDevNanos() {
+        if (samplesNanos.length < 2) {
+            return 0.0;
+        }
+        double mean = getMeanNanos();
+        double squares = 0;
+        for (long sample : samplesNanos) {
+            squares += (sample - mean) * (sample - mean);
+        }
+        return Math.sqrt(squares / (samplesNanos.length - 1));
+    }
+
+    public long getMinNanos() {
+        long min = Long.MAX_VALUE;
+        for (long sample : samplesNanos) {
+            min = Math.min(min, sample);
+        }
+        return samplesNanos.length == 0 ? 0 : min;
+    }
+
+    /**
+     * Returns the mean heap bytes allocated per operation, or -1 if allocation was not measured.
+     */
+    public double getAllocatedBytesPerOp() {
+        if (allocatedBytes.length == 0 || operations == 0) {
+            return -1;
+        }
+        double sum = 0;
+        for (long bytes : allocatedBytes) {
+            if (bytes < 0) {
+                return -1;
+            }
+            sum += bytes;
+        }
+        return sum / allocatedBytes.length / operations;
+    }
+
+    /**
+     * Returns throughput in operations per second, based on the mean iteration time.
+     */
+    public double getOpsPerSecond() {
+        double mean = getMeanNanos();
+        return mean == 0 ? 0.0 : operations * 1e9 / mean;
+    }
+
+    // Getters
+    public String getName() {
+        return name;
+    }
+
+    public long getOperations() {
+        return operations;
+    }
+
+    public long[] getSamplesNanos() {
+        return samplesNanos.clone();
+    }
+
+    /**
+     * Appends this result as a JSON object.
+     */
+    void appendJson(StringBuilder json) {
+        json.append("{\"name\":\"").append(name).append('"')
+                .append(",\"operations\":").append(operations)
+                .append(",\"meanNanos\":").append(Math.round(getMeanNanos()))
+                .append(",\"stdDevNanos\":").append(Math.round(getStdDevNanos()))
+                .append(",\"minNanos\":").append(getMinNanos())
+                .append(",\"opsPerSecond\":").append(Math.round(getOpsPerSecond()))
+                .append(",\"allocatedBytesPerOp\":")
+                .append(String.format(Locale.ROOT, "%.2f", getAllocatedBytesPerOp()))
+                .append(",\"samplesNanos\":[");
+        for (int i = 0; i < samplesNanos.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(samplesNanos[i]);
+        }
+        json.append("]}");
+    }
+}
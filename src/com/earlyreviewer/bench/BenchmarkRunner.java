@@ -0,0 +1,160 @@
+package com.earlyreviewer.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BenchmarkRunner times benchmark tasks with warmup and measurement iterations and
+ * collects the results for a JSON report.
+ * Task results are written to a volatile sink so the JIT cannot eliminate the work.
+ * Heap bytes allocated by the measuring thread are recorded as well when the JVM supports it.
+ */
+public class BenchmarkRunner {
+    private static final com.sun.management.ThreadMXBean ALLOCATION_COUNTER = allocationCounter();
+    private static volatile Object sink;
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final List<BenchmarkResult> results;
+
+    /**
+     * A unit of benchmarked work; the returned value is consumed so it cannot be optimized away.
+     */
+    public interface Task {
+        Object run() throws Exception;
+    }
+
+    public BenchmarkRunner(int warmupIterations, int measurementIterations) {
+        if (warmupIterations < 0 || measurementIterations <= 0) {
+            throw new IllegalArgumentException("Invalid iteration counts: warmup=" + warmupIterations +
+                    ", measurement=" + measurementIterations);
+        }
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.results = new ArrayList<>();
+    }
+
+    /**
+     * Runs a task through its warmup and measurement iterations and records the result.
+     *
+     * @param name Benchmark name, e.g. "parse.mapped"
+     * @param operations Operations performed by one run of the task, used for throughput
+     * @param task The work to time
+     * @return The recorded result
+     * @throws Exception if the task fails
+     */
+    public BenchmarkResult run(String name, long operations, Task task) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            sink = task.run();
+        }
+
+        long[] samples = new long[measurementIterations];
+        long[] allocated = new long[measurementIterations];
+        for (int i = 0; i < measurementIterations; i++) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            sink = task.run();
+            samples[i] = System.nanoTime() - start;
+            allocated[i] = allocatedBefore < 0 ? -1 : allocatedBytes() - allocatedBefore;
+        }
+        sink = null;
+
+        BenchmarkResult result = new BenchmarkResult(name, operations, samples, allocated);
+        results.add(result);
+        return result;
+    }
+
+    /**
+     * Returns the heap bytes allocated so far by the current thread, or -1 if not supported.
+     */
+    public static long allocatedBytes() {
+        if (ALLOCATION_COUNTER == null) {
+            return -1;
+        }
+        return ALLOCATION_COUNTER.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+            if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+                return hotspot;
+            }
+        }
+        return null;
+    }
+
+    public List<BenchmarkResult> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * Writes all recorded results as a JSON document, together with the JVM environment and
+     * the given benchmark parameters, so runs can be compared across releases.
+     */
+    public void writeJson(File file, Map<String, String> parameters) throws IOException {
+        Map<String, String> environment = new LinkedHashMap<>();
+        environment.put("timestamp", Instant.now().toString());
+        environment.put("javaVersion", System.getProperty("java.version"));
+        environment.put("javaVm", System.getProperty("java.vm.name"));
+        environment.put("osName", System.getProperty("os.name"));
+        environment.put("availableProcessors", Integer.toString(Runtime.getRuntime().availableProcessors()));
+        environment.put("maxMemoryBytes", Long.toString(Runtime.getRuntime().maxMemory()));
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"environment\":");
+        appendJson(json, environment);
+        json.append(",\n  \"parameters\":");
+        appendJson(json, parameters);
+        json.append(",\n  \"warmupIterations\":").append(warmupIterations);
+        json.append(",\n  \"measurementIterations\":").append(measurementIterations);
+        json.append(",\n  \"results\":[");
+        for (int i = 0; i < results.size(); i++) {
+            json.append(i == 0 ? "\n    " : ",\n    ");
+            results.get(i).appendJson(json);
+        }
+        json.append("\n  ]\n}\n");
+
+        Files.write(file.toPath(), json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void appendJson(StringBuilder json, Map<String, String> values) {
+        json.append('{');
+        boolean first = true;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            appendString(json, entry.getKey());
+            json.append(':');
+            appendString(json, entry.getValue());
+        }
+        json.append('}');
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
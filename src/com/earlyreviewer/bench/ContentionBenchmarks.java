@@ -0,0 +1,332 @@
+package com.earlyreviewer.bench;
+
+import com.earlyreviewer.domain.ReviewRecord;
+import com.earlyreviewer.domain.Reviewer;
+import com.earlyreviewer.domain.ReviewerAggregates;
+import com.earlyreviewer.domain.ReviewerDictionary;
+import com.earlyreviewer.domain.StatsWindow;
+import com.earlyreviewer.infra.CSVParser;
+import com.earlyreviewer.usecase.Assignment;
+import com.earlyreviewer.usecase.ConcurrentReviewerAggregator;
+import com.earlyreviewer.usecase.ReviewerAnalyzer;
+import com.earlyreviewer.usecase.ReviewerAssigner;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ContentionBenchmarks measures shared structures under an increasing number of threads,
+ * writing the results as JSON. Each benchmark runs every thread count in --threads; a run's
+ * operations are the total over all threads.
+ *
+ * Usage: ContentionBenchmarks [--threads=1,2,4,8,16] [--ops=N per thread] [--rows=N] [--reviewers=N]
+ *        [--maxOpen=N] [--hold=N] [--batch=N] [--stripes=N] [--snapshotMillis=N] [--warmup=N]
+ *        [--iterations=N] [--only=prefix,...] [--out=contention-results.json]
+ *
+ * assign.lockFree and assign.globalLock compare ReviewerAssigner with the same assigner behind
+ * one lock. Each thread keeps --hold assignments open and completes the oldest before taking a
+ * new one, so reviewers carry load and the queueing term matters.
+ *
+ * aggregate.striped and aggregate.globalLock split the --rows records of the dataset over the
+ * producer threads, which add them --batch at a time to a ConcurrentReviewerAggregator or to one
+ * ReviewerAggregates behind a lock. While producers run, a reader takes a snapshot every
+ * --snapshotMillis (0 disables it); the final snapshot is checked against the record count.
+ */
+public class ContentionBenchmarks {
+    private final Map<String, String> options;
+    private final BenchmarkRunner runner;
+    private final List<String> only;
+
+    private ContentionBenchmarks(Map<String, String> options) {
+        this.options = options;
+        this.runner = new BenchmarkRunner(intOption("warmup", 2), intOption("iterations", 5));
+        this.only = new ArrayList<>();
+        String filter = options.get("only");
+        if (filter != null && !filter.isEmpty()) {
+            for (String prefix : filter.split(",")) {
+                only.add(prefix.trim());
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Logger.getLogger("").setLevel(Level.WARNING);
+
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        new ContentionBenchmarks(options).runAll();
+    }
+
+    private void runAll() throws Exception {
+        List<Integer> threadCounts = new ArrayList<>();
+        for (String count : options.getOrDefault("threads", "1,2,4,8,16").split(",")) {
+            threadCounts.add(Integer.parseInt(count.trim()));
+        }
+        int ops = intOption("ops", 200_000);
+        int reviewerCount = intOption("reviewers", 1000);
+        long rows = Long.parseLong(options.getOrDefault("rows", "1000000"));
+        File output = new File(options.getOrDefault("out", "contention-results.json"));
+
+        File data = File.createTempFile("contention", ".csv");
+        try {
+            new SyntheticDataset(rows, reviewerCount, 1.0, 42L).write(data);
+
+            if (enabled("assign")) {
+                runAssign(ReviewerAnalyzer.process(data), threadCounts, ops);
+            }
+            if (enabled("aggregate")) {
+                runAggregate(CSVParser.parseMapped(data), threadCounts);
+            }
+
+            Map<String, String> parameters = new LinkedHashMap<>();
+            parameters.put("threads", threadCounts.toString());
+            parameters.put("opsPerThread", Integer.toString(ops));
+            parameters.put("rows", Long.toString(rows));
+            parameters.put("reviewers", Integer.toString(reviewerCount));
+            parameters.put("availableProcessors", Integer.toString(Runtime.getRuntime().availableProcessors()));
+            runner.writeJson(output, parameters);
+            System.out.println("Wrote " + runner.getResults().size() + " results to " + output.getAbsolutePath());
+        } finally {
+            if (!data.delete()) {
+                data.deleteOnExit();
+            }
+        }
+    }
+
+    private void runAssign(Map<String, Reviewer> reviewers, List<Integer> threadCounts, int ops) throws Exception {
+        int maxOpen = intOption("maxOpen", 8);
+        int hold = intOption("hold", 4);
+        for (int threads : threadCounts) {
+            ReviewerAssigner assigner = new ReviewerAssigner(reviewers, maxOpen);
+            AtomicLong violations = new AtomicLong();
+            if (enabled("assign.lockFree")) {
+                long contendedBefore = assigner.getContendedClaims();
+                report(runner.run("assign.lockFree.t" + threads, (long) threads * ops, () -> runThreads(threads,
+                        t -> assignLoop(assigner::assign, ops, hold, maxOpen, t, violations))),
+                        "contended claims " + (assigner.getContendedClaims() - contendedBefore));
+            }
+            if (enabled("assign.globalLock")) {
+                Object lock = new Object();
+                report(runner.run("assign.globalLock.t" + threads, (long) threads * ops,
+                        () -> runThreads(threads, t -> assignLoop(excluded -> {
+                            synchronized (lock) {
+                                return assigner.assign(excluded);
+                            }
+                        }, ops, hold, maxOpen, t, violations))), "");
+            }
+            if (violations.get() > 0) {
+                throw new IllegalStateException(violations.get() + " assignments exceeded the open assignment cap");
+            }
+        }
+    }
+
+    private void runAggregate(List<ReviewRecord> records, List<Integer> threadCounts) throws Exception {
+        int batch = intOption("batch", 1);
+        int stripes = intOption("stripes", 4 * Runtime.getRuntime().availableProcessors());
+        long snapshotMillis = Long.parseLong(options.getOrDefault("snapshotMillis", "50"));
+        long validCount = records.stream().filter(ReviewRecord::isValid).count();
+        for (int threads : threadCounts) {
+            if (enabled("aggregate.striped")) {
+                AtomicLong snapshots = new AtomicLong();
+                AtomicReference<ConcurrentReviewerAggregator> last = new AtomicReference<>();
+                report(runner.run("aggregate.striped.t" + threads, records.size(), () -> {
+                    ConcurrentReviewerAggregator aggregator =
+                            new ConcurrentReviewerAggregator(stripes, StatsWindow.getDefault());
+                    last.set(aggregator);
+                    return withReader(snapshotMillis, snapshots, aggregator::snapshotAggregates,
+                            () -> runThreads(threads, t -> produce(records, threads, t, batch, aggregator::addAll)));
+                }), snapshots.get() + " snapshots");
+                checkCount("aggregate.striped.t" + threads, last.get().snapshotAggregates(), validCount);
+            }
+            if (enabled("aggregate.globalLock")) {
+                AtomicLong snapshots = new AtomicLong();
+                AtomicReference<ReviewerAggregates> last = new AtomicReference<>();
+                report(runner.run("aggregate.globalLock.t" + threads, records.size(), () -> {
+                    ReviewerAggregates aggregates = new ReviewerAggregates(new ReviewerDictionary());
+                    last.set(aggregates);
+                    return withReader(snapshotMillis, snapshots, () -> {
+                        synchronized (aggregates) {
+                            ReviewerAggregates copy = new ReviewerAggregates(new ReviewerDictionary());
+                            copy.merge(aggregates);
+                            return copy;
+                        }
+                    }, () -> runThreads(threads, t -> produce(records, threads, t, batch, events -> {
+                        synchronized (aggregates) {
+                            for (ReviewRecord event : events) {
+                                aggregates.add(event);
+                            }
+                        }
+                    })));
+                }), snapshots.get() + " snapshots");
+                checkCount("aggregate.globalLock.t" + threads, last.get(), validCount);
+            }
+        }
+    }
+
+    private interface Producer {
+        void add(List<ReviewRecord> events);
+    }
+
+    /**
+     * Adds this thread's contiguous slice of the records, batch records per call.
+     */
+    private static long produce(List<ReviewRecord> records, int threads, int thread, int batch, Producer producer) {
+        int from = (int) ((long) records.size() * thread / threads);
+        int to = (int) ((long) records.size() * (thread + 1) / threads);
+        for (int i = from; i < to; i += batch) {
+            producer.add(records.subList(i, Math.min(to, i + batch)));
+        }
+        return to - from;
+    }
+
+    private interface Snapshot {
+        ReviewerAggregates take();
+    }
+
+    /**
+     * Runs the producers while a reader thread takes a snapshot every snapshotMillis.
+     */
+    private static long withReader(long snapshotMillis, AtomicLong snapshots, Snapshot snapshot,
+                                   BenchmarkRunner.Task producers) throws Exception {
+        if (snapshotMillis <= 0) {
+            return (Long) producers.run();
+        }
+        Thread reader = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Thread.sleep(snapshotMillis);
+                    snapshot.take();
+                    snapshots.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "snapshot-reader");
+        reader.start();
+        try {
+            return (Long) producers.run();
+        } finally {
+            reader.interrupt();
+            reader.join();
+        }
+    }
+
+    private static void checkCount(String name, ReviewerAggregates aggregates, long expected) {
+        if (aggregates.getTotalValidCount() != expected) {
+            throw new IllegalStateException(name + " aggregated " + aggregates.getTotalValidCount() +
+                    " valid records but expected " + expected);
+        }
+    }
+
+    private interface Assign {
+        Assignment assign(Set<String> excluded);
+    }
+
+    /**
+     * Makes ops assignments, keeping up to hold of them open, and completes the rest.
+     *
+     * @return Number of assignments rejected because every reviewer was at capacity
+     */
+    private static long assignLoop(Assign assign, int ops, int hold, int maxOpen, int thread, AtomicLong violations) {
+        Set<String> author = Collections.singleton("r" + thread);
+        Assignment[] open = new Assignment[Math.max(1, hold)];
+        long rejected = 0;
+        for (int i = 0; i < ops; i++) {
+            int slot = i % open.length;
+            if (open[slot] != null) {
+                open[slot].complete();
+                open[slot] = null;
+            }
+            Assignment assignment = assign.assign(author);
+            if (assignment == null) {
+                rejected++;
+            } else if (assignment.getQueuePosition() >= maxOpen) {
+                violations.incrementAndGet();
+            }
+            open[slot] = hold > 0 ? assignment : null;
+            if (hold == 0 && assignment != null) {
+                assignment.complete();
+            }
+        }
+        for (Assignment assignment : open) {
+            if (assignment != null) {
+                assignment.complete();
+            }
+        }
+        return rejected;
+    }
+
+    private interface ThreadTask {
+        long run(int thread) throws Exception;
+    }
+
+    /**
+     * Runs the task on the given number of threads started together and returns the sum of
+     * their results.
+     */
+    private static long runThreads(int threads, ThreadTask task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong total = new AtomicLong();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    total.addAndGet(task.run(thread));
+                } catch (Exception e) {
+                    failure.compareAndSet(null, e);
+                }
+            }, "contention-" + t);
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return total.get();
+    }
+
+    private static void report(BenchmarkResult result, String note) {
+        System.out.printf("%-28s %12.2f ms/op  +- %8.2f  %,14.0f ops/s  %s%n", result.getName(),
+                result.getMeanNanos() / 1e6, result.getStdDevNanos() / 1e6, result.getOpsPerSecond(), note);
+    }
+
+    private boolean enabled(String name) {
+        if (only.isEmpty()) {
+            return true;
+        }
+        for (String prefix : only) {
+            if (name.startsWith(prefix) || prefix.startsWith(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
@@ -0,0 +1,90 @@
+package com.earlyreviewer.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * DatasetGenerator is a command-line tool that writes a synthetic review events CSV for load
+ * and soak testing, in the column order CSVParser expects.
+ *
+ * Usage: DatasetGenerator --out=file.csv|- [--rows=N] [--reviewers=N] [--skew=S] [--seed=N]
+ *        [--distribution=exponential|log_normal|pareto|uniform] [--invalid=F]
+ *
+ * --skew is the Zipf exponent of reviewer popularity (0 = uniform) and --invalid the fraction
+ * of rows made invalid (non-positive timestamps, completion before submission, short lines,
+ * malformed numbers). With --out=- the CSV is written to standard output.
+ */
+public class DatasetGenerator {
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        String out = options.get("out");
+        if (out == null) {
+            throw new IllegalArgumentException("Missing required option --out=file.csv (or --out=- for stdout)");
+        }
+
+        long rows = Long.parseLong(options.getOrDefault("rows", Long.toString(SyntheticDataset.MEDIUM_ROWS)));
+        int reviewers = Integer.parseInt(options.getOrDefault("reviewers", "10000"));
+        SyntheticDataset dataset = new SyntheticDataset(rows, reviewers,
+                Double.parseDouble(options.getOrDefault("skew", "1.0")),
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                SyntheticDataset.TimeDistribution.valueOf(
+                        options.getOrDefault("distribution", "exponential").toUpperCase(Locale.ROOT)),
+                Double.parseDouble(options.getOrDefault("invalid", "0")));
+
+        long start = System.nanoTime();
+        long bytes;
+        if (out.equals("-")) {
+            CountingOutputStream counter = new CountingOutputStream(System.out);
+            dataset.write(counter);
+            bytes = counter.count;
+        } else {
+            File file = new File(out);
+            dataset.write(file);
+            bytes = file.length();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Wrote %d rows (%d bytes) for %d reviewers in %.2f s (%.1f MB/s)%n",
+                rows, bytes, reviewers, seconds, bytes / 1e6 / seconds);
+    }
+
+    /**
+     * Counts bytes written through to standard output, which has no length to query.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private final OutputStream out;
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
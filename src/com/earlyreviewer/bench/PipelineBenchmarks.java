@@ -0,0 +1,328 @@
+package com.earlyreviewer.bench;
+
+import com.earlyreviewer.domain.ReviewRecord;
+import com.earlyreviewer.domain.ReviewRecordStore;
+import com.earlyreviewer.domain.Reviewer;
+import com.earlyreviewer.domain.ReviewerAggregates;
+import com.earlyreviewer.domain.ReviewerDictionary;
+import com.earlyreviewer.domain.ReviewerFeatures;
+import com.earlyreviewer.infra.CSVParser;
+import com.earlyreviewer.infra.ColumnarResults;
+import com.earlyreviewer.infra.PredictionEngine;
+import com.earlyreviewer.infra.ReviewerProfileStore;
+import com.earlyreviewer.usecase.ReviewerAnalysis;
+import com.earlyreviewer.usecase.ReviewerAnalyzer;
+import com.earlyreviewer.util.CSVExporter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * PipelineBenchmarks measures each stage of the analysis pipeline (parse, aggregate, predict,
+ * export) and the end-to-end run on a synthetic dataset, writing the results as JSON.
+ *
+ * Usage: PipelineBenchmarks [--scale=small|medium|large] [--rows=N] [--reviewers=N] [--skew=S]
+ *        [--seed=N] [--distribution=exponential|log_normal|pareto|uniform] [--invalid=F] [--warmup=N] [--iterations=N] [--only=prefix,...] [--data=file.csv]
+ *        [--out=benchmark-results.json]
+ *
+ * Stages that materialize every record (parse.readLine, parse.mapped, parse.parallel,
+ * aggregate.records, aggregate.store) need heap proportional to the row count; use --only to
+ * restrict large runs to the streaming benchmarks, e.g. --only=endToEnd.
+ */
+public class PipelineBenchmarks {
+    private final Map<String, String> options;
+    private final BenchmarkRunner runner;
+    private final List<String> only;
+
+    private PipelineBenchmarks(Map<String, String> options) {
+        this.options = options;
+        this.runner = new BenchmarkRunner(intOption("warmup", 2), intOption("iterations", 5));
+        this.only = new ArrayList<>();
+        String filter = options.get("only");
+        if (filter != null && !filter.isEmpty()) {
+            for (String prefix : filter.split(",")) {
+                only.add(prefix.trim());
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Keep per-run INFO logging out of the measurements
+        Logger.getLogger("").setLevel(Level.WARNING);
+
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        new PipelineBenchmarks(options).runAll();
+    }
+
+    private void runAll() throws Exception {
+        long rows = longOption("rows", defaultRows(options.getOrDefault("scale", "medium")));
+        int reviewers = intOption("reviewers", (int) Math.max(1, Math.min(rows / 100, 1_000_000)));
+        double skew = Double.parseDouble(options.getOrDefault("skew", "1.0"));
+        long seed = longOption("seed", 42L);
+        SyntheticDataset.TimeDistribution distribution = SyntheticDataset.TimeDistribution.valueOf(
+                options.getOrDefault("distribution", "exponential").toUpperCase(Locale.ROOT));
+        double invalidFraction = Double.parseDouble(options.getOrDefault("invalid", "0"));
+        File output = new File(options.getOrDefault("out", "benchmark-results.json"));
+
+        File data;
+        boolean temporary = !options.containsKey("data");
+        if (temporary) {
+            data = File.createTempFile("bench", ".csv");
+            long start = System.nanoTime();
+            new SyntheticDataset(rows, reviewers, skew, seed, distribution, invalidFraction).write(data);
+            System.out.printf("Generated %d rows for %d reviewers (skew %.2f) in %d ms%n",
+                    rows, reviewers, skew, (System.nanoTime() - start) / 1_000_000);
+        } else {
+            data = new File(options.get("data"));
+        }
+        File exportFile = File.createTempFile("bench", ".out.csv");
+
+        try {
+            runStages(data, rows, exportFile);
+
+            Map<String, String> parameters = new LinkedHashMap<>();
+            parameters.put("rows", Long.toString(rows));
+            parameters.put("reviewers", Integer.toString(reviewers));
+            parameters.put("skew", Double.toString(skew));
+            parameters.put("seed", Long.toString(seed));
+            parameters.put("distribution", distribution.name());
+            parameters.put("invalidFraction", Double.toString(invalidFraction));
+            parameters.put("dataFile", temporary ? "synthetic" : data.getPath());
+            parameters.put("dataBytes", Long.toString(data.length()));
+            runner.writeJson(output, parameters);
+            System.out.println("Wrote " + runner.getResults().size() + " results to " + output.getAbsolutePath());
+        } finally {
+            if (temporary && !data.delete()) {
+                data.deleteOnExit();
+            }
+            if (!exportFile.delete()) {
+                exportFile.deleteOnExit();
+            }
+        }
+    }
+
+    private void runStages(File data, long rows, File exportFile) throws Exception {
+        // Parse stage
+        if (enabled("parse.readLine")) {
+            report(runner.run("parse.readLine", rows, () -> CSVParser.parse(data)));
+        }
+        if (enabled("parse.mapped")) {
+            report(runner.run("parse.mapped", rows, () -> CSVParser.parseMapped(data)));
+        }
+        if (enabled("parse.parallel")) {
+            report(runner.run("parse.parallel", rows, () -> CSVParser.parseParallel(data)));
+        }
+
+        // Aggregate stage, from materialized records and from the columnar store
+        if (enabled("aggregate.records")) {
+            List<ReviewRecord> records = CSVParser.parseMapped(data);
+            report(runner.run("aggregate.records", records.size(), () -> {
+                ReviewerAggregates aggregates = ReviewerAnalyzer.newAggregates(new ReviewerDictionary());
+                for (ReviewRecord record : records) {
+                    aggregates.add(record);
+                }
+                return aggregates;
+            }));
+        }
+        if (enabled("aggregate.store")) {
+            ReviewRecordStore store = CSVParser.parseToStore(data);
+            report(runner.run("aggregate.store", store.size(), () -> {
+                ReviewerAggregates aggregates = ReviewerAnalyzer.newAggregates(store.getDictionary());
+                aggregates.addAll(store);
+                return aggregates;
+            }));
+        }
+
+        // Predict and export stages share one analysis
+        if (enabled("predict") || enabled("export")) {
+            ReviewerAnalysis analysis = ReviewerAnalyzer.analyze(data);
+            Collection<Reviewer> reviewers = new TreeMap<>(analysis.getReviewers()).values();
+            double globalAverageTime = analysis.getGlobalAverageTime();
+
+            if (enabled("predict.perReviewer")) {
+                report(runner.run("predict.perReviewer", reviewers.size(), () -> {
+                    PredictionEngine.Run run = PredictionEngine.start(globalAverageTime, analysis.getGlobalLatency(),
+                            analysis.getGlobalWindow());
+                    for (Reviewer reviewer : reviewers) {
+                        run.predict(reviewer);
+                    }
+                    run.finish();
+                    return reviewers;
+                }));
+            }
+            if (enabled("predict.batch")) {
+                ReviewerFeatures features = ReviewerFeatures.of(reviewers.toArray(new Reviewer[0]));
+                long[] earlyBits = new long[(features.size() + 63) / 64];
+                int[] ruleIds = new int[features.size()];
+                report(runner.run("predict.batch", features.size(),
+                        () -> PredictionEngine.predictBatch(features, globalAverageTime, analysis.getGlobalLatency(),
+                                analysis.getGlobalWindow(), earlyBits, ruleIds)));
+            }
+            if (enabled("export.csv")) {
+                report(runner.run("export.csv", reviewers.size(), () -> {
+                    CSVExporter.export(reviewers, exportFile);
+                    return exportFile.length();
+                }));
+            }
+            if (enabled("export.csv.parallel")) {
+                report(runner.run("export.csv.parallel", reviewers.size(), () -> {
+                    CSVExporter.exportParallel(reviewers, exportFile, false, false);
+                    return exportFile.length();
+                }));
+            }
+            if (enabled("export.csv.percentiles")) {
+                report(runner.run("export.csv.percentiles", reviewers.size(), () -> {
+                    CSVExporter.exportParallel(reviewers, exportFile, true, false);
+                    return exportFile.length();
+                }));
+            }
+            if (enabled("export.csv.gzip")) {
+                report(runner.run("export.csv.gzip", reviewers.size(), () -> {
+                    CSVExporter.export(reviewers, exportFile, false, true);
+                    return exportFile.length();
+                }));
+            }
+            if (enabled("export.csv.gzipParallel")) {
+                report(runner.run("export.csv.gzipParallel", reviewers.size(), () -> {
+                    CSVExporter.exportParallel(reviewers, exportFile, false, true);
+                    return exportFile.length();
+                }));
+            }
+            if (enabled("export.columnar")) {
+                report(runner.run("export.columnar", reviewers.size(), () -> {
+                    ColumnarResults.of(reviewers).write(exportFile);
+                    return exportFile.length();
+                }));
+            }
+            // Loading results back as typed values, as downstream dashboards do
+            if (enabled("load.csv")) {
+                CSVExporter.export(reviewers, exportFile);
+                System.out.printf("%-22s %,14d bytes%n", "results.csv", exportFile.length());
+                report(runner.run("load.csv", reviewers.size(), () -> loadCsvResults(exportFile)));
+            }
+            if (enabled("load.columnar")) {
+                ColumnarResults.of(reviewers).write(exportFile);
+                System.out.printf("%-22s %,14d bytes%n", "results.columnar", exportFile.length());
+                report(runner.run("load.columnar", reviewers.size(), () -> ColumnarResults.read(exportFile)));
+            }
+        }
+
+        // End-to-end: stream the file through analysis and export the sorted result
+        if (enabled("endToEnd")) {
+            report(runner.run("endToEnd", rows, () -> {
+                Map<String, Reviewer> reviewers = ReviewerAnalyzer.process(data);
+                CSVExporter.export(new TreeMap<>(reviewers).values(), exportFile);
+                return reviewers;
+            }));
+        }
+        // Warm start: the profiles are already stored, so the run only parses and skips old records
+        if (enabled("endToEnd.profileStore")) {
+            File storeFile = File.createTempFile("bench", ".profiles");
+            try (ReviewerProfileStore store = ReviewerProfileStore.open(storeFile)) {
+                ReviewerAnalyzer.analyze(data, store);
+                System.out.printf("%-22s %,14d bytes%n", "profiles", storeFile.length());
+                report(runner.run("endToEnd.profileStore", rows, () -> {
+                    Map<String, Reviewer> reviewers = ReviewerAnalyzer.analyze(data, store).getReviewers();
+                    CSVExporter.export(new TreeMap<>(reviewers).values(), exportFile);
+                    return reviewers;
+                }));
+            } finally {
+                for (File file : new File[] {storeFile, new File(storeFile.getPath() + ".lock")}) {
+                    if (!file.delete()) {
+                        file.deleteOnExit();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads an exported CSV into typed columns the way a downstream consumer would.
+     *
+     * @return Number of early reviewers, so the parsed values are used
+     */
+    private static int loadCsvResults(File file) throws IOException {
+        List<String> ids = new ArrayList<>();
+        List<String> explanations = new ArrayList<>();
+        long averageSum = 0;
+        long pastReviewsSum = 0;
+        int flags = 0;
+        int early = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",", 8);
+                ids.add(fields[0]);
+                averageSum += Long.parseLong(fields[1]);
+                pastReviewsSum += Integer.parseInt(fields[2]);
+                flags += "Experienced".equals(fields[3]) ? 1 : 0;
+                flags += Boolean.parseBoolean(fields[4]) ? 1 : 0;
+                flags += Boolean.parseBoolean(fields[5]) ? 1 : 0;
+                early += "YES".equals(fields[6]) ? 1 : 0;
+                explanations.add(fields[7].substring(1, fields[7].length() - 1));
+            }
+        }
+        return early + (int) ((averageSum + pastReviewsSum + flags + ids.size() + explanations.size()) & 1);
+    }
+
+    private boolean enabled(String name) {
+        if (only.isEmpty()) {
+            return true;
+        }
+        for (String prefix : only) {
+            if (name.startsWith(prefix) || prefix.startsWith(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void report(BenchmarkResult result) {
+        System.out.printf("%-22s %12.2f ms/op  +- %8.2f  %,14.0f ops/s  %10.1f B/op%n", result.getName(),
+                result.getMeanNanos() / 1e6, result.getStdDevNanos() / 1e6, result.getOpsPerSecond(),
+                result.getAllocatedBytesPerOp());
+    }
+
+    private static long defaultRows(String scale) {
+        switch (scale) {
+            case "small":
+                return SyntheticDataset.SMALL_ROWS;
+            case "medium":
+                return SyntheticDataset.MEDIUM_ROWS;
+            case "large":
+                return SyntheticDataset.LARGE_ROWS;
+            default:
+                throw new IllegalArgumentException("Unknown scale: " + scale);
+        }
+    }
+
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private long longOption(String name, long defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+}
@@ -0,0 +1,103 @@
+package com.earlyreviewer.bench;
+
+import com.earlyreviewer.domain.ReviewRecord;
+import com.earlyreviewer.domain.Reviewer;
+
+import java.util.List;
+
+/**
+ * ReviewerAllocationCheck verifies that Reviewer's statistics and accessors do not allocate,
+ * using the per-thread allocation counter. Exits with status 1 if any check allocates.
+ *
+ * Usage: ReviewerAllocationCheck [reviewers] [recordsPerReviewer]
+ */
+public class ReviewerAllocationCheck {
+    private static final int ROUNDS = 20;
+
+    // Keeps accessor results alive so the JIT cannot drop the calls
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        int reviewerCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int recordsPerReviewer = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        if (BenchmarkRunner.allocatedBytes() < 0) {
+            System.err.println("Thread allocation counters are not supported by this JVM");
+            System.exit(2);
+        }
+
+        Reviewer[] reviewers = new Reviewer[reviewerCount];
+        ReviewRecord[] records = new ReviewRecord[recordsPerReviewer];
+        for (int j = 0; j < recordsPerReviewer; j++) {
+            records[j] = new ReviewRecord("r", 7, 1_000L + j, 1_000L + j + 60 * (j % 50), j % 3 == 0, j % 5 == 0);
+        }
+        for (int i = 0; i < reviewerCount; i++) {
+            reviewers[i] = new Reviewer("r" + i);
+            for (ReviewRecord record : records) {
+                reviewers[i].addRecord(record);
+            }
+        }
+
+        long overhead = measure(() -> { });
+        boolean passed = true;
+        passed &= check("computeStatistics", reviewers, overhead, () -> {
+            for (Reviewer reviewer : reviewers) {
+                reviewer.computeStatistics();
+            }
+        });
+        passed &= check("derived getters", reviewers, overhead, () -> {
+            long total = 0;
+            for (Reviewer reviewer : reviewers) {
+                total += (long) reviewer.getAverageTimeToReview() + reviewer.getValidRecordCount() +
+                        reviewer.getPastReviewsCount() + (reviewer.isExperienced() ? 1 : 0) +
+                        (reviewer.hasTeamFamiliarity() ? 1 : 0) + (reviewer.hasContextualKnowledge() ? 1 : 0);
+            }
+            sink = total;
+        });
+        passed &= check("getRecords", reviewers, overhead, () -> {
+            long total = 0;
+            for (Reviewer reviewer : reviewers) {
+                List<ReviewRecord> view = reviewer.getRecords();
+                total += view.size();
+            }
+            sink = total;
+        });
+        passed &= check("accumulate", reviewers, overhead, () -> {
+            for (Reviewer reviewer : reviewers) {
+                reviewer.accumulate(records[0]);
+            }
+        });
+
+        System.out.println(passed ? "All allocation checks passed" : "Allocation checks FAILED");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Requires a measured round of the action to allocate nothing beyond the counter's own overhead.
+     */
+    private static boolean check(String name, Reviewer[] reviewers, long overhead, Runnable action) {
+        long best = Math.max(0, measure(action) - overhead);
+        boolean ok = best == 0;
+        System.out.printf("%-18s %s (%d bytes for %d reviewers)%n", name, ok ? "OK" : "ALLOCATES", best,
+                reviewers.length);
+        return ok;
+    }
+
+    /**
+     * Warms the action up so it is compiled, then returns the fewest bytes allocated by a round.
+     * The best of several rounds is used so incidental allocations by the JIT do not count.
+     */
+    private static long measure(Runnable action) {
+        for (int i = 0; i < ROUNDS * 10; i++) {
+            action.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long before = BenchmarkRunner.allocatedBytes();
+            action.run();
+            best = Math.min(best, BenchmarkRunner.allocatedBytes() - before);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,283 @@
+package com.earlyreviewer.bench;
+
+import com.earlyreviewer.api.RoutingHttpServer;
+import com.earlyreviewer.domain.LatencyHistogram;
+import com.earlyreviewer.domain.ReviewRecord;
+import com.earlyreviewer.usecase.ReviewerAnalyzer;
+import com.earlyreviewer.usecase.ReviewerRouter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * RoutingLoadTest drives top-K lookups against a ReviewerRouter, in-process or through
+ * RoutingHttpServer, optionally while new review events are ingested, and reports throughput and
+ * lookup latency percentiles.
+ *
+ * Usage: RoutingLoadTest [--data=file.csv | --rows=N --reviewers=N --seed=N] [--mode=inprocess|http]
+ *        [--threads=N] [--rate=lookups/s, 0 = unthrottled] [--seconds=N] [--k=N]
+ *        [--ingestRate=records/s] [--unavailable=F]
+ *
+ * With --rate the lookups are paced at a fixed total rate and latency is measured from each
+ * lookup's scheduled start, so a stalled server shows up in the percentiles.
+ */
+public class RoutingLoadTest {
+    private static final int INGEST_BATCH = 100;
+
+    private final Map<String, String> options;
+    private final AtomicLong ingested = new AtomicLong();
+
+    private RoutingLoadTest(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Logger.getLogger("").setLevel(Level.WARNING);
+
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        new RoutingLoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        String mode = options.getOrDefault("mode", "inprocess");
+        if (!mode.equals("inprocess") && !mode.equals("http")) {
+            throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+        int threads = intOption("threads", Runtime.getRuntime().availableProcessors());
+        long rate = longOption("rate", 0);
+        int seconds = intOption("seconds", 10);
+        int k = intOption("k", 3);
+        long ingestRate = longOption("ingestRate", 0);
+        double unavailableFraction = Double.parseDouble(options.getOrDefault("unavailable", "0"));
+
+        File data = dataFile();
+        long start = System.nanoTime();
+        ReviewerRouter router = new ReviewerRouter(ReviewerAnalyzer.analyze(data));
+        System.out.printf(Locale.ROOT, "Loaded %d early reviewers in %d ms%n", router.size(),
+                (System.nanoTime() - start) / 1_000_000);
+
+        List<String> ranked = new ArrayList<>();
+        router.topK(router.size()).forEach(reviewer -> ranked.add(reviewer.getReviewerId()));
+        SplittableRandom random = new SplittableRandom(longOption("seed", 42L));
+        for (String reviewerId : ranked) {
+            if (random.nextDouble() < unavailableFraction) {
+                router.setAvailable(reviewerId, false);
+            }
+        }
+
+        RoutingHttpServer server = null;
+        if (mode.equals("http")) {
+            server = new RoutingHttpServer(router, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                    Runtime.getRuntime().availableProcessors());
+            server.start();
+        }
+        try {
+            Lookup lookup = server == null
+                    ? authorId -> router.topK(k, Collections.singleton(authorId)).size()
+                    : httpLookup(server.getPort(), k);
+
+            // Short warmup so the measurement does not include JIT compilation
+            runLookups(lookup, ranked, threads, 0, 2, new SplittableRandom(1));
+
+            Thread ingester = ingestRate > 0 ? startIngester(router, ingestRate) : null;
+            Result result = runLookups(lookup, ranked, threads, rate, seconds, random);
+            if (ingester != null) {
+                ingester.interrupt();
+                ingester.join();
+            }
+
+            LatencyHistogram latency = result.latency;
+            System.out.printf(Locale.ROOT, "mode=%s threads=%d k=%d rate=%s ingestRate=%d%n", mode, threads, k,
+                    rate == 0 ? "unthrottled" : Long.toString(rate), ingestRate);
+            System.out.printf(Locale.ROOT, "lookups=%d throughput=%.0f/s returned=%.2f/lookup errors=%d%n",
+                    latency.getTotalCount(), latency.getTotalCount() * 1e9 / result.elapsedNanos,
+                    (double) result.returned / Math.max(1, latency.getTotalCount()), result.errors);
+            System.out.printf(Locale.ROOT, "latency us: p50=%.1f p90=%.1f p99=%.1f max=%.1f%n",
+                    latency.getP50() / 1e3, latency.getP90() / 1e3, latency.getP99() / 1e3, latency.getMax() / 1e3);
+            if (ingester != null) {
+                System.out.printf(Locale.ROOT, "ingested=%d records, %d early reviewers ranked%n",
+                        ingested.get(), router.size());
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    private interface Lookup {
+        /**
+         * Routes a PR by the given author and returns the number of reviewers found.
+         */
+        int route(String authorId) throws IOException;
+    }
+
+    private static final class Result {
+        final LatencyHistogram latency = new LatencyHistogram();
+        long elapsedNanos;
+        long returned;
+        long errors;
+    }
+
+    private Result runLookups(Lookup lookup, List<String> authors, int threads, long rate, int seconds,
+                              SplittableRandom random) throws InterruptedException {
+        Result total = new Result();
+        Result[] results = new Result[threads];
+        Thread[] workers = new Thread[threads];
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + seconds * 1_000_000_000L;
+        // Each thread issues every threads-th lookup of the shared schedule
+        long intervalNanos = rate > 0 ? Math.max(1, 1_000_000_000L * threads / rate) : 0;
+        for (int t = 0; t < threads; t++) {
+            Result result = new Result();
+            SplittableRandom threadRandom = random.split();
+            long firstNanos = startNanos + (rate > 0 ? 1_000_000_000L * t / rate : 0);
+            results[t] = result;
+            workers[t] = new Thread(() -> {
+                long scheduled = firstNanos;
+                while (true) {
+                    long begin;
+                    if (intervalNanos > 0) {
+                        long now;
+                        while ((now = System.nanoTime()) < scheduled) {
+                            LockSupport.parkNanos(scheduled - now);
+                        }
+                        begin = scheduled;
+                        scheduled += intervalNanos;
+                    } else {
+                        begin = System.nanoTime();
+                    }
+                    if (begin >= endNanos) {
+                        break;
+                    }
+                    String author = authors.isEmpty() ? "" : authors.get(threadRandom.nextInt(authors.size()));
+                    try {
+                        result.returned += lookup.route(author);
+                    } catch (IOException e) {
+                        result.errors++;
+                    }
+                    result.latency.record(System.nanoTime() - begin);
+                }
+            }, "lookup-" + t);
+            workers[t].start();
+        }
+        for (int t = 0; t < threads; t++) {
+            workers[t].join();
+            total.latency.add(results[t].latency);
+            total.returned += results[t].returned;
+            total.errors += results[t].errors;
+        }
+        total.elapsedNanos = System.nanoTime() - startNanos;
+        return total;
+    }
+
+    /**
+     * Feeds random review records to the router at the given rate until interrupted, touching
+     * both existing and new reviewer IDs.
+     */
+    private Thread startIngester(ReviewerRouter router, long recordsPerSecond) {
+        Thread ingester = new Thread(() -> {
+            SplittableRandom random = new SplittableRandom(7);
+            long intervalNanos = 1_000_000_000L * INGEST_BATCH / recordsPerSecond;
+            long next = System.nanoTime();
+            long timestamp = 1_700_000_000L;
+            int reviewerIds = Math.max(1, router.size() * 2);
+            while (!Thread.currentThread().isInterrupted()) {
+                List<ReviewRecord> batch = new ArrayList<>(INGEST_BATCH);
+                for (int i = 0; i < INGEST_BATCH; i++) {
+                    timestamp += random.nextInt(60);
+                    batch.add(new ReviewRecord("r" + random.nextInt(reviewerIds), random.nextInt(30), timestamp,
+                            timestamp + 60 + random.nextInt(48 * 3600), random.nextBoolean(), random.nextBoolean()));
+                }
+                router.ingest(batch);
+                ingested.addAndGet(INGEST_BATCH);
+                next += intervalNanos;
+                long now = System.nanoTime();
+                if (next > now) {
+                    LockSupport.parkNanos(next - now);
+                }
+            }
+        }, "ingest");
+        ingester.start();
+        return ingester;
+    }
+
+    private static Lookup httpLookup(int port, int k) {
+        String base = "http://127.0.0.1:" + port + "/route?k=" + k + "&exclude=";
+        return authorId -> {
+            HttpURLConnection connection = (HttpURLConnection) new URL(base + authorId).openConnection();
+            int status = connection.getResponseCode();
+            // Read the body fully so the keep-alive connection can be reused
+            byte[] body = readAll(status < 400 ? connection.getInputStream() : connection.getErrorStream());
+            if (status != 200) {
+                throw new IOException("HTTP " + status);
+            }
+            int count = 0;
+            for (byte b : body) {
+                if (b == '{') {
+                    count++;
+                }
+            }
+            return count - 1;
+        };
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        byte[] buffer = new byte[4096];
+        try (InputStream stream = in) {
+            int n;
+            while ((n = stream.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private File dataFile() throws IOException {
+        String data = options.get("data");
+        if (data != null) {
+            return new File(data);
+        }
+        File file = File.createTempFile("routing-load", ".csv");
+        file.deleteOnExit();
+        new SyntheticDataset(longOption("rows", 1_000_000L), intOption("reviewers", 10_000), 1.0,
+                longOption("seed", 42L)).write(file);
+        return file;
+    }
+
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private long longOption(String name, long defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+}
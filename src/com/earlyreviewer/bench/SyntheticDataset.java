@@ -0,0 +1,422 @@
+package com.earlyreviewer.bench;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+/**
+ * SyntheticDataset writes review events in the mock_dataset.csv schema at arbitrary scale.
+ * Reviewer popularity follows a Zipf distribution with a configurable exponent (0 = uniform),
+ * and each reviewer keeps a stable pastReviewsCount, speed and familiarity profile so that
+ * the prediction rules see a realistic mix of outcomes.
+ * A fraction of rows can be made invalid in the ways CSVParser rejects them.
+ * Rows are formatted straight into a byte buffer and memory use is bounded regardless of the
+ * row count, so files of any size can be streamed at disk speed.
+ */
+public class SyntheticDataset {
+    public static final long SMALL_ROWS = 10_000L;
+    public static final long MEDIUM_ROWS = 1_000_000L;
+    public static final long LARGE_ROWS = 100_000_000L;
+
+    private static final byte[] HEADER =
+            ("reviewerId,pastReviewsCount,submissionTimestamp,completionTimestamp,teamFamiliarity," +
+                    "contextualKnowledge\n").getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final long START_TIMESTAMP = 1_600_000_000L;
+    private static final int BUFFER_BYTES = 1 << 20;
+    // Longest possible row: 11-digit ID, 10-digit count, two 19-digit timestamps, two booleans
+    private static final int MAX_ROW_BYTES = 96;
+    private static final byte[] DIGIT_PAIRS = new byte[200];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_PAIRS[2 * i] = (byte) ('0' + i / 10);
+            DIGIT_PAIRS[2 * i + 1] = (byte) ('0' + i % 10);
+        }
+    }
+
+    /**
+     * Distribution of time-to-review around each reviewer's mean.
+     */
+    public enum TimeDistribution {
+        /** Exponential with the reviewer's mean. */
+        EXPONENTIAL,
+        /** Log-normal with the reviewer's mean as median and sigma 1. */
+        LOG_NORMAL,
+        /** Pareto with shape 1.5 scaled to the reviewer's mean; a few very stale reviews. */
+        PARETO,
+        /** Uniform between 1 second and twice the reviewer's mean. */
+        UNIFORM
+    }
+
+    /**
+     * Ways a generated row can be invalid; each is rejected or skipped by CSVParser.
+     */
+    public enum InvalidKind {
+        /** Submission timestamp of zero or below. */
+        NON_POSITIVE_TIMESTAMP,
+        /** Completion at or before submission (non-positive time-to-review). */
+        COMPLETION_BEFORE_SUBMISSION,
+        /** Fewer than six columns. */
+        SHORT_LINE,
+        /** A numeric column that does not parse. */
+        MALFORMED_NUMBER
+    }
+
+    private final long rows;
+    private final int reviewers;
+    private final double skew;
+    private final long seed;
+    private final TimeDistribution timeDistribution;
+    private final double invalidFraction;
+
+    /**
+     * Creates a dataset with exponential review times and no invalid rows.
+     *
+     * @param rows Number of data rows to write
+     * @param reviewers Number of distinct reviewer IDs
+     * @param skew Zipf exponent for reviewer popularity; 0 gives a uniform distribution
+     * @param seed Random seed, so the same parameters always produce the same file
+     */
+    public SyntheticDataset(long rows, int reviewers, double skew, long seed) {
+        this(rows, reviewers, skew, seed, TimeDistribution.EXPONENTIAL, 0.0);
+    }
+
+    /**
+     * @param rows Number of data rows to write
+     * @param reviewers Number of distinct reviewer IDs
+     * @param skew Zipf exponent for reviewer popularity; 0 gives a uniform distribution
+     * @param seed Random seed, so the same parameters always produce the same file
+     * @param timeDistribution Distribution of time-to-review around each reviewer's mean
+     * @param invalidFraction Fraction of rows in [0, 1] made invalid, spread over all InvalidKinds
+     */
+    public SyntheticDataset(long rows, int reviewers, double skew, long seed,
+                            TimeDistribution timeDistribution, double invalidFraction) {
+        if (rows < 0 || reviewers <= 0 || skew < 0 || !(invalidFraction >= 0 && invalidFraction <= 1)) {
+            throw new IllegalArgumentException("Invalid dataset parameters: rows=" + rows +
+                    ", reviewers=" + reviewers + ", skew=" + skew + ", invalidFraction=" + invalidFraction);
+        }
+        this.rows = rows;
+        this.reviewers = reviewers;
+        this.skew = skew;
+        this.seed = seed;
+        this.timeDistribution = timeDistribution;
+        this.invalidFraction = invalidFraction;
+    }
+
+    /**
+     * Writes the dataset, including the header row, to a file.
+     */
+    public void write(File file) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            write(out);
+        }
+    }
+
+    /**
+     * Writes the dataset, including the header row, to a stream. The stream is not closed.
+     */
+    public void write(OutputStream out) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        ZipfSampler popularity = new ZipfSampler(reviewers, skew);
+        InvalidKind[] invalidKinds = InvalidKind.values();
+        byte[] buffer = new byte[BUFFER_BYTES];
+        int pos = 0;
+
+        System.arraycopy(HEADER, 0, buffer, 0, HEADER.length);
+        pos += HEADER.length;
+
+        long submission = START_TIMESTAMP;
+        for (long row = 0; row < rows; row++) {
+            if (pos > buffer.length - MAX_ROW_BYTES) {
+                out.write(buffer, 0, pos);
+                pos = 0;
+            }
+
+            int reviewer = popularity.sample(random) - 1;
+            submission += random.nextInt(60);
+            long completion = submission + timeToReview(reviewer, random);
+            int pastReviewsCount = pastReviewsCount(reviewer);
+            boolean familiar = random.nextInt(100) < familiarityPercent(reviewer);
+            boolean contextual = random.nextInt(100) < 30;
+
+            InvalidKind invalid = null;
+            if (invalidFraction > 0 && random.nextDouble() < invalidFraction) {
+                invalid = invalidKinds[random.nextInt(invalidKinds.length)];
+            }
+
+            buffer[pos++] = 'r';
+            pos = writeLong(buffer, pos, reviewer);
+            buffer[pos++] = ',';
+            if (invalid == InvalidKind.MALFORMED_NUMBER) {
+                buffer[pos++] = 'x';
+            }
+            pos = writeLong(buffer, pos, pastReviewsCount);
+            buffer[pos++] = ',';
+            if (invalid == InvalidKind.NON_POSITIVE_TIMESTAMP) {
+                buffer[pos++] = '0';
+            } else {
+                pos = writeLong(buffer, pos, submission);
+            }
+            buffer[pos++] = ',';
+            if (invalid == InvalidKind.COMPLETION_BEFORE_SUBMISSION) {
+                pos = writeLong(buffer, pos, submission - random.nextInt(3600));
+            } else {
+                pos = writeLong(buffer, pos, completion);
+            }
+            if (invalid != InvalidKind.SHORT_LINE) {
+                buffer[pos++] = ',';
+                pos = writeBytes(buffer, pos, familiar ? TRUE : FALSE);
+                buffer[pos++] = ',';
+                pos = writeBytes(buffer, pos, contextual ? TRUE : FALSE);
+            }
+            buffer[pos++] = '\n';
+        }
+        out.write(buffer, 0, pos);
+        out.flush();
+    }
+
+    private long timeToReview(int reviewer, SplittableRandom random) {
+        double mean = meanReviewSeconds(reviewer);
+        double seconds;
+        switch (timeDistribution) {
+            case LOG_NORMAL:
+                seconds = mean * Math.exp(gaussian(random));
+                break;
+            case PARETO:
+                // Shape 1.5 has mean 3 * scale, so scale to the reviewer's mean
+                seconds = (mean / 3.0) / Math.pow(1.0 - random.nextDouble(), 1.0 / 1.5);
+                break;
+            case UNIFORM:
+                seconds = random.nextDouble() * 2 * mean;
+                break;
+            case EXPONENTIAL:
+            default:
+                seconds = -Math.log(1.0 - random.nextDouble()) * mean;
+                break;
+        }
+        return 1 + (long) Math.min(seconds, 365.0 * 24 * 3600);
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; one value per call keeps the generator stateless
+        double u = 1.0 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+
+    // Per-reviewer profile derived from the reviewer index so it is stable across rows
+    private static int pastReviewsCount(int reviewer) {
+        return mix(reviewer) % 20;
+    }
+
+    private static double meanReviewSeconds(int reviewer) {
+        return 600 + (mix(reviewer * 31 + 7) % 24) * 900;
+    }
+
+    private static int familiarityPercent(int reviewer) {
+        return mix(reviewer * 17 + 3) % 100;
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & Integer.MAX_VALUE;
+    }
+
+    /**
+     * Writes a decimal long into the buffer and returns the position after it.
+     * Digits are produced two at a time from a lookup table to halve the divisions.
+     */
+    private static int writeLong(byte[] buffer, int pos, long value) {
+        if (value < 0) {
+            buffer[pos++] = '-';
+            value = -value;
+        }
+        int end = pos + digitCount(value);
+        int i = end;
+        while (value >= 100) {
+            int pair = (int) (value % 100) * 2;
+            value /= 100;
+            buffer[--i] = DIGIT_PAIRS[pair + 1];
+            buffer[--i] = DIGIT_PAIRS[pair];
+        }
+        if (value >= 10) {
+            int pair = (int) value * 2;
+            buffer[--i] = DIGIT_PAIRS[pair + 1];
+            buffer[--i] = DIGIT_PAIRS[pair];
+        } else {
+            buffer[--i] = (byte) ('0' + value);
+        }
+        return end;
+    }
+
+    private static int digitCount(long value) {
+        long bound = 10;
+        for (int digits = 1; digits < 19; digits++) {
+            if (value < bound) {
+                return digits;
+            }
+            bound *= 10;
+        }
+        return 19;
+    }
+
+    private static int writeBytes(byte[] buffer, int pos, byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, pos, bytes.length);
+        return pos + bytes.length;
+    }
+
+    // Getters
+    public long getRows() {
+        return rows;
+    }
+
+    public int getReviewers() {
+        return reviewers;
+    }
+
+    public double getSkew() {
+        return skew;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public TimeDistribution getTimeDistribution() {
+        return timeDistribution;
+    }
+
+    public double getInvalidFraction() {
+        return invalidFraction;
+    }
+
+    /**
+     * Samples ranks 1..n with probability proportional to 1 / rank^exponent.
+     * Up to ALIAS_TABLE_LIMIT ranks an alias table (Vose) gives one-lookup sampling; beyond that,
+     * rejection-inversion (Hoermann and Derflinger, 1996) samples in constant memory.
+     */
+    private static final class ZipfSampler {
+        private static final int ALIAS_TABLE_LIMIT = 1 << 20;
+
+        private final int n;
+        private final double exponent;
+        private final double hIntegralX1;
+        private final double hIntegralN;
+        private final double s;
+        private final double[] aliasProbability;
+        private final int[] alias;
+
+        ZipfSampler(int n, double exponent) {
+            this.n = n;
+            this.exponent = exponent;
+            this.hIntegralX1 = hIntegral(1.5) - 1.0;
+            this.hIntegralN = hIntegral(n + 0.5);
+            this.s = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2.0));
+            if (exponent != 0 && n <= ALIAS_TABLE_LIMIT) {
+                this.aliasProbability = new double[n];
+                this.alias = new int[n];
+                buildAliasTable();
+            } else {
+                this.aliasProbability = null;
+                this.alias = null;
+            }
+        }
+
+        private void buildAliasTable() {
+            double total = 0;
+            for (int i = 0; i < n; i++) {
+                aliasProbability[i] = h(i + 1);
+                total += aliasProbability[i];
+            }
+            // Scale so the average weight is 1, then pair each light column with a heavy one
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int i = 0; i < n; i++) {
+                aliasProbability[i] *= n / total;
+                if (aliasProbability[i] < 1.0) {
+                    small[smallCount++] = i;
+                } else {
+                    large[largeCount++] = i;
+                }
+            }
+            while (smallCount > 0 && largeCount > 0) {
+                int light = small[--smallCount];
+                int heavy = large[--largeCount];
+                alias[light] = heavy;
+                aliasProbability[heavy] -= 1.0 - aliasProbability[light];
+                if (aliasProbability[heavy] < 1.0) {
+                    small[smallCount++] = heavy;
+                } else {
+                    large[largeCount++] = heavy;
+                }
+            }
+            while (largeCount > 0) {
+                aliasProbability[large[--largeCount]] = 1.0;
+            }
+            while (smallCount > 0) {
+                aliasProbability[small[--smallCount]] = 1.0;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            if (exponent == 0) {
+                return 1 + random.nextInt(n);
+            }
+            if (alias != null) {
+                int column = random.nextInt(n);
+                return 1 + (random.nextDouble() < aliasProbability[column] ? column : alias[column]);
+            }
+            while (true) {
+                double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+                double x = hIntegralInverse(u);
+                int k = (int) (x + 0.5);
+                if (k < 1) {
+                    k = 1;
+                } else if (k > n) {
+                    k = n;
+                }
+                if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                    return k;
+                }
+            }
+        }
+
+        private double h(double x) {
+            return Math.exp(-exponent * Math.log(x));
+        }
+
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return expm1OverX((1.0 - exponent) * logX) * logX;
+        }
+
+        private double hIntegralInverse(double x) {
+            double t = x * (1.0 - exponent);
+            if (t < -1.0) {
+                t = -1.0;
+            }
+            return Math.exp(log1pOverX(t) * x);
+        }
+
+        private static double log1pOverX(double x) {
+            if (Math.abs(x) > 1e-8) {
+                return Math.log1p(x) / x;
+            }
+            return 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+        }
+
+        private static double expm1OverX(double x) {
+            if (Math.abs(x) > 1e-8) {
+                return Math.expm1(x) / x;
+            }
+            return 1.0 + x * 0.5 * (1.0 + x * (1.0 / 3.0) * (1.0 + 0.25 * x));
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.earlyreviewer.domain;
+
+import java.util.Arrays;
+
+/**
+ * LatencyHistogram is a compact, mergeable distribution of time-to-review values in the style of
+ * HdrHistogram: each power of two is split into SUB_BUCKETS linear buckets, so recording is O(1)
+ * and percentiles are reported within about 3% of the exact value (values below 2 * SUB_BUCKETS
+ * are exact). Only the range of buckets actually used is allocated.
+ * Histograms from separate partitions can be merged with add. Not thread-safe.
+ */
+public class LatencyHistogram {
+    // Linear buckets per power of two; the reported value is the bucket midpoint
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+    // Buckets allocated around the first value: two octaves either side
+    private static final int INITIAL_HALF_RANGE = 2 * SUB_BUCKETS;
+    private static final int MAX_INDEX = 63 * SUB_BUCKETS;
+
+    private int offset;
+    private long[] counts;
+    private long totalCount;
+    private long min;
+    private long max;
+
+    // Memoized standard percentiles, recomputed after the histogram changes
+    private boolean percentilesValid;
+    private long p50;
+    private long p90;
+    private long p99;
+
+    public LatencyHistogram() {
+        this.offset = 0;
+        this.counts = new long[0];
+        this.totalCount = 0;
+        this.min = Long.MAX_VALUE;
+        this.max = Long.MIN_VALUE;
+        this.percentilesValid = false;
+    }
+
+    /**
+     * Restores a histogram from saved bucket counts, e.g. from a snapshot.
+     *
+     * @param bucketOffset Index of the bucket counted by counts[0]
+     * @param counts Counts of consecutive buckets; the histogram takes ownership of the array
+     * @param min Smallest recorded value
+     * @param max Largest recorded value
+     */
+    public LatencyHistogram(int bucketOffset, long[] counts, long min, long max) {
+        this();
+        this.offset = bucketOffset;
+        this.counts = counts;
+        for (long count : counts) {
+            totalCount += count;
+        }
+        if (totalCount > 0) {
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    /**
+     * Records one value; values below 1 are ignored, as are invalid review times elsewhere.
+     */
+    public void record(long value) {
+        if (value < 1) {
+            return;
+        }
+        int index = bucketIndex(value);
+        if (index < offset || index >= offset + counts.length) {
+            grow(index);
+        }
+        counts[index - offset]++;
+        totalCount++;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+        percentilesValid = false;
+    }
+
+    /**
+     * Merges another histogram into this one.
+     */
+    public void add(LatencyHistogram other) {
+        if (other.totalCount == 0) {
+            return;
+        }
+        cover(other.offset, other.offset + other.counts.length - 1);
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[other.offset + i - offset] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        percentilesValid = false;
+    }
+
+    public LatencyHistogram copy() {
+        return new LatencyHistogram(offset, counts.clone(), min, max);
+    }
+
+    /**
+     * Grows the allocated range to include a bucket, at least doubling it towards that bucket so
+     * a spreading distribution is reallocated only a logarithmic number of times.
+     */
+    private void grow(int index) {
+        if (counts.length == 0) {
+            cover(Math.max(0, index - INITIAL_HALF_RANGE), Math.min(MAX_INDEX, index + INITIAL_HALF_RANGE));
+        } else if (index < offset) {
+            cover(Math.max(0, Math.min(index, offset - counts.length)), offset);
+        } else {
+            int end = offset + counts.length - 1;
+            cover(end, Math.min(MAX_INDEX, Math.max(index, end + counts.length)));
+        }
+    }
+
+    /**
+     * Grows the allocated bucket range to include [from, to].
+     */
+    private void cover(int from, int to) {
+        if (counts.length == 0) {
+            offset = from;
+            counts = new long[to - from + 1];
+            return;
+        }
+        int newOffset = Math.min(offset, from);
+        int newEnd = Math.max(offset + counts.length - 1, to);
+        if (newOffset == offset && newEnd == offset + counts.length - 1) {
+            return;
+        }
+        long[] grown = new long[newEnd - newOffset + 1];
+        System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+        offset = newOffset;
+        counts = grown;
+    }
+
+    /**
+     * Returns the value at the given percentile (0-100), or 0 if the histogram is empty.
+     * The result lies within the recorded minimum and maximum.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double fraction = Math.min(Math.max(percentile, 0.0), 100.0) / 100.0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return representativeValue(offset + i);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Median (p50), memoized until the next change.
+     */
+    public long getP50() {
+        computePercentiles();
+        return p50;
+    }
+
+    public long getP90() {
+        computePercentiles();
+        return p90;
+    }
+
+    public long getP99() {
+        computePercentiles();
+        return p99;
+    }
+
+    /**
+     * Computes p50, p90 and p99 in a single pass over the buckets.
+     */
+    private void computePercentiles() {
+        if (percentilesValid) {
+            return;
+        }
+        percentilesValid = true;
+        if (totalCount == 0) {
+            p50 = 0;
+            p90 = 0;
+            p99 = 0;
+            return;
+        }
+        long rank50 = Math.max(1, (long) Math.ceil(0.50 * totalCount));
+        long rank90 = Math.max(1, (long) Math.ceil(0.90 * totalCount));
+        long rank99 = Math.max(1, (long) Math.ceil(0.99 * totalCount));
+        long seen = 0;
+        int found = 0;
+        for (int i = 0; i < counts.length && found < 3; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            seen += counts[i];
+            long value = representativeValue(offset + i);
+            if (found == 0 && seen >= rank50) {
+                p50 = value;
+                found = 1;
+            }
+            if (found == 1 && seen >= rank90) {
+                p90 = value;
+                found = 2;
+            }
+            if (found == 2 && seen >= rank99) {
+                p99 = value;
+                found = 3;
+            }
+        }
+    }
+
+    /**
+     * Midpoint of a bucket, clamped to the recorded range so p0 and p100 are exact.
+     */
+    private long representativeValue(int index) {
+        long value = bucketLowerBound(index) + (bucketWidth(index) - 1) / 2;
+        return Math.min(Math.max(value, min), max);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketLowerBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long mantissa = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return mantissa << shift;
+    }
+
+    static long bucketWidth(int index) {
+        if (index < LINEAR_LIMIT) {
+            return 1;
+        }
+        return 1L << ((index - LINEAR_LIMIT) / SUB_BUCKETS + 1);
+    }
+
+    // Getters
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Smallest recorded value, or 0 if empty.
+     */
+    public long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    /**
+     * Largest recorded value, or 0 if empty.
+     */
+    public long getMax() {
+        return totalCount == 0 ? 0 : max;
+    }
+
+    /**
+     * Index of the first allocated bucket; with getBucketCounts this is the persisted form.
+     */
+    public int getBucketOffset() {
+        return offset;
+    }
+
+    public long[] getBucketCounts() {
+        return Arrays.copyOf(counts, counts.length);
+    }
+}
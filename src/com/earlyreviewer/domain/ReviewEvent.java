@@ -0,0 +1,26 @@
+package com.earlyreviewer.domain;
+
+/**
+ * ReviewEvent is the read-only view of a single review event used by aggregation.
+ * Implemented by ReviewRecord and by the flyweight cursor of ReviewRecordStore.
+ */
+public interface ReviewEvent {
+    String getReviewerId();
+
+    int getPastReviewsCount();
+
+    long getSubmissionTimestamp();
+
+    long getCompletionTimestamp();
+
+    boolean isTeamFamiliarity();
+
+    boolean isContextualKnowledge();
+
+    long getTimeToReview();
+
+    /**
+     * Valid events have positive time-to-review values.
+     */
+    boolean isValid();
+}
@@ -4,7 +4,7 @@ package com.earlyreviewer.domain;
  * ReviewRecord represents a single review event with timestamps and metadata.
  * This is an immutable domain object that holds raw data from CSV and derived fields.
  */
-public class ReviewRecord {
+public class ReviewRecord implements ReviewEvent {
     private final String reviewerId;
     private final int pastReviewsCount;
     private final long submissionTimestamp;
@@ -25,30 +25,37 @@ public class ReviewRecord {
     }
 
     // Getters
+    @Override
     public String getReviewerId() {
         return reviewerId;
     }
 
+    @Override
     public int getPastReviewsCount() {
         return pastReviewsCount;
     }
 
+    @Override
     public long getSubmissionTimestamp() {
         return submissionTimestamp;
     }
 
+    @Override
     public long getCompletionTimestamp() {
         return completionTimestamp;
     }
 
+    @Override
     public boolean isTeamFamiliarity() {
         return teamFamiliarity;
     }
 
+    @Override
     public boolean isContextualKnowledge() {
         return contextualKnowledge;
     }
 
+    @Override
     public long getTimeToReview() {
         return timeToReview;
     }
@@ -57,6 +64,7 @@ public class ReviewRecord {
      * Checks if this record is valid for analysis.
      * Valid records have positive time-to-review values.
      */
+    @Override
     public boolean isValid() {
         return timeToReview > 0;
     }
@@ -0,0 +1,248 @@
+package com.earlyreviewer.domain;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.Consumer;
+
+/**
+ * ReviewRecordStore holds review events in columnar primitive arrays instead of one
+ * ReviewRecord object per event. Reviewer IDs are dictionary-encoded, boolean flags are kept
+ * in bitsets and time-to-review is derived on read. Events are accessed through a flyweight
+ * cursor implementing ReviewEvent.
+ */
+public class ReviewRecordStore {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReviewerDictionary dictionary;
+    private int[] reviewerCodes;
+    private int[] pastReviewsCounts;
+    private long[] submissionTimestamps;
+    private long[] completionTimestamps;
+    private final BitSet teamFamiliarity;
+    private final BitSet contextualKnowledge;
+    private int size;
+
+    public ReviewRecordStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public ReviewRecordStore(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        this.dictionary = new ReviewerDictionary();
+        this.reviewerCodes = new int[capacity];
+        this.pastReviewsCounts = new int[capacity];
+        this.submissionTimestamps = new long[capacity];
+        this.completionTimestamps = new long[capacity];
+        this.teamFamiliarity = new BitSet(capacity);
+        this.contextualKnowledge = new BitSet(capacity);
+        this.size = 0;
+    }
+
+    /**
+     * Wraps existing columns without copying, e.g. when loading a snapshot.
+     * Arrays must hold at least size elements; the store takes ownership of them.
+     */
+    public ReviewRecordStore(ReviewerDictionary dictionary, int[] reviewerCodes, int[] pastReviewsCounts,
+                             long[] submissionTimestamps, long[] completionTimestamps, BitSet teamFamiliarity,
+                             BitSet contextualKnowledge, int size) {
+        this.dictionary = dictionary;
+        this.reviewerCodes = reviewerCodes;
+        this.pastReviewsCounts = pastReviewsCounts;
+        this.submissionTimestamps = submissionTimestamps;
+        this.completionTimestamps = completionTimestamps;
+        this.teamFamiliarity = teamFamiliarity;
+        this.contextualKnowledge = contextualKnowledge;
+        this.size = size;
+    }
+
+    /**
+     * Appends an event copied from a ReviewEvent.
+     */
+    public void add(ReviewEvent event) {
+        add(event.getReviewerId(), event.getPastReviewsCount(), event.getSubmissionTimestamp(),
+                event.getCompletionTimestamp(), event.isTeamFamiliarity(), event.isContextualKnowledge());
+    }
+
+    /**
+     * Appends an event from its raw column values.
+     */
+    public void add(String reviewerId, int pastReviewsCount, long submissionTimestamp,
+                    long completionTimestamp, boolean familiar, boolean contextual) {
+        addEncoded(dictionary.encode(reviewerId), pastReviewsCount, submissionTimestamp,
+                completionTimestamp, familiar, contextual);
+    }
+
+    /**
+     * Appends an event whose reviewer ID is already encoded with this store's dictionary.
+     */
+    public void addEncoded(int reviewerCode, int pastReviewsCount, long submissionTimestamp,
+                           long completionTimestamp, boolean familiar, boolean contextual) {
+        if (size == reviewerCodes.length) {
+            grow();
+        }
+        reviewerCodes[size] = reviewerCode;
+        pastReviewsCounts[size] = pastReviewsCount;
+        submissionTimestamps[size] = submissionTimestamp;
+        completionTimestamps[size] = completionTimestamp;
+        if (familiar) {
+            teamFamiliarity.set(size);
+        }
+        if (contextual) {
+            contextualKnowledge.set(size);
+        }
+        size++;
+    }
+
+    private void grow() {
+        int capacity = Math.max(reviewerCodes.length * 2, 16);
+        reviewerCodes = Arrays.copyOf(reviewerCodes, capacity);
+        pastReviewsCounts = Arrays.copyOf(pastReviewsCounts, capacity);
+        submissionTimestamps = Arrays.copyOf(submissionTimestamps, capacity);
+        completionTimestamps = Arrays.copyOf(completionTimestamps, capacity);
+    }
+
+    /**
+     * Releases unused array capacity once loading is complete.
+     */
+    public void trimToSize() {
+        reviewerCodes = Arrays.copyOf(reviewerCodes, size);
+        pastReviewsCounts = Arrays.copyOf(pastReviewsCounts, size);
+        submissionTimestamps = Arrays.copyOf(submissionTimestamps, size);
+        completionTimestamps = Arrays.copyOf(completionTimestamps, size);
+    }
+
+    /**
+     * Visits every event in insertion order through a single reused cursor.
+     * The cursor is only valid during the callback; copy values out if they must be kept.
+     */
+    public void forEach(Consumer<? super ReviewEvent> action) {
+        Cursor cursor = new Cursor();
+        for (int i = 0; i < size; i++) {
+            cursor.index = i;
+            action.accept(cursor);
+        }
+    }
+
+    /**
+     * Returns a new cursor positioned at the given event.
+     */
+    public Cursor cursor(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        Cursor cursor = new Cursor();
+        cursor.index = index;
+        return cursor;
+    }
+
+    // Column accessors
+    public int size() {
+        return size;
+    }
+
+    public ReviewerDictionary getDictionary() {
+        return dictionary;
+    }
+
+    public int getReviewerCode(int index) {
+        return reviewerCodes[index];
+    }
+
+    public int getPastReviewsCount(int index) {
+        return pastReviewsCounts[index];
+    }
+
+    public long getSubmissionTimestamp(int index) {
+        return submissionTimestamps[index];
+    }
+
+    public long getCompletionTimestamp(int index) {
+        return completionTimestamps[index];
+    }
+
+    public long getTimeToReview(int index) {
+        return completionTimestamps[index] - submissionTimestamps[index];
+    }
+
+    public boolean isTeamFamiliarity(int index) {
+        return teamFamiliarity.get(index);
+    }
+
+    public boolean isContextualKnowledge(int index) {
+        return contextualKnowledge.get(index);
+    }
+
+    /**
+     * Returns the team familiarity flags as a bitset indexed by event (shared, not copied).
+     */
+    public BitSet getTeamFamiliarityBits() {
+        return teamFamiliarity;
+    }
+
+    /**
+     * Returns the contextual knowledge flags as a bitset indexed by event (shared, not copied).
+     */
+    public BitSet getContextualKnowledgeBits() {
+        return contextualKnowledge;
+    }
+
+    /**
+     * Flyweight view of one event in the store; reposition with moveTo.
+     */
+    public class Cursor implements ReviewEvent {
+        private int index;
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Cursor moveTo(int index) {
+            this.index = index;
+            return this;
+        }
+
+        public int getReviewerCode() {
+            return reviewerCodes[index];
+        }
+
+        @Override
+        public String getReviewerId() {
+            return dictionary.decode(reviewerCodes[index]);
+        }
+
+        @Override
+        public int getPastReviewsCount() {
+            return pastReviewsCounts[index];
+        }
+
+        @Override
+        public long getSubmissionTimestamp() {
+            return submissionTimestamps[index];
+        }
+
+        @Override
+        public long getCompletionTimestamp() {
+            return completionTimestamps[index];
+        }
+
+        @Override
+        public boolean isTeamFamiliarity() {
+            return teamFamiliarity.get(index);
+        }
+
+        @Override
+        public boolean isContextualKnowledge() {
+            return contextualKnowledge.get(index);
+        }
+
+        @Override
+        public long getTimeToReview() {
+            return completionTimestamps[index] - submissionTimestamps[index];
+        }
+
+        @Override
+        public boolean isValid() {
+            return getTimeToReview() > 0;
+        }
+    }
+}
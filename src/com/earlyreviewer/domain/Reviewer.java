@@ -1,6 +1,7 @@
 package com.earlyreviewer.domain;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -8,9 +9,17 @@ import java.util.List;
  * Computes derived properties such as experience level and average review time.
  */
 public class Reviewer {
+    // Reviewers with at least this many past reviews are considered experienced
+    public static final int EXPERIENCE_THRESHOLD = 5;
+
     private final String reviewerId;
     private final List<ReviewRecord> records;
+    private final List<ReviewRecord> recordsView;
+    private final ReviewerStats stats;
     private double averageTimeToReview;
+    private long medianTimeToReview;
+    private long p90TimeToReview;
+    private long p99TimeToReview;
     private boolean experienced;
     private boolean teamFamiliarity;
     private boolean contextualKnowledge;
@@ -18,8 +27,17 @@ public class Reviewer {
     private String explanation;
 
     public Reviewer(String reviewerId) {
+        this(reviewerId, new ReviewerStats());
+    }
+
+    /**
+     * Creates a reviewer from already aggregated statistics; no records are retained.
+     */
+    public Reviewer(String reviewerId, ReviewerStats stats) {
         this.reviewerId = reviewerId;
         this.records = new ArrayList<>();
+        this.recordsView = Collections.unmodifiableList(records);
+        this.stats = stats;
         this.averageTimeToReview = 0.0;
         this.experienced = false;
         this.teamFamiliarity = false;
@@ -29,45 +47,43 @@ public class Reviewer {
     }
 
     /**
-     * Adds a review record to this reviewer's history.
+     * Adds a review record to this reviewer's history and running statistics.
      */
     public void addRecord(ReviewRecord record) {
         records.add(record);
+        stats.add(record);
     }
 
     /**
-     * Computes average time-to-review from valid records.
+     * Folds a review record into the running statistics without retaining it.
+     * Used by the streaming pipeline so memory per reviewer stays constant.
+     */
+    public void accumulate(ReviewEvent record) {
+        stats.add(record);
+    }
+
+    /**
+     * Computes average and p50/p90/p99 time-to-review from the running statistics of valid records.
      * Sets averageTimeToReview to 0.0 if no valid records exist.
+     * Does not allocate and never rescans records (percentiles take one pass over the histogram
+     * buckets); derived values are cached until the next call.
      */
     public void computeStatistics() {
-        List<Long> validTimes = new ArrayList<>();
-        for (ReviewRecord record : records) {
-            if (record.isValid()) {
-                validTimes.add(record.getTimeToReview());
-            }
-        }
-
-        if (validTimes.isEmpty()) {
-            this.averageTimeToReview = 0.0;
-        } else {
-            long sum = 0;
-            for (long time : validTimes) {
-                sum += time;
-            }
-            this.averageTimeToReview = (double) sum / validTimes.size();
-        }
+        this.averageTimeToReview = stats.getAverageTimeToReview();
+        LatencyHistogram latency = stats.getLatency();
+        this.medianTimeToReview = latency.getP50();
+        this.p90TimeToReview = latency.getP90();
+        this.p99TimeToReview = latency.getP99();
 
         // Determine experience level: >= 5 reviews = experienced
-        this.experienced = getPastReviewsCount() >= 5;
+        this.experienced = getPastReviewsCount() >= EXPERIENCE_THRESHOLD;
 
         // Set familiarity and knowledge flags (true if any record has them)
-        for (ReviewRecord record : records) {
-            if (record.isTeamFamiliarity()) {
-                this.teamFamiliarity = true;
-            }
-            if (record.isContextualKnowledge()) {
-                this.contextualKnowledge = true;
-            }
+        if (stats.hasTeamFamiliarity()) {
+            this.teamFamiliarity = true;
+        }
+        if (stats.hasContextualKnowledge()) {
+            this.contextualKnowledge = true;
         }
     }
 
@@ -76,14 +92,55 @@ public class Reviewer {
         return reviewerId;
     }
 
+    /**
+     * Returns a read-only live view of retained records; empty for reviewers built by the
+     * streaming pipeline. Copy it if a snapshot is needed.
+     */
     public List<ReviewRecord> getRecords() {
-        return new ArrayList<>(records);
+        return recordsView;
+    }
+
+    public ReviewerStats getStats() {
+        return stats;
     }
 
     public double getAverageTimeToReview() {
         return averageTimeToReview;
     }
 
+    /**
+     * Median time-to-review of valid records (approximate, see LatencyHistogram), or 0 if none.
+     */
+    public long getMedianTimeToReview() {
+        return medianTimeToReview;
+    }
+
+    public long getP90TimeToReview() {
+        return p90TimeToReview;
+    }
+
+    public long getP99TimeToReview() {
+        return p99TimeToReview;
+    }
+
+    /**
+     * Average time-to-review of valid records in the sliding window (see WindowedStats), or 0.0 if none.
+     */
+    public double getWindowAverageTimeToReview() {
+        return stats.getRecent().getWindowAverage();
+    }
+
+    public int getWindowReviewCount() {
+        return (int) stats.getRecent().getWindowCount();
+    }
+
+    /**
+     * Exponentially decayed average time-to-review, weighting recent reviews more, or 0.0 if none.
+     */
+    public double getDecayedAverageTimeToReview() {
+        return stats.getRecent().getDecayedAverage();
+    }
+
     public boolean isExperienced() {
         return experienced;
     }
@@ -105,21 +162,12 @@ public class Reviewer {
     }
 
     public int getPastReviewsCount() {
-        // Use the most recent record's pastReviewsCount (should be consistent per reviewer)
-        if (records.isEmpty()) {
-            return 0;
-        }
-        return records.get(0).getPastReviewsCount();
+        // Use the first record's pastReviewsCount (should be consistent per reviewer)
+        return stats.getPastReviewsCount();
     }
 
     public int getValidRecordCount() {
-        int count = 0;
-        for (ReviewRecord record : records) {
-            if (record.isValid()) {
-                count++;
-            }
-        }
-        return count;
+        return (int) stats.getValidCount();
     }
 
     // Setters for prediction results
@@ -0,0 +1,417 @@
+package com.earlyreviewer.domain;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ReviewerAggregates holds running per-reviewer statistics in parallel primitive arrays indexed
+ * by ReviewerDictionary code, plus the global totals. It is the int-keyed counterpart of a
+ * Map of ReviewerStats and is converted to Reviewer objects only at the API boundary.
+ * Each reviewer and the whole input also get a latency histogram for percentiles and windowed
+ * statistics keyed by submission timestamp; aggregates of separate partitions can be combined
+ * with merge. Windows end at the newest submission seen and are advanced there before being read.
+ * Per-reviewer windows cost a ring buffer per reviewer and a decay per record, so they can be
+ * left out when nothing reads them; reviewers then report empty windows.
+ * Invalid events (non-positive time-to-review) are ignored, matching ReviewerAnalyzer.process.
+ */
+public class ReviewerAggregates {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private static final byte HAS_RECORDS = 1;
+    private static final byte TEAM_FAMILIARITY = 2;
+    private static final byte CONTEXTUAL_KNOWLEDGE = 4;
+
+    private final ReviewerDictionary dictionary;
+    private long[] validCounts;
+    private long[] sums;
+    private long[] mins;
+    private long[] maxs;
+    private int[] pastReviewsCounts;
+    private byte[] flags;
+    private LatencyHistogram[] latencies;
+    private final LatencyHistogram globalLatency;
+    private final StatsWindow window;
+    private final boolean reviewerWindows;
+    private WindowedStats[] windows;
+    private final WindowedStats globalWindow;
+    private long totalValidCount;
+    private long totalSum;
+
+    /**
+     * @param dictionary Dictionary whose codes index these aggregates
+     */
+    public ReviewerAggregates(ReviewerDictionary dictionary) {
+        this(dictionary, StatsWindow.getDefault());
+    }
+
+    /**
+     * @param dictionary Dictionary whose codes index these aggregates
+     * @param window Configuration of the windowed and decayed statistics
+     */
+    public ReviewerAggregates(ReviewerDictionary dictionary, StatsWindow window) {
+        this(dictionary, window, true);
+    }
+
+    /**
+     * @param dictionary Dictionary whose codes index these aggregates
+     * @param window Configuration of the windowed and decayed statistics
+     * @param reviewerWindows Whether to keep windowed statistics per reviewer; the global window
+     *        is always kept
+     */
+    public ReviewerAggregates(ReviewerDictionary dictionary, StatsWindow window, boolean reviewerWindows) {
+        int capacity = Math.max(INITIAL_CAPACITY, dictionary.size());
+        this.dictionary = dictionary;
+        this.validCounts = new long[capacity];
+        this.sums = new long[capacity];
+        this.mins = new long[capacity];
+        this.maxs = new long[capacity];
+        this.pastReviewsCounts = new int[capacity];
+        this.flags = new byte[capacity];
+        this.latencies = new LatencyHistogram[capacity];
+        this.globalLatency = new LatencyHistogram();
+        this.window = window;
+        this.reviewerWindows = reviewerWindows;
+        this.windows = new WindowedStats[capacity];
+        this.globalWindow = new WindowedStats(window);
+        this.totalValidCount = 0;
+        this.totalSum = 0;
+    }
+
+    /**
+     * Folds one event into the aggregate of the given reviewer code.
+     */
+    public void add(int code, int pastReviewsCount, long submissionTimestamp, long timeToReview, boolean familiar,
+                    boolean contextual) {
+        if (timeToReview <= 0) {
+            return;
+        }
+        if (code >= flags.length) {
+            grow(code + 1);
+        }
+
+        byte f = flags[code];
+        if ((f & HAS_RECORDS) == 0) {
+            // First record determines pastReviewsCount, as in ReviewerStats
+            pastReviewsCounts[code] = pastReviewsCount;
+            mins[code] = timeToReview;
+            maxs[code] = timeToReview;
+            f |= HAS_RECORDS;
+        } else {
+            if (timeToReview < mins[code]) {
+                mins[code] = timeToReview;
+            }
+            if (timeToReview > maxs[code]) {
+                maxs[code] = timeToReview;
+            }
+        }
+        if (familiar) {
+            f |= TEAM_FAMILIARITY;
+        }
+        if (contextual) {
+            f |= CONTEXTUAL_KNOWLEDGE;
+        }
+        flags[code] = f;
+        validCounts[code]++;
+        sums[code] += timeToReview;
+        LatencyHistogram latency = latencies[code];
+        if (latency == null) {
+            latency = new LatencyHistogram();
+            latencies[code] = latency;
+        }
+        latency.record(timeToReview);
+        if (reviewerWindows) {
+            WindowedStats recent = windows[code];
+            if (recent == null) {
+                recent = new WindowedStats(window);
+                windows[code] = recent;
+            }
+            recent.record(submissionTimestamp, timeToReview);
+        }
+
+        totalValidCount++;
+        totalSum += timeToReview;
+        globalLatency.record(timeToReview);
+        globalWindow.record(submissionTimestamp, timeToReview);
+    }
+
+    /**
+     * Folds one event, encoding its reviewer ID with this aggregate's dictionary.
+     */
+    public void add(ReviewEvent event) {
+        if (!event.isValid()) {
+            return;
+        }
+        add(dictionary.encode(event.getReviewerId()), event.getPastReviewsCount(), event.getSubmissionTimestamp(),
+                event.getTimeToReview(), event.isTeamFamiliarity(), event.isContextualKnowledge());
+    }
+
+    /**
+     * Folds every event of a store that shares this aggregate's dictionary, reading columns directly.
+     */
+    public void addAll(ReviewRecordStore store) {
+        if (store.getDictionary() != dictionary) {
+            throw new IllegalArgumentException("Store uses a different reviewer dictionary");
+        }
+        int size = store.size();
+        for (int i = 0; i < size; i++) {
+            add(store.getReviewerCode(i), store.getPastReviewsCount(i), store.getSubmissionTimestamp(i),
+                    store.getTimeToReview(i), store.isTeamFamiliarity(i), store.isContextualKnowledge(i));
+        }
+    }
+
+    /**
+     * Restores the aggregate of one reviewer code from saved values, e.g. from a snapshot.
+     * The code must not have been aggregated before; global totals are updated accordingly.
+     */
+    public void restore(int code, ReviewerStats stats) {
+        if (stats.getValidCount() == 0) {
+            return;
+        }
+        if (code >= flags.length) {
+            grow(code + 1);
+        }
+        byte f = HAS_RECORDS;
+        if (stats.hasTeamFamiliarity()) {
+            f |= TEAM_FAMILIARITY;
+        }
+        if (stats.hasContextualKnowledge()) {
+            f |= CONTEXTUAL_KNOWLEDGE;
+        }
+        flags[code] = f;
+        validCounts[code] = stats.getValidCount();
+        sums[code] = stats.getSumTimeToReview();
+        mins[code] = stats.getMinTimeToReview();
+        maxs[code] = stats.getMaxTimeToReview();
+        pastReviewsCounts[code] = stats.getPastReviewsCount();
+        latencies[code] = stats.getLatency().copy();
+        windows[code] = reviewerWindows ? stats.getRecent().copy() : null;
+
+        totalValidCount += stats.getValidCount();
+        totalSum += stats.getSumTimeToReview();
+        globalLatency.add(stats.getLatency());
+        globalWindow.merge(stats.getRecent());
+    }
+
+    /**
+     * Merges the aggregates of another partition of the input, matching reviewers by ID.
+     * For reviewers present in both, this aggregate's past reviews count wins, as if the other
+     * partition's events came after this one's.
+     */
+    public void merge(ReviewerAggregates other) {
+        int count = Math.min(other.dictionary.size(), other.flags.length);
+        for (int otherCode = 0; otherCode < count; otherCode++) {
+            byte f = other.flags[otherCode];
+            if ((f & HAS_RECORDS) == 0) {
+                continue;
+            }
+            int code = other.dictionary == dictionary
+                    ? otherCode
+                    : dictionary.encode(other.dictionary.decode(otherCode));
+            if (code >= flags.length) {
+                grow(code + 1);
+            }
+            if ((flags[code] & HAS_RECORDS) == 0) {
+                pastReviewsCounts[code] = other.pastReviewsCounts[otherCode];
+                mins[code] = other.mins[otherCode];
+                maxs[code] = other.maxs[otherCode];
+                latencies[code] = new LatencyHistogram();
+                windows[code] = reviewerWindows ? new WindowedStats(window) : null;
+            } else {
+                mins[code] = Math.min(mins[code], other.mins[otherCode]);
+                maxs[code] = Math.max(maxs[code], other.maxs[otherCode]);
+            }
+            flags[code] |= f;
+            validCounts[code] += other.validCounts[otherCode];
+            sums[code] += other.sums[otherCode];
+            latencies[code].add(other.latencies[otherCode]);
+            if (windows[code] != null && other.windows[otherCode] != null) {
+                windows[code].merge(other.windows[otherCode]);
+            }
+        }
+        totalValidCount += other.totalValidCount;
+        totalSum += other.totalSum;
+        globalLatency.add(other.globalLatency);
+        globalWindow.merge(other.globalWindow);
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, flags.length * 2);
+        validCounts = Arrays.copyOf(validCounts, capacity);
+        sums = Arrays.copyOf(sums, capacity);
+        mins = Arrays.copyOf(mins, capacity);
+        maxs = Arrays.copyOf(maxs, capacity);
+        pastReviewsCounts = Arrays.copyOf(pastReviewsCounts, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        latencies = Arrays.copyOf(latencies, capacity);
+        windows = Arrays.copyOf(windows, capacity);
+    }
+
+    /**
+     * Windowed statistics of a code with valid events, advanced to the newest submission seen, or
+     * null if reviewer windows are not kept.
+     */
+    private WindowedStats currentWindow(int code) {
+        WindowedStats recent = windows[code];
+        if (recent != null) {
+            recent.advanceTo(globalWindow.getLatestTimestamp());
+        }
+        return recent;
+    }
+
+    /**
+     * Returns the statistics of one reviewer code as a ReviewerStats.
+     */
+    public ReviewerStats toStats(int code) {
+        if (code >= flags.length || (flags[code] & HAS_RECORDS) == 0) {
+            return new ReviewerStats();
+        }
+        byte f = flags[code];
+        WindowedStats recent = currentWindow(code);
+        return new ReviewerStats(validCounts[code], sums[code], mins[code], maxs[code], pastReviewsCounts[code],
+                (f & TEAM_FAMILIARITY) != 0, (f & CONTEXTUAL_KNOWLEDGE) != 0, latencies[code].copy(),
+                recent == null ? new WindowedStats(window) : recent.copy());
+    }
+
+    /**
+     * Builds Reviewer objects for every code with at least one valid event.
+     * Statistics are computed but predictions are not yet applied.
+     *
+     * @return Map of reviewerId -> Reviewer
+     */
+    public Map<String, Reviewer> toReviewers() {
+        return toReviewers(toReviewerArray());
+    }
+
+    /**
+     * Builds Reviewer objects indexed by reviewer code; codes without valid events are null.
+     */
+    public Reviewer[] toReviewerArray() {
+        int count = Math.min(dictionary.size(), flags.length);
+        Reviewer[] reviewers = new Reviewer[count];
+        for (int code = 0; code < count; code++) {
+            if ((flags[code] & HAS_RECORDS) != 0) {
+                reviewers[code] = new Reviewer(dictionary.decode(code), toStats(code));
+            }
+        }
+        return reviewers;
+    }
+
+    /**
+     * Collects a code-indexed Reviewer array into a map keyed by reviewer ID.
+     */
+    public static Map<String, Reviewer> toReviewers(Reviewer[] reviewers) {
+        Map<String, Reviewer> map = new HashMap<>(reviewers.length * 4 / 3 + 1);
+        for (Reviewer reviewer : reviewers) {
+            if (reviewer != null) {
+                map.put(reviewer.getReviewerId(), reviewer);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Extracts the prediction features of every code as struct-of-arrays.
+     */
+    public ReviewerFeatures toFeatures() {
+        int count = Math.min(dictionary.size(), flags.length);
+        ReviewerFeatures features = new ReviewerFeatures(count);
+        for (int code = 0; code < count; code++) {
+            byte f = flags[code];
+            long validCount = validCounts[code];
+            double avgTime = validCount == 0 ? 0.0 : (double) sums[code] / validCount;
+            features.set(code, avgTime, pastReviewsCounts[code], (int) validCount,
+                    pastReviewsCounts[code] >= Reviewer.EXPERIENCE_THRESHOLD,
+                    (f & TEAM_FAMILIARITY) != 0, (f & CONTEXTUAL_KNOWLEDGE) != 0);
+            LatencyHistogram latency = latencies[code];
+            if (latency != null) {
+                features.setPercentiles(code, latency.getP50(), latency.getP90(), latency.getP99());
+            }
+            WindowedStats recent = latency == null ? null : currentWindow(code);
+            if (recent != null) {
+                features.setRecency(code, recent.getWindowAverage(), (int) recent.getWindowCount(),
+                        recent.getDecayedAverage());
+            }
+        }
+        return features;
+    }
+
+    // Getters
+    public ReviewerDictionary getDictionary() {
+        return dictionary;
+    }
+
+    public long getValidCount(int code) {
+        return code < validCounts.length ? validCounts[code] : 0;
+    }
+
+    public long getSum(int code) {
+        return code < sums.length ? sums[code] : 0;
+    }
+
+    /**
+     * Latency histogram of one reviewer code (shared, not copied), or null if it has no valid events.
+     */
+    public LatencyHistogram getLatency(int code) {
+        return code < latencies.length ? latencies[code] : null;
+    }
+
+    /**
+     * Latency histogram over all valid events (shared, not copied).
+     */
+    public LatencyHistogram getGlobalLatency() {
+        return globalLatency;
+    }
+
+    /**
+     * Windowed statistics of one reviewer code (shared, not copied), or null if it has no valid
+     * events or reviewer windows are not kept. Advance it with getLatestTimestamp before reading
+     * window values.
+     */
+    public WindowedStats getRecent(int code) {
+        return code < windows.length ? windows[code] : null;
+    }
+
+    /**
+     * Windowed statistics over all valid events (shared, not copied).
+     */
+    public WindowedStats getGlobalWindow() {
+        return globalWindow;
+    }
+
+    public StatsWindow getWindow() {
+        return window;
+    }
+
+    /**
+     * Returns true if windowed statistics are kept per reviewer, not only globally.
+     */
+    public boolean hasReviewerWindows() {
+        return reviewerWindows;
+    }
+
+    /**
+     * Newest submission timestamp of a valid event, where all windows end; Long.MIN_VALUE if none.
+     */
+    public long getLatestTimestamp() {
+        return globalWindow.getLatestTimestamp();
+    }
+
+    public long getTotalValidCount() {
+        return totalValidCount;
+    }
+
+    public long getTotalSum() {
+        return totalSum;
+    }
+
+    /**
+     * Global average time-to-review over all valid events, or 0.0 if there are none.
+     */
+    public double getGlobalAverageTime() {
+        if (totalValidCount == 0) {
+            return 0.0;
+        }
+        return (double) totalSum / totalValidCount;
+    }
+}
@@ -0,0 +1,155 @@
+package com.earlyreviewer.domain;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * ReviewerDictionary assigns dense int codes to reviewer IDs in first-seen order.
+ * Each distinct ID string is stored once, however many events reference it.
+ * Backed by an open-addressed table of codes so lookups do not box or allocate; IDs can also
+ * be looked up straight from ASCII bytes so parsers only create a String for unseen IDs.
+ */
+public class ReviewerDictionary {
+    private static final int INITIAL_TABLE_SIZE = 1024;
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    // Table slots hold code + 1; 0 marks an empty slot
+    private int[] table;
+    private int mask;
+    private String[] ids;
+    private int[] hashes;
+    private int size;
+
+    public ReviewerDictionary() {
+        this.table = new int[INITIAL_TABLE_SIZE];
+        this.mask = INITIAL_TABLE_SIZE - 1;
+        this.ids = new String[INITIAL_TABLE_SIZE / 2];
+        this.hashes = new int[INITIAL_TABLE_SIZE / 2];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the code for the reviewer ID, assigning the next code if it is new.
+     */
+    public int encode(String reviewerId) {
+        int hash = reviewerId.hashCode();
+        int slot = mix(hash) & mask;
+        while (true) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return insert(slot, reviewerId, hash);
+            }
+            int code = entry - 1;
+            if (hashes[code] == hash && ids[code].equals(reviewerId)) {
+                return code;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Returns the code for the reviewer ID stored in buffer[start, start + length), decoded with
+     * the platform charset. ASCII IDs are matched byte-for-char without creating a String;
+     * a String is only decoded when the ID is new or contains non-ASCII bytes.
+     */
+    public int encode(ByteBuffer buffer, int start, int length) {
+        // String.hashCode over the chars an ASCII byte sequence decodes to
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer.get(start + i);
+            if (b < 0) {
+                return encode(decode(buffer, start, length));
+            }
+            hash = 31 * hash + b;
+        }
+
+        int slot = mix(hash) & mask;
+        while (true) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return insert(slot, decode(buffer, start, length), hash);
+            }
+            int code = entry - 1;
+            if (hashes[code] == hash && matches(ids[code], buffer, start, length)) {
+                return code;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Returns the reviewer ID for a code previously returned by encode.
+     */
+    public String decode(int code) {
+        if (code < 0 || code >= size) {
+            throw new IndexOutOfBoundsException("Unknown reviewer code " + code);
+        }
+        return ids[code];
+    }
+
+    /**
+     * Number of distinct reviewer IDs; codes are 0 until size() - 1.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int insert(int slot, String reviewerId, int hash) {
+        int code = size;
+        if (code == ids.length) {
+            ids = Arrays.copyOf(ids, code * 2);
+            hashes = Arrays.copyOf(hashes, code * 2);
+        }
+        ids[code] = reviewerId;
+        hashes[code] = hash;
+        table[slot] = code + 1;
+        size++;
+
+        // Keep load factor at or below 0.5
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return code;
+    }
+
+    private void rehash() {
+        int[] newTable = new int[table.length * 2];
+        int newMask = newTable.length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = mix(hashes[code]) & newMask;
+            while (newTable[slot] != 0) {
+                slot = (slot + 1) & newMask;
+            }
+            newTable[slot] = code + 1;
+        }
+        table = newTable;
+        mask = newMask;
+    }
+
+    private static boolean matches(String id, ByteBuffer buffer, int start, int length) {
+        if (id.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (id.charAt(i) != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String decode(ByteBuffer buffer, int start, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(start, bytes, 0, length);
+        return new String(bytes, CHARSET);
+    }
+
+    /**
+     * Spreads String.hashCode bits so sequential IDs ("r1", "r2", ...) do not cluster.
+     */
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,129 @@
+package com.earlyreviewer.domain;
+
+/**
+ * ReviewerFeatures holds the prediction inputs of many reviewers as parallel primitive arrays
+ * (struct-of-arrays), so batch prediction can run over them in one loop without touching
+ * Reviewer objects.
+ */
+public class ReviewerFeatures {
+    public static final byte EXPERIENCED = 1;
+    public static final byte TEAM_FAMILIARITY = 2;
+    public static final byte CONTEXTUAL_KNOWLEDGE = 4;
+
+    private final double[] avgTimes;
+    private final int[] pastReviewsCounts;
+    private final int[] validCounts;
+    private final byte[] flags;
+    private final long[] p50Times;
+    private final long[] p90Times;
+    private final long[] p99Times;
+    private final double[] windowAvgTimes;
+    private final int[] windowCounts;
+    private final double[] decayedAvgTimes;
+
+    public ReviewerFeatures(int size) {
+        this.avgTimes = new double[size];
+        this.pastReviewsCounts = new int[size];
+        this.validCounts = new int[size];
+        this.flags = new byte[size];
+        this.p50Times = new long[size];
+        this.p90Times = new long[size];
+        this.p99Times = new long[size];
+        this.windowAvgTimes = new double[size];
+        this.windowCounts = new int[size];
+        this.decayedAvgTimes = new double[size];
+    }
+
+    /**
+     * Copies the features of reviewers whose statistics have been computed, in array order.
+     */
+    public static ReviewerFeatures of(Reviewer[] reviewers) {
+        ReviewerFeatures features = new ReviewerFeatures(reviewers.length);
+        for (int i = 0; i < reviewers.length; i++) {
+            Reviewer reviewer = reviewers[i];
+            features.set(i, reviewer.getAverageTimeToReview(), reviewer.getPastReviewsCount(),
+                    reviewer.getValidRecordCount(), reviewer.isExperienced(), reviewer.hasTeamFamiliarity(),
+                    reviewer.hasContextualKnowledge());
+            features.setPercentiles(i, reviewer.getMedianTimeToReview(), reviewer.getP90TimeToReview(),
+                    reviewer.getP99TimeToReview());
+            features.setRecency(i, reviewer.getWindowAverageTimeToReview(), reviewer.getWindowReviewCount(),
+                    reviewer.getDecayedAverageTimeToReview());
+        }
+        return features;
+    }
+
+    public void set(int index, double avgTime, int pastReviewsCount, int validCount, boolean experienced,
+                    boolean teamFamiliarity, boolean contextualKnowledge) {
+        byte f = 0;
+        if (experienced) {
+            f |= EXPERIENCED;
+        }
+        if (teamFamiliarity) {
+            f |= TEAM_FAMILIARITY;
+        }
+        if (contextualKnowledge) {
+            f |= CONTEXTUAL_KNOWLEDGE;
+        }
+        avgTimes[index] = avgTime;
+        pastReviewsCounts[index] = pastReviewsCount;
+        validCounts[index] = validCount;
+        flags[index] = f;
+    }
+
+    public void setPercentiles(int index, long p50Time, long p90Time, long p99Time) {
+        p50Times[index] = p50Time;
+        p90Times[index] = p90Time;
+        p99Times[index] = p99Time;
+    }
+
+    public void setRecency(int index, double windowAvgTime, int windowCount, double decayedAvgTime) {
+        windowAvgTimes[index] = windowAvgTime;
+        windowCounts[index] = windowCount;
+        decayedAvgTimes[index] = decayedAvgTime;
+    }
+
+    public int size() {
+        return avgTimes.length;
+    }
+
+    // Column accessors
+    public double[] getAvgTimes() {
+        return avgTimes;
+    }
+
+    public int[] getPastReviewsCounts() {
+        return pastReviewsCounts;
+    }
+
+    public int[] getValidCounts() {
+        return validCounts;
+    }
+
+    public byte[] getFlags() {
+        return flags;
+    }
+
+    public long[] getP50Times() {
+        return p50Times;
+    }
+
+    public long[] getP90Times() {
+        return p90Times;
+    }
+
+    public long[] getP99Times() {
+        return p99Times;
+    }
+
+    public double[] getWindowAvgTimes() {
+        return windowAvgTimes;
+    }
+
+    public int[] getWindowCounts() {
+        return windowCounts;
+    }
+
+    public double[] getDecayedAvgTimes() {
+        return decayedAvgTimes;
+    }
+}
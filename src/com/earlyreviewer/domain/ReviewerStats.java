@@ -0,0 +1,191 @@
+package com.earlyreviewer.domain;
+
+/**
+ * ReviewerStats is a running aggregate over review records: counts, sums and flags plus a
+ * compact latency histogram for percentiles and windowed/decayed statistics for recency.
+ * Used per reviewer and for the global average so records never need to be retained.
+ */
+public class ReviewerStats {
+    private long validCount;
+    private long sumTimeToReview;
+    private long minTimeToReview;
+    private long maxTimeToReview;
+    private boolean hasRecords;
+    private int pastReviewsCount;
+    private boolean teamFamiliarity;
+    private boolean contextualKnowledge;
+    private final LatencyHistogram latency;
+    private final WindowedStats recent;
+
+    public ReviewerStats() {
+        this.validCount = 0;
+        this.sumTimeToReview = 0;
+        this.minTimeToReview = Long.MAX_VALUE;
+        this.maxTimeToReview = Long.MIN_VALUE;
+        this.hasRecords = false;
+        this.pastReviewsCount = 0;
+        this.teamFamiliarity = false;
+        this.contextualKnowledge = false;
+        this.latency = new LatencyHistogram();
+        this.recent = new WindowedStats(StatsWindow.getDefault());
+    }
+
+    /**
+     * Creates an aggregate from precomputed values of at least one valid record, without a
+     * latency distribution.
+     */
+    public ReviewerStats(long validCount, long sumTimeToReview, long minTimeToReview, long maxTimeToReview,
+                         int pastReviewsCount, boolean teamFamiliarity, boolean contextualKnowledge) {
+        this(validCount, sumTimeToReview, minTimeToReview, maxTimeToReview, pastReviewsCount, teamFamiliarity,
+                contextualKnowledge, new LatencyHistogram());
+    }
+
+    /**
+     * Creates an aggregate from precomputed values of at least one valid record, without
+     * windowed statistics.
+     */
+    public ReviewerStats(long validCount, long sumTimeToReview, long minTimeToReview, long maxTimeToReview,
+                         int pastReviewsCount, boolean teamFamiliarity, boolean contextualKnowledge,
+                         LatencyHistogram latency) {
+        this(validCount, sumTimeToReview, minTimeToReview, maxTimeToReview, pastReviewsCount, teamFamiliarity,
+                contextualKnowledge, latency, new WindowedStats(StatsWindow.getDefault()));
+    }
+
+    /**
+     * Creates an aggregate from precomputed values of at least one valid record.
+     * The latency histogram and windowed statistics are owned by the new aggregate.
+     */
+    public ReviewerStats(long validCount, long sumTimeToReview, long minTimeToReview, long maxTimeToReview,
+                         int pastReviewsCount, boolean teamFamiliarity, boolean contextualKnowledge,
+                         LatencyHistogram latency, WindowedStats recent) {
+        this.validCount = validCount;
+        this.sumTimeToReview = sumTimeToReview;
+        this.minTimeToReview = minTimeToReview;
+        this.maxTimeToReview = maxTimeToReview;
+        this.hasRecords = true;
+        this.pastReviewsCount = pastReviewsCount;
+        this.teamFamiliarity = teamFamiliarity;
+        this.contextualKnowledge = contextualKnowledge;
+        this.latency = latency;
+        this.recent = recent;
+    }
+
+    /**
+     * Folds a record into the aggregate.
+     * Only valid records contribute to count/sum/min/max; flags and the past reviews count
+     * (taken from the first record) consider every record.
+     */
+    public void add(ReviewEvent record) {
+        if (!hasRecords) {
+            pastReviewsCount = record.getPastReviewsCount();
+            hasRecords = true;
+        }
+        if (record.isTeamFamiliarity()) {
+            teamFamiliarity = true;
+        }
+        if (record.isContextualKnowledge()) {
+            contextualKnowledge = true;
+        }
+
+        if (record.isValid()) {
+            long time = record.getTimeToReview();
+            validCount++;
+            sumTimeToReview += time;
+            if (time < minTimeToReview) {
+                minTimeToReview = time;
+            }
+            if (time > maxTimeToReview) {
+                maxTimeToReview = time;
+            }
+            latency.record(time);
+            recent.record(record.getSubmissionTimestamp(), time);
+        }
+    }
+
+    /**
+     * Merges an aggregate of later records, e.g. from another partition of the same input.
+     * The past reviews count is kept from this aggregate unless it has seen no records yet.
+     */
+    public void merge(ReviewerStats other) {
+        if (!other.hasRecords) {
+            return;
+        }
+        if (!hasRecords) {
+            pastReviewsCount = other.pastReviewsCount;
+            hasRecords = true;
+        }
+        teamFamiliarity |= other.teamFamiliarity;
+        contextualKnowledge |= other.contextualKnowledge;
+        if (other.validCount > 0) {
+            validCount += other.validCount;
+            sumTimeToReview += other.sumTimeToReview;
+            minTimeToReview = Math.min(minTimeToReview, other.minTimeToReview);
+            maxTimeToReview = Math.max(maxTimeToReview, other.maxTimeToReview);
+        }
+        latency.add(other.latency);
+        recent.merge(other.recent);
+    }
+
+    /**
+     * Average time-to-review over valid records, or 0.0 if there are none.
+     */
+    public double getAverageTimeToReview() {
+        if (validCount == 0) {
+            return 0.0;
+        }
+        return (double) sumTimeToReview / validCount;
+    }
+
+    // Getters
+    public long getValidCount() {
+        return validCount;
+    }
+
+    public long getSumTimeToReview() {
+        return sumTimeToReview;
+    }
+
+    /**
+     * Smallest valid time-to-review, or 0 if there are no valid records.
+     */
+    public long getMinTimeToReview() {
+        return validCount == 0 ? 0 : minTimeToReview;
+    }
+
+    /**
+     * Largest valid time-to-review, or 0 if there are no valid records.
+     */
+    public long getMaxTimeToReview() {
+        return validCount == 0 ? 0 : maxTimeToReview;
+    }
+
+    public boolean hasRecords() {
+        return hasRecords;
+    }
+
+    public int getPastReviewsCount() {
+        return pastReviewsCount;
+    }
+
+    public boolean hasTeamFamiliarity() {
+        return teamFamiliarity;
+    }
+
+    public boolean hasContextualKnowledge() {
+        return contextualKnowledge;
+    }
+
+    /**
+     * Distribution of valid time-to-review values (shared, not copied).
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Windowed and decayed statistics keyed by submission timestamp (shared, not copied).
+     */
+    public WindowedStats getRecent() {
+        return recent;
+    }
+}
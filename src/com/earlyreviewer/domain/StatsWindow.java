@@ -0,0 +1,122 @@
+package com.earlyreviewer.domain;
+
+/**
+ * StatsWindow configures the recency-weighted statistics kept in WindowedStats: a sliding window
+ * of windowSeconds split into bucketCount ring-buffer buckets, and an exponential decay with the
+ * given half-life. Times are in seconds, like the review timestamps.
+ * The default comes from the earlyreviewer.window.days, earlyreviewer.window.buckets and
+ * earlyreviewer.halfLife.days system properties (30 days, 30 buckets, 30 days).
+ */
+public final class StatsWindow {
+    public static final String WINDOW_DAYS_PROPERTY = "earlyreviewer.window.days";
+    public static final String BUCKETS_PROPERTY = "earlyreviewer.window.buckets";
+    public static final String HALF_LIFE_DAYS_PROPERTY = "earlyreviewer.halfLife.days";
+
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private static volatile StatsWindow defaultWindow = fromSystemProperties();
+
+    private final long windowSeconds;
+    private final int bucketCount;
+    private final long bucketSeconds;
+    private final long halfLifeSeconds;
+    // Decay rate per second, ln(2) / halfLifeSeconds
+    private final double decayRate;
+
+    /**
+     * @param windowSeconds Length of the sliding window; must be a positive multiple of bucketCount
+     * @param bucketCount Number of ring-buffer buckets the window is split into
+     * @param halfLifeSeconds Age at which a review counts half as much in decayed statistics
+     */
+    public StatsWindow(long windowSeconds, int bucketCount, long halfLifeSeconds) {
+        if (bucketCount <= 0 || windowSeconds <= 0 || windowSeconds % bucketCount != 0) {
+            throw new IllegalArgumentException("Window of " + windowSeconds + " seconds cannot be split into " +
+                    bucketCount + " buckets");
+        }
+        if (halfLifeSeconds <= 0) {
+            throw new IllegalArgumentException("Half-life must be positive but was " + halfLifeSeconds);
+        }
+        this.windowSeconds = windowSeconds;
+        this.bucketCount = bucketCount;
+        this.bucketSeconds = windowSeconds / bucketCount;
+        this.halfLifeSeconds = halfLifeSeconds;
+        this.decayRate = Math.log(2) / halfLifeSeconds;
+    }
+
+    /**
+     * Returns a window of whole days with the given number of buckets and a half-life in days.
+     */
+    public static StatsWindow ofDays(int windowDays, int bucketCount, int halfLifeDays) {
+        return new StatsWindow(windowDays * SECONDS_PER_DAY, bucketCount, halfLifeDays * SECONDS_PER_DAY);
+    }
+
+    /**
+     * Returns the window used by aggregates created without an explicit window.
+     */
+    public static StatsWindow getDefault() {
+        return defaultWindow;
+    }
+
+    /**
+     * Replaces the default window; affects aggregates created afterwards.
+     */
+    public static void setDefault(StatsWindow window) {
+        defaultWindow = window;
+    }
+
+    private static StatsWindow fromSystemProperties() {
+        return ofDays(Integer.getInteger(WINDOW_DAYS_PROPERTY, 30), Integer.getInteger(BUCKETS_PROPERTY, 30),
+                Integer.getInteger(HALF_LIFE_DAYS_PROPERTY, 30));
+    }
+
+    /**
+     * Absolute index of the bucket holding a timestamp; buckets are aligned to the epoch.
+     */
+    long bucketOf(long timestamp) {
+        return Math.floorDiv(timestamp, bucketSeconds);
+    }
+
+    /**
+     * Weight of a value recorded ageSeconds before the decay reference time.
+     */
+    double decay(long ageSeconds) {
+        return Math.exp(-decayRate * ageSeconds);
+    }
+
+    // Getters
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    public long getBucketSeconds() {
+        return bucketSeconds;
+    }
+
+    public long getHalfLifeSeconds() {
+        return halfLifeSeconds;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof StatsWindow)) {
+            return false;
+        }
+        StatsWindow other = (StatsWindow) o;
+        return windowSeconds == other.windowSeconds && bucketCount == other.bucketCount
+                && halfLifeSeconds == other.halfLifeSeconds;
+    }
+
+    @Override
+    public int hashCode() {
+        return (Long.hashCode(windowSeconds) * 31 + bucketCount) * 31 + Long.hashCode(halfLifeSeconds);
+    }
+
+    @Override
+    public String toString() {
+        return windowSeconds + "s window in " + bucketCount + " buckets, " + halfLifeSeconds + "s half-life";
+    }
+}
@@ -0,0 +1,269 @@
+package com.earlyreviewer.domain;
+
+import java.util.Arrays;
+
+/**
+ * WindowedStats keeps recency-weighted time-to-review statistics keyed by submission timestamp:
+ * count and sum over a sliding window (e.g. the last 30 days) held in a ring buffer of buckets,
+ * and an exponentially decayed average.
+ * The window ends at the newest timestamp seen or advanced to; advancing it evicts whole buckets,
+ * so it costs O(buckets) regardless of how many records the window holds. Records older than the
+ * window only contribute to the decayed average. Not thread-safe.
+ */
+public class WindowedStats {
+    private final StatsWindow window;
+    private final int bucketCount;
+    // Ring buffer of (count, sum) pairs, interleaved so one bucket is one cache access;
+    // bucket b lives at slot b modulo bucketCount
+    private final long[] buckets;
+    // Absolute index of the newest bucket in the window, Long.MIN_VALUE while empty
+    private long headBucket;
+    private long windowCount;
+    private long windowSum;
+
+    // Decayed sums are weighted relative to latestTimestamp, the newest submission recorded
+    private double decayedCount;
+    private double decayedSum;
+    private long latestTimestamp;
+
+    public WindowedStats(StatsWindow window) {
+        this.window = window;
+        this.bucketCount = window.getBucketCount();
+        this.buckets = new long[2 * bucketCount];
+        this.headBucket = Long.MIN_VALUE;
+        this.windowCount = 0;
+        this.windowSum = 0;
+        this.decayedCount = 0.0;
+        this.decayedSum = 0.0;
+        this.latestTimestamp = Long.MIN_VALUE;
+    }
+
+    /**
+     * Restores statistics from saved state, e.g. from a snapshot.
+     *
+     * @param headBucket Absolute index of the newest bucket, or Long.MIN_VALUE if empty
+     * @param bucketCounts Ring-buffer counts, slot = bucket modulo bucketCount; copied
+     * @param bucketSums Ring-buffer sums in the same slots; copied
+     * @param decayedCount Decayed record weight as of latestTimestamp
+     * @param decayedSum Decayed time-to-review sum as of latestTimestamp
+     * @param latestTimestamp Newest recorded submission timestamp, or Long.MIN_VALUE if empty
+     */
+    public WindowedStats(StatsWindow window, long headBucket, int[] bucketCounts, long[] bucketSums,
+                         double decayedCount, double decayedSum, long latestTimestamp) {
+        this(window);
+        if (bucketCounts.length != bucketCount || bucketSums.length != bucketCount) {
+            throw new IllegalArgumentException("Expected " + bucketCount + " buckets but got " + bucketCounts.length);
+        }
+        for (int slot = 0; slot < bucketCount; slot++) {
+            buckets[2 * slot] = bucketCounts[slot];
+            buckets[2 * slot + 1] = bucketSums[slot];
+            windowCount += bucketCounts[slot];
+            windowSum += bucketSums[slot];
+        }
+        this.headBucket = headBucket;
+        this.decayedCount = decayedCount;
+        this.decayedSum = decayedSum;
+        this.latestTimestamp = latestTimestamp;
+    }
+
+    /**
+     * Records a valid review submitted at the given timestamp.
+     */
+    public void record(long submissionTimestamp, long timeToReview) {
+        long bucket = window.bucketOf(submissionTimestamp);
+        if (bucket > headBucket) {
+            advanceToBucket(bucket);
+        }
+        if (bucket > headBucket - bucketCount) {
+            int index = 2 * slot(bucket);
+            buckets[index]++;
+            buckets[index + 1] += timeToReview;
+            windowCount++;
+            windowSum += timeToReview;
+        }
+
+        // One exponential per record: either the history decays to the new reference time or
+        // the record is weighted by its age
+        if (submissionTimestamp >= latestTimestamp) {
+            if (latestTimestamp != Long.MIN_VALUE && submissionTimestamp > latestTimestamp) {
+                double factor = window.decay(submissionTimestamp - latestTimestamp);
+                decayedCount *= factor;
+                decayedSum *= factor;
+            }
+            latestTimestamp = submissionTimestamp;
+            decayedCount += 1.0;
+            decayedSum += timeToReview;
+        } else {
+            double weight = window.decay(latestTimestamp - submissionTimestamp);
+            decayedCount += weight;
+            decayedSum += weight * timeToReview;
+        }
+    }
+
+    /**
+     * Moves the end of the sliding window forward to the given time, evicting buckets that fall
+     * out of it. Earlier times are ignored, so the window never moves back.
+     */
+    public void advanceTo(long timestamp) {
+        long bucket = window.bucketOf(timestamp);
+        if (bucket > headBucket) {
+            advanceToBucket(bucket);
+        }
+    }
+
+    private void advanceToBucket(long bucket) {
+        if (headBucket == Long.MIN_VALUE || bucket - headBucket >= bucketCount) {
+            Arrays.fill(buckets, 0);
+            windowCount = 0;
+            windowSum = 0;
+        } else {
+            int slot = slot(headBucket);
+            for (long b = headBucket + 1; b <= bucket; b++) {
+                slot = slot + 1 == bucketCount ? 0 : slot + 1;
+                windowCount -= buckets[2 * slot];
+                windowSum -= buckets[2 * slot + 1];
+                buckets[2 * slot] = 0;
+                buckets[2 * slot + 1] = 0;
+            }
+        }
+        headBucket = bucket;
+    }
+
+    /**
+     * Merges statistics of another partition with the same window configuration.
+     * The merged window ends at the later of both window ends.
+     */
+    public void merge(WindowedStats other) {
+        if (!window.equals(other.window)) {
+            throw new IllegalArgumentException("Cannot merge statistics of different windows: " + window +
+                    " and " + other.window);
+        }
+        if (other.headBucket != Long.MIN_VALUE) {
+            if (other.headBucket > headBucket) {
+                advanceToBucket(other.headBucket);
+            }
+            long oldest = Math.max(other.headBucket, headBucket) - bucketCount + 1;
+            for (long b = oldest; b <= other.headBucket; b++) {
+                int index = 2 * slot(b);
+                buckets[index] += other.buckets[index];
+                buckets[index + 1] += other.buckets[index + 1];
+                windowCount += other.buckets[index];
+                windowSum += other.buckets[index + 1];
+            }
+        }
+
+        if (other.latestTimestamp == Long.MIN_VALUE) {
+            return;
+        }
+        if (latestTimestamp == Long.MIN_VALUE) {
+            decayedCount = other.decayedCount;
+            decayedSum = other.decayedSum;
+            latestTimestamp = other.latestTimestamp;
+        } else if (other.latestTimestamp > latestTimestamp) {
+            double factor = window.decay(other.latestTimestamp - latestTimestamp);
+            decayedCount = decayedCount * factor + other.decayedCount;
+            decayedSum = decayedSum * factor + other.decayedSum;
+            latestTimestamp = other.latestTimestamp;
+        } else {
+            double factor = window.decay(latestTimestamp - other.latestTimestamp);
+            decayedCount += other.decayedCount * factor;
+            decayedSum += other.decayedSum * factor;
+        }
+    }
+
+    public WindowedStats copy() {
+        WindowedStats copy = new WindowedStats(window);
+        System.arraycopy(buckets, 0, copy.buckets, 0, buckets.length);
+        copy.headBucket = headBucket;
+        copy.windowCount = windowCount;
+        copy.windowSum = windowSum;
+        copy.decayedCount = decayedCount;
+        copy.decayedSum = decayedSum;
+        copy.latestTimestamp = latestTimestamp;
+        return copy;
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) bucketCount);
+    }
+
+    /**
+     * Average time-to-review of records in the window, or 0.0 if there are none.
+     */
+    public double getWindowAverage() {
+        return windowCount == 0 ? 0.0 : (double) windowSum / windowCount;
+    }
+
+    /**
+     * Exponentially decayed average time-to-review, or 0.0 if nothing was recorded.
+     * Decay scales all weights alike as time passes, so the average only changes with new records.
+     */
+    public double getDecayedAverage() {
+        return decayedCount == 0.0 ? 0.0 : decayedSum / decayedCount;
+    }
+
+    /**
+     * Decayed number of records as of the given time, a measure of recent activity.
+     */
+    public double getDecayedCount(long asOf) {
+        if (latestTimestamp == Long.MIN_VALUE) {
+            return 0.0;
+        }
+        return asOf <= latestTimestamp ? decayedCount : decayedCount * window.decay(asOf - latestTimestamp);
+    }
+
+    // Getters
+    public StatsWindow getWindow() {
+        return window;
+    }
+
+    public long getWindowCount() {
+        return windowCount;
+    }
+
+    public long getWindowSum() {
+        return windowSum;
+    }
+
+    public long getHeadBucket() {
+        return headBucket;
+    }
+
+    /**
+     * Newest recorded submission timestamp, or Long.MIN_VALUE if nothing was recorded.
+     */
+    public long getLatestTimestamp() {
+        return latestTimestamp;
+    }
+
+    /**
+     * Decayed weight as of getLatestTimestamp; with getDecayedSum part of the persisted form.
+     */
+    public double getDecayedWeight() {
+        return decayedCount;
+    }
+
+    public double getDecayedSum() {
+        return decayedSum;
+    }
+
+    /**
+     * Ring-buffer record counts by slot (bucket modulo bucket count); with getBucketSums and
+     * getHeadBucket the persisted form of the window.
+     */
+    public int[] getBucketCounts() {
+        int[] counts = new int[bucketCount];
+        for (int slot = 0; slot < bucketCount; slot++) {
+            counts[slot] = (int) buckets[2 * slot];
+        }
+        return counts;
+    }
+
+    public long[] getBucketSums() {
+        long[] sums = new long[bucketCount];
+        for (int slot = 0; slot < bucketCount; slot++) {
+            sums[slot] = buckets[2 * slot + 1];
+        }
+        return sums;
+    }
+}
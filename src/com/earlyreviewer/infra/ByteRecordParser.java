@@ -0,0 +1,311 @@
+package com.earlyreviewer.infra;
+
+import com.earlyreviewer.domain.ReviewRecord;
+import com.earlyreviewer.domain.ReviewerDictionary;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.function.Supplier;
+
+/**
+ * ByteRecordParser parses review CSV lines directly from a byte buffer.
+ * Produces the same records and warning messages as CSVParser.parseLine without
+ * splitting lines into String[] or creating trimmed substrings for numeric fields.
+ * Instances are stateful (line counter, scratch arrays) and must not be shared between threads.
+ */
+final class ByteRecordParser {
+    private static final int COLUMNS = 6;
+    private static final int MAX_FAST_INT_DIGITS = 9;
+    private static final int MAX_FAST_LONG_DIGITS = 18;
+    // FileReader decodes with the platform charset; delimiters are assumed ASCII-compatible
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    /**
+     * Receives parsed records and warnings in input order.
+     */
+    interface Listener {
+        void onRecord(ReviewRecord record);
+
+        /**
+         * Called instead of onRecord when the parser encodes reviewer IDs with a dictionary.
+         */
+        default void onEncodedRecord(int reviewerCode, int pastReviewsCount, long submissionTimestamp,
+                                     long completionTimestamp, boolean teamFamiliarity,
+                                     boolean contextualKnowledge) {
+            throw new UnsupportedOperationException("Listener does not accept encoded records");
+        }
+
+        /**
+         * Called for records rejected by validation; the message (same text parseLine logs) is
+         * only built if the listener asks for it.
+         *
+         * @param category One of CSVParser.INVALID_TIMESTAMPS and CSVParser.INVALID_TIME_TO_REVIEW
+         */
+        void onInvalid(String category, Supplier<String> message);
+
+        /**
+         * Called for lines that could not be parsed; lineNumber counts from 1 at the parser's first line.
+         */
+        void onError(long lineNumber, String message);
+    }
+
+    private final Listener listener;
+    private final boolean skipHeader;
+    private final ReviewerDictionary dictionary;
+    private final int[] fieldStarts = new int[COLUMNS];
+    private final int[] fieldEnds = new int[COLUMNS];
+    private byte[] scratch = new byte[64];
+    private long lineNumber;
+    private final RejectionCounts rejected = new RejectionCounts();
+
+    /**
+     * @param listener Receiver for records and warnings
+     * @param skipHeader Whether the first line seen by this parser is a header row
+     */
+    ByteRecordParser(Listener listener, boolean skipHeader) {
+        this(listener, skipHeader, null);
+    }
+
+    /**
+     * @param listener Receiver for records and warnings
+     * @param skipHeader Whether the first line seen by this parser is a header row
+     * @param dictionary If non-null, valid records are delivered through onEncodedRecord with
+     *                   reviewer IDs encoded in this dictionary instead of as ReviewRecord objects
+     */
+    ByteRecordParser(Listener listener, boolean skipHeader, ReviewerDictionary dictionary) {
+        this.listener = listener;
+        this.skipHeader = skipHeader;
+        this.dictionary = dictionary;
+        this.lineNumber = 0;
+    }
+
+    /**
+     * Returns the number of lines consumed so far (including the header).
+     */
+    long getLineCount() {
+        return lineNumber;
+    }
+
+    /**
+     * Returns the rows rejected so far, per reason, for CSVParser.recordParse to publish.
+     */
+    RejectionCounts getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Parses all complete lines in buffer[from, to).
+     * A line is complete once its terminator (\n, \r or \r\n) is fully visible. When endOfInput is
+     * true a trailing unterminated line is parsed as well, matching BufferedReader.readLine.
+     *
+     * @return Absolute position just past the last consumed line
+     */
+    int parse(ByteBuffer buffer, int from, int to, boolean endOfInput) {
+        int lineStart = from;
+        int i = from;
+        while (i < to) {
+            byte b = buffer.get(i);
+            if (b != '\n' && b != '\r') {
+                i++;
+                continue;
+            }
+            int next = i + 1;
+            if (b == '\r') {
+                if (next == to && !endOfInput) {
+                    // Cannot tell yet whether this is \r or \r\n
+                    return lineStart;
+                }
+                if (next < to && buffer.get(next) == '\n') {
+                    next++;
+                }
+            }
+            handleLine(buffer, lineStart, i);
+            lineStart = next;
+            i = next;
+        }
+
+        if (endOfInput && lineStart < to) {
+            handleLine(buffer, lineStart, to);
+            return to;
+        }
+        return lineStart;
+    }
+
+    private void handleLine(ByteBuffer buffer, int start, int end) {
+        lineNumber++;
+
+        // Skip header row
+        if (skipHeader && lineNumber == 1) {
+            return;
+        }
+
+        try {
+            parseLine(buffer, start, end);
+        } catch (Exception e) {
+            rejected.malformed++;
+            listener.onError(lineNumber, e.getMessage());
+        }
+    }
+
+    /**
+     * Byte-level equivalent of CSVParser.parseLine; delivers a valid record to the listener.
+     */
+    private void parseLine(ByteBuffer buffer, int start, int end) {
+        // String.split(",") drops trailing empty fields, so the column count is one past the
+        // last non-empty field; only the first six fields are ever read.
+        int field = 0;
+        int fieldStart = start;
+        int lastNonEmpty = -1;
+        for (int i = start; i <= end; i++) {
+            if (i == end || buffer.get(i) == ',') {
+                if (field < COLUMNS) {
+                    fieldStarts[field] = fieldStart;
+                    fieldEnds[field] = i;
+                }
+                if (i > fieldStart) {
+                    lastNonEmpty = field;
+                }
+                field++;
+                fieldStart = i + 1;
+            }
+        }
+
+        if (lastNonEmpty + 1 < COLUMNS) {
+            throw new IllegalArgumentException("CSV line has fewer than 6 columns");
+        }
+
+        for (int f = 0; f < COLUMNS; f++) {
+            trimField(buffer, f);
+        }
+
+        try {
+            int pastReviewsCount = parseInt(buffer, 1);
+            long submissionTimestamp = parseLong(buffer, 2);
+            long completionTimestamp = parseLong(buffer, 3);
+            boolean teamFamiliarity = parseBoolean(buffer, 4);
+            boolean contextualKnowledge = parseBoolean(buffer, 5);
+
+            // Validate required fields
+            if (submissionTimestamp <= 0 || completionTimestamp <= 0) {
+                rejected.timestamps++;
+                listener.onInvalid(CSVParser.INVALID_TIMESTAMPS,
+                        () -> "Invalid timestamps for reviewer " + decode(buffer, 0));
+                return;
+            }
+
+            // Reject zero or negative time-to-review before allocating anything
+            long timeToReview = completionTimestamp - submissionTimestamp;
+            if (timeToReview <= 0) {
+                rejected.timeToReview++;
+                listener.onInvalid(CSVParser.INVALID_TIME_TO_REVIEW,
+                        () -> "Invalid time-to-review for reviewer " + decode(buffer, 0) + ": " + timeToReview +
+                                " seconds");
+                return;
+            }
+
+            if (dictionary != null) {
+                int reviewerCode = dictionary.encode(buffer, fieldStarts[0], fieldEnds[0] - fieldStarts[0]);
+                listener.onEncodedRecord(reviewerCode, pastReviewsCount, submissionTimestamp,
+                        completionTimestamp, teamFamiliarity, contextualKnowledge);
+                return;
+            }
+
+            listener.onRecord(new ReviewRecord(decode(buffer, 0), pastReviewsCount, submissionTimestamp,
+                    completionTimestamp, teamFamiliarity, contextualKnowledge));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Number format error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Narrows a field to exclude leading/trailing bytes <= ' ', like String.trim.
+     */
+    private void trimField(ByteBuffer buffer, int f) {
+        int s = fieldStarts[f];
+        int e = fieldEnds[f];
+        while (s < e && (buffer.get(s) & 0xff) <= ' ') {
+            s++;
+        }
+        while (e > s && (buffer.get(e - 1) & 0xff) <= ' ') {
+            e--;
+        }
+        fieldStarts[f] = s;
+        fieldEnds[f] = e;
+    }
+
+    /**
+     * Parses plain decimal digits in place; anything else (signs, overflow-sized values, junk)
+     * falls back to Integer.parseInt so results and exception messages stay identical.
+     */
+    private int parseInt(ByteBuffer buffer, int f) {
+        int s = fieldStarts[f];
+        int e = fieldEnds[f];
+        if (e > s && e - s <= MAX_FAST_INT_DIGITS) {
+            int value = 0;
+            int i = s;
+            while (i < e) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                value = value * 10 + digit;
+                i++;
+            }
+            if (i == e) {
+                return value;
+            }
+        }
+        return Integer.parseInt(decode(buffer, f));
+    }
+
+    /**
+     * Long counterpart of parseInt with the same fallback rules.
+     */
+    private long parseLong(ByteBuffer buffer, int f) {
+        int s = fieldStarts[f];
+        int e = fieldEnds[f];
+        if (e > s && e - s <= MAX_FAST_LONG_DIGITS) {
+            long value = 0;
+            int i = s;
+            while (i < e) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                value = value * 10 + digit;
+                i++;
+            }
+            if (i == e) {
+                return value;
+            }
+        }
+        return Long.parseLong(decode(buffer, f));
+    }
+
+    /**
+     * Accepts "true" (case-insensitive) as true, all else as false.
+     */
+    private boolean parseBoolean(ByteBuffer buffer, int f) {
+        int s = fieldStarts[f];
+        if (fieldEnds[f] - s != 4) {
+            return false;
+        }
+        return (buffer.get(s) | 0x20) == 't'
+                && (buffer.get(s + 1) | 0x20) == 'r'
+                && (buffer.get(s + 2) | 0x20) == 'u'
+                && (buffer.get(s + 3) | 0x20) == 'e';
+    }
+
+    /**
+     * Decodes a (trimmed) field with the platform charset, matching the FileReader path.
+     */
+    private String decode(ByteBuffer buffer, int f) {
+        int s = fieldStarts[f];
+        int length = fieldEnds[f] - s;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(s, scratch, 0, length);
+        return new String(scratch, 0, length, CHARSET);
+    }
+}
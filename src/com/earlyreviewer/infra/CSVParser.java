@@ -1,26 +1,72 @@
 package com.earlyreviewer.infra;
 
 import com.earlyreviewer.domain.ReviewRecord;
+import com.earlyreviewer.domain.ReviewRecordStore;
+import com.earlyreviewer.domain.ReviewerDictionary;
+import com.earlyreviewer.metrics.Counter;
+import com.earlyreviewer.metrics.Histogram;
+import com.earlyreviewer.metrics.Metrics;
 import com.earlyreviewer.util.LoggerUtil;
+import com.earlyreviewer.util.RejectionLog;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * CSVParser reads a CSV file and converts it into ReviewRecord objects.
- * Handles parsing errors gracefully with logging.
+ * Handles parsing errors gracefully with logging: rejected rows are logged through a RejectionLog,
+ * which rate-limits warnings per reason and logs a summary of all rejections after each parse.
  * Expected CSV format: reviewerId, pastReviewsCount, submissionTimestamp, completionTimestamp,
  * teamFamiliarity, contextualKnowledge
  */
 public class CSVParser {
     private static final Logger logger = LoggerUtil.getLogger(CSVParser.class);
 
+    // Rejection reasons shown in RejectionLog summaries
+    static final String INVALID_TIMESTAMPS = "invalid timestamps";
+    static final String INVALID_TIME_TO_REVIEW = "invalid time-to-review";
+    static final String MALFORMED = "malformed line";
+
+    // Shared with ByteRecordParser and CSVTailFollower; totals are published once per parse call
+    static final Counter RECORDS_PARSED = Metrics.counter("earlyreviewer_parse_records_total",
+            "Valid review records parsed");
+    static final Counter BYTES_PARSED = Metrics.counter("earlyreviewer_parse_bytes_total", "CSV bytes parsed");
+    static final Counter REJECTED_TIMESTAMPS = rejectedCounter("invalid_timestamps");
+    static final Counter REJECTED_TIME_TO_REVIEW = rejectedCounter("invalid_time_to_review");
+    static final Counter REJECTED_MALFORMED = rejectedCounter("malformed");
+    static final Histogram PARSE_TIMER = Metrics.stageTimer("parse");
+
+    // Memory-mapped ingestion maps the file in windows so files larger than 2 GB can be parsed
+    private static final long MAP_WINDOW_BYTES = 256L * 1024 * 1024;
+    private static final long MAX_MAP_WINDOW_BYTES = Integer.MAX_VALUE;
+    // Progress is reported, and interruption checked, after each slice of a mapped window
+    private static final int PROGRESS_SLICE_BYTES = 4 * 1024 * 1024;
+
+    // Parallel parsing splits the file into several chunks per worker for load balancing
+    private static final int CHUNKS_PER_WORKER = 4;
+    private static final long MIN_CHUNK_BYTES = 1024 * 1024;
+    private static final int BOUNDARY_SCAN_BYTES = 64 * 1024;
+
     /**
      * Parses a CSV file and returns a list of ReviewRecord objects.
      * Skips header row and invalid records (logs warnings for issues).
@@ -30,7 +76,10 @@ public class CSVParser {
      * @throws IOException if file cannot be read
      */
     public static List<ReviewRecord> parse(File file) throws IOException {
+        long start = System.nanoTime();
         List<ReviewRecord> records = new ArrayList<>();
+        RejectionLog rejections = new RejectionLog(logger);
+        RejectionCounts rejected = new RejectionCounts();
 
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             String line;
@@ -45,28 +94,505 @@ public class CSVParser {
                 }
 
                 try {
-                    ReviewRecord record = parseLine(line);
+                    ReviewRecord record = parseLine(line, rejections, rejected);
                     if (record != null) {
                         records.add(record);
                     }
                 } catch (Exception e) {
-                    logger.log(Level.WARNING, "Error parsing line " + lineNumber + ": " + e.getMessage());
+                    rejected.malformed++;
+                    rejections.reject(MALFORMED, errorMessage(lineNumber, e.getMessage()));
                 }
             }
         }
 
+        rejections.summarize();
         logger.log(Level.INFO, "Parsed " + records.size() + " valid records from CSV");
+        recordParse(records.size(), file.length(), start, rejected);
         return records;
     }
 
+    /**
+     * Parses a CSV file through a memory-mapped FileChannel.
+     * Produces the same records and warnings as parse(File) but reads fields directly from
+     * bytes instead of allocating a String per line and per field.
+     *
+     * @param file The CSV file to parse
+     * @return List of valid ReviewRecord objects
+     * @throws IOException if file cannot be read
+     */
+    public static List<ReviewRecord> parseMapped(File file) throws IOException {
+        List<ReviewRecord> records = new ArrayList<>();
+        parseMapped(file, records::add);
+        return records;
+    }
+
+    /**
+     * Streams valid records from a memory-mapped CSV file to the given consumer.
+     * The file is mapped in windows of MAP_WINDOW_BYTES; a line straddling a window boundary is
+     * re-read at the start of the next window.
+     *
+     * @param file The CSV file to parse
+     * @param consumer Receives each valid ReviewRecord in file order
+     * @return Number of valid records delivered
+     * @throws IOException if file cannot be read
+     */
+    public static long parseMapped(File file, Consumer<ReviewRecord> consumer) throws IOException {
+        LoggingListener listener = new LoggingListener(consumer, null);
+        parseMapped(file, 0, listener, new ByteRecordParser(listener, true), null, false);
+        return listener.count;
+    }
+
+    /**
+     * Receives parsing progress as byte offsets, e.g. to drive a progress bar.
+     */
+    public interface ProgressListener {
+        void onProgress(long bytesParsed, long totalBytes);
+    }
+
+    /**
+     * Receives a valid record whose reviewer ID has been dictionary-encoded during parsing.
+     */
+    public interface EncodedRecordConsumer {
+        void accept(int reviewerCode, int pastReviewsCount, long submissionTimestamp,
+                    long completionTimestamp, boolean teamFamiliarity, boolean contextualKnowledge);
+    }
+
+    /**
+     * Streams valid records from a memory-mapped CSV file with reviewer IDs encoded at parse time.
+     * Known ASCII reviewer IDs are matched in the dictionary straight from the mapped bytes, so no
+     * String or ReviewRecord is allocated per record.
+     *
+     * @param file The CSV file to parse
+     * @param dictionary Dictionary used to encode reviewer IDs
+     * @param consumer Receives each valid record's columns in file order
+     * @return Number of valid records delivered
+     * @throws IOException if file cannot be read
+     */
+    public static long parseEncoded(File file, ReviewerDictionary dictionary, EncodedRecordConsumer consumer)
+            throws IOException {
+        return parseEncoded(file, dictionary, consumer, null);
+    }
+
+    /**
+     * Streams encoded records like parseEncoded, reporting progress every few megabytes.
+     * Parsing can be cancelled by interrupting the calling thread.
+     *
+     * @param progress Receives the bytes parsed so far, or null for no progress reporting
+     * @throws InterruptedIOException if the thread was interrupted while parsing with a
+     *         progress listener; the interrupt status is kept
+     */
+    public static long parseEncoded(File file, ReviewerDictionary dictionary, EncodedRecordConsumer consumer,
+                                    ProgressListener progress) throws IOException {
+        LoggingListener listener = new LoggingListener(null, consumer);
+        parseMapped(file, 0, listener, new ByteRecordParser(listener, true, dictionary), progress, false);
+        return listener.count;
+    }
+
+    /**
+     * Streams encoded records like parseEncoded, but only from complete lines: a last line without
+     * a line terminator is treated as still being written and left unparsed, as CSVTailFollower
+     * does. Following the file from the returned offset picks up exactly where this parse ended.
+     *
+     * @return Byte offset just past the last complete line
+     */
+    public static long parseEncodedLines(File file, ReviewerDictionary dictionary, EncodedRecordConsumer consumer)
+            throws IOException {
+        return parseEncodedLines(file, 0, dictionary, consumer);
+    }
+
+    /**
+     * Like parseEncodedLines(File, ReviewerDictionary, EncodedRecordConsumer), but resumes at a
+     * byte offset returned by an earlier parse; 0 parses the file from the start and skips the header.
+     */
+    public static long parseEncodedLines(File file, long startOffset, ReviewerDictionary dictionary,
+                                         EncodedRecordConsumer consumer) throws IOException {
+        LoggingListener listener = new LoggingListener(null, consumer);
+        return parseMapped(file, startOffset, listener, new ByteRecordParser(listener, startOffset == 0, dictionary),
+                null, true);
+    }
+
+    /**
+     * @param startOffset Byte offset of the first line to parse
+     * @param completeLinesOnly Whether to leave an unterminated last line unparsed
+     * @return Byte offset just past the last parsed line
+     */
+    private static long parseMapped(File file, long startOffset, LoggingListener listener, ByteRecordParser parser,
+                                    ProgressListener progress, boolean completeLinesOnly) throws IOException {
+        long start = System.nanoTime();
+        long position = startOffset;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long window = MAP_WINDOW_BYTES;
+
+            while (position < size) {
+                long length = Math.min(window, size - position);
+                boolean endOfInput = position + length == size && !completeLinesOnly;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int consumed = progress == null
+                        ? parser.parse(buffer, 0, (int) length, endOfInput)
+                        : parseInSlices(parser, buffer, (int) length, endOfInput, position, size, progress);
+
+                if (consumed == 0) {
+                    if (completeLinesOnly && position + length == size) {
+                        // Only an unterminated last line is left
+                        break;
+                    }
+                    // A single line is longer than the window; widen it and retry
+                    if (window >= MAX_MAP_WINDOW_BYTES) {
+                        throw new IOException("CSV line at byte " + position + " exceeds " +
+                                MAX_MAP_WINDOW_BYTES + " bytes");
+                    }
+                    window = Math.min(window * 2, MAX_MAP_WINDOW_BYTES);
+                    continue;
+                }
+
+                position += consumed;
+                window = MAP_WINDOW_BYTES;
+            }
+        }
+
+        listener.rejections.summarize();
+        logger.log(Level.INFO, "Parsed " + listener.count + " valid records from CSV");
+        recordParse(listener.count, position - startOffset, start, parser.getRejected());
+        return position;
+    }
+
+    /**
+     * Publishes the totals of one parse call and clears the rejection counts.
+     */
+    static void recordParse(long records, long bytes, long startNanos, RejectionCounts rejected) {
+        RECORDS_PARSED.add(records);
+        BYTES_PARSED.add(bytes);
+        REJECTED_TIMESTAMPS.add(rejected.timestamps);
+        REJECTED_TIME_TO_REVIEW.add(rejected.timeToReview);
+        REJECTED_MALFORMED.add(rejected.malformed);
+        rejected.clear();
+        PARSE_TIMER.recordSince(startNanos);
+    }
+
+    /**
+     * Builds the warning for a line that could not be parsed, when it is actually logged.
+     */
+    static Supplier<String> errorMessage(long lineNumber, String message) {
+        return () -> "Error parsing line " + lineNumber + ": " + message;
+    }
+
+    private static Counter rejectedCounter(String reason) {
+        return Metrics.counter("earlyreviewer_parse_rejected_total", "Review records rejected while parsing",
+                "reason", reason);
+    }
+
+    /**
+     * Parses a mapped window slice by slice, reporting progress after each slice.
+     *
+     * @return Position just past the last consumed line, as ByteRecordParser.parse
+     */
+    private static int parseInSlices(ByteRecordParser parser, MappedByteBuffer buffer, int length,
+                                     boolean endOfInput, long windowStart, long size, ProgressListener progress)
+            throws IOException {
+        int consumed = 0;
+        int sliceEnd = Math.min(length, PROGRESS_SLICE_BYTES);
+        while (true) {
+            boolean lastSlice = sliceEnd == length;
+            // A line longer than a slice is left unconsumed and picked up by the next, wider slice
+            consumed = parser.parse(buffer, consumed, sliceEnd, endOfInput && lastSlice);
+            progress.onProgress(windowStart + consumed, size);
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Parsing interrupted at byte " + (windowStart + consumed));
+            }
+            if (lastSlice) {
+                return consumed;
+            }
+            sliceEnd = (int) Math.min(length, (long) sliceEnd + PROGRESS_SLICE_BYTES);
+        }
+    }
+
+    /**
+     * Parses a CSV file into a columnar ReviewRecordStore.
+     * Records are copied into primitive columns as they are parsed, so no ReviewRecord objects
+     * or duplicate reviewer ID strings outlive the parse.
+     *
+     * @param file The CSV file to parse
+     * @return Store holding every valid record in file order
+     * @throws IOException if file cannot be read
+     */
+    public static ReviewRecordStore parseToStore(File file) throws IOException {
+        ReviewRecordStore store = new ReviewRecordStore();
+        parseEncoded(file, store.getDictionary(), store::addEncoded);
+        store.trimToSize();
+        return store;
+    }
+
+    /**
+     * Parses a CSV file in parallel on the common fork-join pool.
+     *
+     * @param file The CSV file to parse
+     * @return List of valid ReviewRecord objects in file order
+     * @throws IOException if file cannot be read
+     */
+    public static List<ReviewRecord> parseParallel(File file) throws IOException {
+        return parseParallel(file, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parses a CSV file in parallel using a dedicated fork-join pool of the given size.
+     *
+     * @param file The CSV file to parse
+     * @param parallelism Number of worker threads
+     * @return List of valid ReviewRecord objects in file order
+     * @throws IOException if file cannot be read
+     */
+    public static List<ReviewRecord> parseParallel(File file, int parallelism) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return parseParallel(file, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Splits the file into byte ranges aligned to newline boundaries, parses each range on the
+     * pool and merges the results in file order. Warnings are buffered per range, up to the
+     * rejection log's limit per reason, and logged after the merge with their original line numbers.
+     */
+    private static List<ReviewRecord> parseParallel(File file, ForkJoinPool pool) throws IOException {
+        long startNanos = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long[] boundaries = splitAtLines(channel, pool.getParallelism());
+            RejectionLog rejections = new RejectionLog(logger);
+            int warningLimit = rejections.getLimit();
+
+            List<Callable<ChunkResult>> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < boundaries.length; i++) {
+                long start = boundaries[i];
+                long end = boundaries[i + 1];
+                boolean first = i == 0;
+                tasks.add(() -> parseChunk(channel, start, end, first, warningLimit));
+            }
+
+            List<ChunkResult> results = new ArrayList<>();
+            for (Future<ChunkResult> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+
+            int total = 0;
+            RejectionCounts rejected = new RejectionCounts();
+            for (ChunkResult result : results) {
+                total += result.records.size();
+                rejected.add(result.rejected);
+            }
+
+            List<ReviewRecord> records = new ArrayList<>(total);
+            long lineOffset = 0;
+            for (ChunkResult result : results) {
+                result.logWarnings(rejections, lineOffset);
+                records.addAll(result.records);
+                lineOffset += result.lineCount;
+            }
+            rejections.summarize();
+
+            logger.log(Level.INFO, "Parsed " + records.size() + " valid records from CSV using " +
+                    results.size() + " chunks");
+            recordParse(records.size(), channel.size(), startNanos, rejected);
+            return records;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing " + file, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IOException("Failed to parse " + file, cause);
+        }
+    }
+
+    /**
+     * Computes chunk boundaries; every boundary except 0 and size sits just past a '\n'.
+     */
+    private static long[] splitAtLines(FileChannel channel, int parallelism) throws IOException {
+        long size = channel.size();
+        long target = (size + (long) parallelism * CHUNKS_PER_WORKER - 1) / ((long) parallelism * CHUNKS_PER_WORKER);
+        target = Math.min(Math.max(target, MIN_CHUNK_BYTES), MAP_WINDOW_BYTES);
+
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_BYTES);
+        long position = target;
+        while (position < size) {
+            long boundary = nextLineStart(channel, position, scan);
+            if (boundary >= size) {
+                break;
+            }
+            boundaries.add(boundary);
+            position = boundary + target;
+        }
+        boundaries.add(size);
+
+        long[] result = new long[boundaries.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = boundaries.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the offset just past the first '\n' at or after position, or the file size if none.
+     */
+    private static long nextLineStart(FileChannel channel, long position, ByteBuffer scan) throws IOException {
+        while (true) {
+            scan.clear();
+            int read = channel.read(scan, position);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Parses one newline-aligned byte range; runs on a pool worker.
+     */
+    private static ChunkResult parseChunk(FileChannel channel, long start, long end, boolean first,
+                                          int warningLimit) {
+        long length = end - start;
+        if (length > MAX_MAP_WINDOW_BYTES) {
+            throw new UncheckedIOException(new IOException("CSV chunk at byte " + start + " exceeds " +
+                    MAX_MAP_WINDOW_BYTES + " bytes"));
+        }
+
+        ChunkResult result = new ChunkResult(warningLimit);
+        ByteRecordParser parser = new ByteRecordParser(result, first);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            parser.parse(buffer, 0, (int) length, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        result.lineCount = parser.getLineCount();
+        result.rejected = parser.getRejected();
+        return result;
+    }
+
+    /**
+     * Records and buffered warnings of a single parallel chunk.
+     * Keeps at most warningLimit messages per reason, since the rejection log would not show more;
+     * the others are only counted. Error line numbers are chunk-relative until logWarnings adds the
+     * preceding line count.
+     */
+    private static class ChunkResult implements ByteRecordParser.Listener {
+        private final List<ReviewRecord> records = new ArrayList<>();
+        private final int warningLimit;
+        private final List<String> warningCategories = new ArrayList<>();
+        private final List<String> warnings = new ArrayList<>();
+        private final List<Long> warningLines = new ArrayList<>();
+        private final Map<String, Long> unbuffered = new HashMap<>();
+        private final Map<String, Integer> buffered = new HashMap<>();
+        private long lineCount;
+        private RejectionCounts rejected;
+
+        ChunkResult(int warningLimit) {
+            this.warningLimit = warningLimit;
+        }
+
+        @Override
+        public void onRecord(ReviewRecord record) {
+            records.add(record);
+        }
+
+        @Override
+        public void onInvalid(String category, Supplier<String> message) {
+            buffer(category, -1, message);
+        }
+
+        @Override
+        public void onError(long lineNumber, String message) {
+            buffer(MALFORMED, lineNumber, () -> message);
+        }
+
+        private void buffer(String category, long lineNumber, Supplier<String> message) {
+            int count = buffered.getOrDefault(category, 0);
+            if (count >= warningLimit) {
+                unbuffered.merge(category, 1L, Long::sum);
+                return;
+            }
+            buffered.put(category, count + 1);
+            warningCategories.add(category);
+            warnings.add(message.get());
+            warningLines.add(lineNumber);
+        }
+
+        void logWarnings(RejectionLog rejections, long lineOffset) {
+            for (int i = 0; i < warnings.size(); i++) {
+                long line = warningLines.get(i);
+                String warning = warnings.get(i);
+                if (line < 0) {
+                    rejections.reject(warningCategories.get(i), () -> warning);
+                } else {
+                    rejections.reject(warningCategories.get(i), errorMessage(lineOffset + line, warning));
+                }
+            }
+            for (Map.Entry<String, Long> entry : unbuffered.entrySet()) {
+                rejections.rejectSilently(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Forwards byte-parser output to a consumer and logs warnings exactly as parse(File) does.
+     */
+    private static class LoggingListener implements ByteRecordParser.Listener {
+        private final Consumer<ReviewRecord> consumer;
+        private final EncodedRecordConsumer encodedConsumer;
+        private final RejectionLog rejections = new RejectionLog(logger);
+        private long count;
+
+        LoggingListener(Consumer<ReviewRecord> consumer, EncodedRecordConsumer encodedConsumer) {
+            this.consumer = consumer;
+            this.encodedConsumer = encodedConsumer;
+        }
+
+        @Override
+        public void onRecord(ReviewRecord record) {
+            consumer.accept(record);
+            count++;
+        }
+
+        @Override
+        public void onEncodedRecord(int reviewerCode, int pastReviewsCount, long submissionTimestamp,
+                                    long completionTimestamp, boolean teamFamiliarity, boolean contextualKnowledge) {
+            encodedConsumer.accept(reviewerCode, pastReviewsCount, submissionTimestamp, completionTimestamp,
+                    teamFamiliarity, contextualKnowledge);
+            count++;
+        }
+
+        @Override
+        public void onInvalid(String category, Supplier<String> message) {
+            rejections.reject(category, message);
+        }
+
+        @Override
+        public void onError(long lineNumber, String message) {
+            rejections.reject(MALFORMED, errorMessage(lineNumber, message));
+        }
+    }
+
     /**
      * Parses a single CSV line into a ReviewRecord.
      * Returns null if the record is invalid (missing submission/completion timestamps).
      *
      * @param line CSV line to parse
+     * @param rejections Receives the reason an invalid record was rejected
+     * @param rejected Counts the rejection per reason
      * @return ReviewRecord or null if invalid
      */
-    private static ReviewRecord parseLine(String line) {
+    private static ReviewRecord parseLine(String line, RejectionLog rejections, RejectionCounts rejected) {
         String[] parts = line.split(",");
 
         if (parts.length < 6) {
@@ -83,7 +609,8 @@ public class CSVParser {
 
             // Validate required fields
             if (submissionTimestamp <= 0 || completionTimestamp <= 0) {
-                logger.log(Level.WARNING, "Invalid timestamps for reviewer " + reviewerId);
+                rejected.timestamps++;
+                rejections.reject(INVALID_TIMESTAMPS, () -> "Invalid timestamps for reviewer " + reviewerId);
                 return null;
             }
 
@@ -92,7 +619,8 @@ public class CSVParser {
 
             // Log invalid records (zero or negative time-to-review)
             if (!record.isValid()) {
-                logger.log(Level.WARNING, "Invalid time-to-review for reviewer " + reviewerId +
+                rejected.timeToReview++;
+                rejections.reject(INVALID_TIME_TO_REVIEW, () -> "Invalid time-to-review for reviewer " + reviewerId +
                         ": " + record.getTimeToReview() + " seconds");
                 return null;
             }
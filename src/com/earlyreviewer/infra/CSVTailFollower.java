@@ -0,0 +1,291 @@
+package com.earlyreviewer.infra;
+
+import com.earlyreviewer.domain.ReviewRecord;
+import com.earlyreviewer.util.LoggerUtil;
+import com.earlyreviewer.util.RejectionLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * CSVTailFollower follows an append-only review event CSV and delivers newly appended records.
+ * Remembers the byte offset after the last complete line, so each poll only reads appended bytes;
+ * a partially written last line is left for the next poll. The offset only advances once the
+ * consumer has accepted a batch; a batch whose consumer failed is delivered again on the next
+ * poll. A file that shrinks or is replaced by another file (detected by its file key, where the
+ * file system has one) is re-read from the start. Wakes up on file-system change
+ * notifications and additionally polls at a fixed interval, since some WatchService
+ * implementations only report changes every few seconds.
+ *
+ * Typical use feeds an incremental analysis (batches are delivered on the follower thread):
+ *   new CSVTailFollower(file, 0, batch -> ReviewerAnalyzer.update(analysis, batch)).start();
+ */
+public class CSVTailFollower implements AutoCloseable {
+    private static final Logger logger = LoggerUtil.getLogger(CSVTailFollower.class);
+
+    private static final int INITIAL_BUFFER_BYTES = 1024 * 1024;
+    private static final long DEFAULT_POLL_INTERVAL_MILLIS = 200;
+
+    private final File file;
+    private final ObjLongConsumer<List<ReviewRecord>> consumer;
+    private final long pollIntervalMillis;
+    private final BatchListener listener;
+    private ByteRecordParser parser;
+    private ByteBuffer buffer;
+    private long offset;
+    // Parsed batch not yet accepted by the consumer, and the offset just past its lines
+    private List<ReviewRecord> pending;
+    private long pendingEnd;
+    // Identity of the followed file, e.g. device and inode; null until read or if unsupported
+    private Object fileKey;
+    private volatile boolean running;
+    private Thread thread;
+    private WatchService watchService;
+
+    /**
+     * @param file CSV file to follow
+     * @param startOffset Byte offset to resume from; 0 reads the file from the start and skips the header
+     * @param consumer Receives each batch of newly parsed valid records, in file order
+     */
+    public CSVTailFollower(File file, long startOffset, Consumer<List<ReviewRecord>> consumer) {
+        this(file, startOffset, consumer, DEFAULT_POLL_INTERVAL_MILLIS);
+    }
+
+    public CSVTailFollower(File file, long startOffset, Consumer<List<ReviewRecord>> consumer,
+                           long pollIntervalMillis) {
+        this(file, startOffset, (batch, endOffset) -> consumer.accept(batch), pollIntervalMillis);
+    }
+
+    /**
+     * @param consumer Receives each batch together with the byte offset just past its lines, e.g.
+     *                 to persist the batch's effects along with the position to resume from
+     */
+    public CSVTailFollower(File file, long startOffset, ObjLongConsumer<List<ReviewRecord>> consumer) {
+        this(file, startOffset, consumer, DEFAULT_POLL_INTERVAL_MILLIS);
+    }
+
+    public CSVTailFollower(File file, long startOffset, ObjLongConsumer<List<ReviewRecord>> consumer,
+                           long pollIntervalMillis) {
+        this.file = file;
+        this.consumer = consumer;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.listener = new BatchListener();
+        this.parser = new ByteRecordParser(listener, startOffset == 0);
+        this.buffer = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+        this.offset = startOffset;
+        this.running = false;
+    }
+
+    /**
+     * Returns the byte offset just past the last line accepted by the consumer; persist it to
+     * resume later.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Reads and delivers all complete lines appended since the last poll, after first delivering
+     * a batch left pending by a failed consumer. Safe to call directly when no background thread
+     * is running.
+     *
+     * @return Number of valid records delivered
+     * @throws IOException if the file cannot be read
+     * @throws RuntimeException thrown by the consumer; the batch stays pending and the offset is kept
+     */
+    public synchronized long poll() throws IOException {
+        long start = System.nanoTime();
+        long parsedBytes = 0;
+        long delivered = 0;
+        try {
+            if (pending != null) {
+                delivered += deliver();
+            }
+            Object key = Files.readAttributes(file.toPath(), BasicFileAttributes.class).fileKey();
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                long size = channel.size();
+                boolean replaced = key != null && fileKey != null && !key.equals(fileKey);
+                fileKey = key;
+                if (size < offset || replaced) {
+                    // Start over including the header
+                    logger.log(Level.WARNING, "File " + file + (replaced ? " was replaced" : " shrank below offset " +
+                            offset) + ", re-reading from start");
+                    offset = 0;
+                    parser = new ByteRecordParser(listener, true);
+                }
+
+                while (offset < size) {
+                    buffer.clear();
+                    int read = channel.read(buffer, offset);
+                    if (read <= 0) {
+                        break;
+                    }
+                    int consumed = parser.parse(buffer, 0, read, false);
+
+                    if (consumed == 0) {
+                        if (read < buffer.capacity()) {
+                            // Only a partially written line is available
+                            break;
+                        }
+                        // A single line is longer than the buffer
+                        buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                        continue;
+                    }
+
+                    parsedBytes += consumed;
+                    pending = listener.drain();
+                    pendingEnd = offset + consumed;
+                    delivered += deliver();
+                }
+            }
+        } finally {
+            if (parsedBytes > 0) {
+                listener.rejections.summarize();
+                CSVParser.recordParse(delivered, parsedBytes, start, parser.getRejected());
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * Hands the pending batch to the consumer and advances the offset once it has been accepted.
+     */
+    private long deliver() {
+        List<ReviewRecord> batch = pending;
+        if (!batch.isEmpty()) {
+            consumer.accept(batch, pendingEnd);
+        }
+        pending = null;
+        offset = pendingEnd;
+        return batch.size();
+    }
+
+    /**
+     * Starts following on a daemon thread.
+     *
+     * @throws IOException if the directory watch cannot be registered
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        Path directory = file.getAbsoluteFile().toPath().getParent();
+        WatchService watcher = FileSystems.getDefault().newWatchService();
+        directory.register(watcher, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+        watchService = watcher;
+
+        running = true;
+        thread = new Thread(() -> run(watcher), "csv-tail-" + file.getName());
+        thread.setDaemon(true);
+        thread.start();
+        logger.log(Level.INFO, "Following " + file.getAbsolutePath() + " from offset " + offset);
+    }
+
+    private void run(WatchService watcher) {
+        while (running) {
+            try {
+                poll();
+                // Wait for a change notification, but never longer than the poll interval
+                WatchKey key = watcher.poll(pollIntervalMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                break;
+            } catch (IOException e) {
+                if (!running) {
+                    break;
+                }
+                logger.log(Level.WARNING, "Error following " + file + ": " + e.getMessage());
+                sleepQuietly();
+            } catch (RuntimeException e) {
+                // A failing consumer must not stop the follower; its batch is retried on the next poll
+                logger.log(Level.SEVERE, "Consumer failed while following " + file + ", retrying the batch", e);
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(pollIntervalMillis);
+        } catch (InterruptedException e) {
+            running = false;
+        }
+    }
+
+    /**
+     * Stops the background thread, if any.
+     */
+    @Override
+    public void close() throws IOException {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = thread;
+            thread = null;
+            if (watchService != null) {
+                watchService.close();
+                watchService = null;
+            }
+        }
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Collects parsed records into the pending batch and logs warnings like CSVParser.
+     * The rejection log lives as long as the follower, so its rate limit spans polls.
+     */
+    private class BatchListener implements ByteRecordParser.Listener {
+        private final RejectionLog rejections = new RejectionLog(logger);
+        private List<ReviewRecord> batch = new ArrayList<>();
+
+        @Override
+        public void onRecord(ReviewRecord record) {
+            batch.add(record);
+        }
+
+        @Override
+        public void onInvalid(String category, Supplier<String> message) {
+            rejections.reject(category, message);
+        }
+
+        @Override
+        public void onError(long lineNumber, String message) {
+            rejections.reject(CSVParser.MALFORMED, CSVParser.errorMessage(lineNumber, message));
+        }
+
+        List<ReviewRecord> drain() {
+            List<ReviewRecord> drained = batch;
+            batch = new ArrayList<>();
+            return drained;
+        }
+    }
+}
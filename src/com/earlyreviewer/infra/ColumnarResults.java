@@ -0,0 +1,634 @@
+package com.earlyreviewer.infra;
+
+import com.earlyreviewer.domain.Reviewer;
+import com.earlyreviewer.metrics.Counter;
+import com.earlyreviewer.metrics.Histogram;
+import com.earlyreviewer.metrics.Metrics;
+import com.earlyreviewer.util.LoggerUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ColumnarResults holds the eight result columns of CSVExporter as typed columns and stores them
+ * in a compact columnar file, so downstream tools load predictions without re-parsing CSV text.
+ *
+ * Layout (little-endian, every column padded to 8 bytes):
+ *   header:   magic "ERCOLS\0\0", int version, int reserved
+ *   columns:  one encoded block per column, in directory order
+ *   footer:   long rowCount, int columnCount, int reserved, then per column
+ *             (int nameLength, UTF-8 name, int type, long offset, long byteLength)
+ *   trailer:  long footerOffset, magic "ERCOLS\0\0"
+ *
+ * Column encodings by type:
+ *   string:     per row varint sharedPrefixLength, varint suffixLength, UTF-8 suffix bytes, the
+ *               prefix being shared with the previous row (compact for sorted IDs)
+ *   int64/32:   per row zigzag varint
+ *   boolean:    long[] bit words, row i in bit (i % 64) of word (i / 64)
+ *   dictionary: varint entryCount, per entry varint (byteLength + 1, 0 for null) and UTF-8 bytes,
+ *               varint bitsPerCode, then codes bit-packed into long[] words like booleans
+ *
+ * Readers locate columns through the footer and ignore columns they do not know.
+ */
+public final class ColumnarResults {
+    private static final Logger logger = LoggerUtil.getLogger(ColumnarResults.class);
+
+    private static final Counter EXPORT_ROWS = Metrics.exportRows("columnar");
+    private static final Counter EXPORT_BYTES = Metrics.exportBytes("columnar");
+    private static final Histogram EXPORT_TIMER = Metrics.stageTimer("export");
+
+    public static final String FILE_EXTENSION = ".ercol";
+    public static final int VERSION = 1;
+    private static final byte[] MAGIC = {'E', 'R', 'C', 'O', 'L', 'S', 0, 0};
+    private static final int TRAILER_BYTES = 16;
+
+    public static final String REVIEWER_ID = "reviewerId";
+    public static final String AVERAGE_TIME = "avgReviewTimeSeconds";
+    public static final String PAST_REVIEWS_COUNT = "pastReviewsCount";
+    public static final String EXPERIENCED = "experienced";
+    public static final String TEAM_FAMILIARITY = "teamFamiliarity";
+    public static final String CONTEXTUAL_KNOWLEDGE = "contextualKnowledge";
+    public static final String EARLY_REVIEWER = "earlyReviewer";
+    public static final String EXPLANATION = "explanation";
+
+    private static final int TYPE_STRING = 1;
+    private static final int TYPE_INT64 = 2;
+    private static final int TYPE_INT32 = 3;
+    private static final int TYPE_BOOLEAN = 4;
+    private static final int TYPE_DICTIONARY = 5;
+
+    private final int rowCount;
+    private final String[] reviewerIds;
+    private final long[] averageTimes;
+    private final int[] pastReviewsCounts;
+    private final BitSet experienced;
+    private final BitSet teamFamiliarity;
+    private final BitSet contextualKnowledge;
+    private final BitSet earlyReviewers;
+    private final String[] explanations;
+    private final int[] explanationCodes;
+
+    private ColumnarResults(int rowCount, String[] reviewerIds, long[] averageTimes, int[] pastReviewsCounts,
+                            BitSet experienced, BitSet teamFamiliarity, BitSet contextualKnowledge,
+                            BitSet earlyReviewers, String[] explanations, int[] explanationCodes) {
+        this.rowCount = rowCount;
+        this.reviewerIds = reviewerIds;
+        this.averageTimes = averageTimes;
+        this.pastReviewsCounts = pastReviewsCounts;
+        this.experienced = experienced;
+        this.teamFamiliarity = teamFamiliarity;
+        this.contextualKnowledge = contextualKnowledge;
+        this.earlyReviewers = earlyReviewers;
+        this.explanations = explanations;
+        this.explanationCodes = explanationCodes;
+    }
+
+    /**
+     * Extracts the result columns of reviewers, one row per reviewer in iteration order.
+     * Average times are truncated to whole seconds as in the CSV export.
+     */
+    public static ColumnarResults of(Collection<Reviewer> reviewers) {
+        int rows = reviewers.size();
+        String[] ids = new String[rows];
+        long[] averages = new long[rows];
+        int[] pastReviews = new int[rows];
+        BitSet experienced = new BitSet(rows);
+        BitSet teamFamiliarity = new BitSet(rows);
+        BitSet contextualKnowledge = new BitSet(rows);
+        BitSet earlyReviewers = new BitSet(rows);
+        Map<String, Integer> dictionary = new HashMap<>();
+        int[] codes = new int[rows];
+
+        int row = 0;
+        for (Reviewer reviewer : reviewers) {
+            ids[row] = reviewer.getReviewerId();
+            averages[row] = (long) reviewer.getAverageTimeToReview();
+            pastReviews[row] = reviewer.getPastReviewsCount();
+            experienced.set(row, reviewer.isExperienced());
+            teamFamiliarity.set(row, reviewer.hasTeamFamiliarity());
+            contextualKnowledge.set(row, reviewer.hasContextualKnowledge());
+            earlyReviewers.set(row, reviewer.isEarlyReviewer());
+            codes[row] = dictionary.computeIfAbsent(reviewer.getExplanation(), explanation -> dictionary.size());
+            row++;
+        }
+
+        String[] explanations = new String[dictionary.size()];
+        for (Map.Entry<String, Integer> entry : dictionary.entrySet()) {
+            explanations[entry.getValue()] = entry.getKey();
+        }
+        return new ColumnarResults(rows, ids, averages, pastReviews, experienced, teamFamiliarity,
+                contextualKnowledge, earlyReviewers, explanations, codes);
+    }
+
+    /**
+     * Writes the columns to a file, replacing any existing content.
+     *
+     * @throws IOException if file cannot be written
+     */
+    public void write(File file) throws IOException {
+        long start = System.nanoTime();
+        String[] names = {REVIEWER_ID, AVERAGE_TIME, PAST_REVIEWS_COUNT, EXPERIENCED, TEAM_FAMILIARITY,
+                CONTEXTUAL_KNOWLEDGE, EARLY_REVIEWER, EXPLANATION};
+        int[] types = {TYPE_STRING, TYPE_INT64, TYPE_INT32, TYPE_BOOLEAN, TYPE_BOOLEAN, TYPE_BOOLEAN, TYPE_BOOLEAN,
+                TYPE_DICTIONARY};
+        Encoder[] columns = {encodeStrings(reviewerIds), encodeLongs(averageTimes), encodeInts(pastReviewsCounts),
+                encodeBits(experienced), encodeBits(teamFamiliarity), encodeBits(contextualKnowledge),
+                encodeBits(earlyReviewers), encodeDictionary(explanations, explanationCodes)};
+
+        Encoder head = new Encoder(16);
+        head.putBytes(MAGIC);
+        head.putInt(VERSION);
+        head.putInt(0);
+
+        Encoder footer = new Encoder(256);
+        footer.putLong(rowCount);
+        footer.putInt(columns.length);
+        footer.putInt(0);
+        long offset = head.size();
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].align();
+            byte[] name = names[i].getBytes(StandardCharsets.UTF_8);
+            footer.putInt(name.length);
+            footer.putBytes(name);
+            footer.putInt(types[i]);
+            footer.putLong(offset);
+            footer.putLong(columns[i].size());
+            offset += columns[i].size();
+        }
+        footer.putLong(offset);
+        footer.putBytes(MAGIC);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            head.writeTo(channel);
+            for (Encoder column : columns) {
+                column.writeTo(channel);
+            }
+            footer.writeTo(channel);
+        }
+        EXPORT_ROWS.add(rowCount);
+        EXPORT_BYTES.add(offset + footer.size());
+        EXPORT_TIMER.recordSince(start);
+
+        logger.log(Level.INFO, "Wrote " + rowCount + " reviewer results in columns to " + file.getAbsolutePath());
+    }
+
+    /**
+     * Reads a file written by write(File).
+     *
+     * @throws IOException if file cannot be read, is not a columnar results file or lacks a column
+     */
+    public static ColumnarResults read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAGIC.length + 8 + TRAILER_BYTES) {
+                throw new IOException("Not a columnar results file: " + file);
+            }
+            Decoder head = new Decoder(readRange(channel, 0, MAGIC.length + 8));
+            Decoder trailer = new Decoder(readRange(channel, size - TRAILER_BYTES, TRAILER_BYTES));
+            long footerOffset = trailer.getLong();
+            if (!head.hasMagic() || !trailer.hasMagic()) {
+                throw new IOException("Not a columnar results file: " + file);
+            }
+            int version = head.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported columnar results version " + version + " in " + file);
+            }
+            if (footerOffset < MAGIC.length + 8 || footerOffset > size - TRAILER_BYTES) {
+                throw new IOException("Corrupt footer offset " + footerOffset + " in " + file);
+            }
+
+            Decoder footer = new Decoder(readRange(channel, footerOffset, size - TRAILER_BYTES - footerOffset));
+            long rowCount = footer.getLong();
+            int columnCount = footer.getInt();
+            footer.getInt();
+            if (rowCount > Integer.MAX_VALUE) {
+                throw new IOException("Columnar results too large to load: " + file);
+            }
+            int rows = (int) rowCount;
+
+            Map<String, Decoder> columns = new HashMap<>();
+            Map<String, Integer> types = new HashMap<>();
+            for (int i = 0; i < columnCount; i++) {
+                String name = footer.getString(footer.getInt());
+                int type = footer.getInt();
+                long offset = footer.getLong();
+                long length = footer.getLong();
+                if (offset < 0 || length < 0 || offset + length > footerOffset) {
+                    throw new IOException("Column " + name + " lies outside the data of " + file);
+                }
+                columns.put(name, new Decoder(readRange(channel, offset, length)));
+                types.put(name, type);
+            }
+
+            ColumnReader in = new ColumnReader(file, columns, types);
+            String[] ids = decodeStrings(in.get(REVIEWER_ID, TYPE_STRING), rows);
+            long[] averages = decodeLongs(in.get(AVERAGE_TIME, TYPE_INT64), rows);
+            int[] pastReviews = decodeInts(in.get(PAST_REVIEWS_COUNT, TYPE_INT32), rows);
+            BitSet experienced = decodeBits(in.get(EXPERIENCED, TYPE_BOOLEAN), rows);
+            BitSet teamFamiliarity = decodeBits(in.get(TEAM_FAMILIARITY, TYPE_BOOLEAN), rows);
+            BitSet contextualKnowledge = decodeBits(in.get(CONTEXTUAL_KNOWLEDGE, TYPE_BOOLEAN), rows);
+            BitSet earlyReviewers = decodeBits(in.get(EARLY_REVIEWER, TYPE_BOOLEAN), rows);
+            Decoder explanationColumn = in.get(EXPLANATION, TYPE_DICTIONARY);
+            String[] explanations = decodeDictionaryEntries(explanationColumn);
+            int[] codes = decodeCodes(explanationColumn, rows);
+            for (int code : codes) {
+                if (code >= explanations.length) {
+                    throw new IOException("Explanation code " + code + " outside dictionary in " + file);
+                }
+            }
+
+            logger.log(Level.INFO, "Loaded " + rows + " reviewer results from " + file.getAbsolutePath());
+            return new ColumnarResults(rows, ids, averages, pastReviews, experienced, teamFamiliarity,
+                    contextualKnowledge, earlyReviewers, explanations, codes);
+        } catch (IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IOException("Truncated column in " + file, e);
+        }
+    }
+
+    private static byte[] readRange(FileChannel channel, long position, long length) throws IOException {
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IOException("Column of " + length + " bytes too large to load");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated columnar results at byte " + (position + buffer.position()));
+            }
+        }
+        return buffer.array();
+    }
+
+    // Getters
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public String getReviewerId(int row) {
+        return reviewerIds[row];
+    }
+
+    /**
+     * Average time-to-review in whole seconds.
+     */
+    public long getAverageTimeSeconds(int row) {
+        return averageTimes[row];
+    }
+
+    public int getPastReviewsCount(int row) {
+        return pastReviewsCounts[row];
+    }
+
+    public boolean isExperienced(int row) {
+        return experienced.get(row);
+    }
+
+    public boolean hasTeamFamiliarity(int row) {
+        return teamFamiliarity.get(row);
+    }
+
+    public boolean hasContextualKnowledge(int row) {
+        return contextualKnowledge.get(row);
+    }
+
+    public boolean isEarlyReviewer(int row) {
+        return earlyReviewers.get(row);
+    }
+
+    public String getExplanation(int row) {
+        return explanations[explanationCodes[row]];
+    }
+
+    private static Encoder encodeStrings(String[] values) {
+        Encoder out = new Encoder(values.length * 4 + 16);
+        byte[] previous = new byte[0];
+        for (String value : values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            int shared = 0;
+            int limit = Math.min(previous.length, bytes.length);
+            while (shared < limit && previous[shared] == bytes[shared]) {
+                shared++;
+            }
+            out.putVarLong(shared);
+            out.putVarLong(bytes.length - shared);
+            out.putBytes(bytes, shared, bytes.length - shared);
+            previous = bytes;
+        }
+        return out;
+    }
+
+    private static String[] decodeStrings(Decoder in, int rows) {
+        String[] values = new String[rows];
+        byte[] current = new byte[64];
+        for (int row = 0; row < rows; row++) {
+            int shared = (int) in.getVarLong();
+            int suffix = (int) in.getVarLong();
+            if (current.length < shared + suffix) {
+                current = Arrays.copyOf(current, Math.max(current.length * 2, shared + suffix));
+            }
+            in.getBytes(current, shared, suffix);
+            values[row] = new String(current, 0, shared + suffix, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    private static Encoder encodeLongs(long[] values) {
+        Encoder out = new Encoder(values.length * 3 + 16);
+        for (long value : values) {
+            out.putVarLong((value << 1) ^ (value >> 63));
+        }
+        return out;
+    }
+
+    private static long[] decodeLongs(Decoder in, int rows) {
+        long[] values = new long[rows];
+        for (int row = 0; row < rows; row++) {
+            long zigzag = in.getVarLong();
+            values[row] = (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+        return values;
+    }
+
+    private static Encoder encodeInts(int[] values) {
+        Encoder out = new Encoder(values.length * 2 + 16);
+        for (int value : values) {
+            out.putVarLong(((long) value << 1) ^ ((long) value >> 63));
+        }
+        return out;
+    }
+
+    private static int[] decodeInts(Decoder in, int rows) {
+        int[] values = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            long zigzag = in.getVarLong();
+            values[row] = (int) ((zigzag >>> 1) ^ -(zigzag & 1));
+        }
+        return values;
+    }
+
+    private static Encoder encodeBits(BitSet bits) {
+        Encoder out = new Encoder(bits.length() / 8 + 16);
+        for (long word : bits.toLongArray()) {
+            out.putLong(word);
+        }
+        return out;
+    }
+
+    private static BitSet decodeBits(Decoder in, int rows) {
+        long[] words = new long[Math.min(wordCount(rows), in.remaining() / 8)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.getLong();
+        }
+        return BitSet.valueOf(words);
+    }
+
+    private static Encoder encodeDictionary(String[] entries, int[] codes) {
+        Encoder out = new Encoder(codes.length / 2 + 64);
+        out.putVarLong(entries.length);
+        for (String entry : entries) {
+            if (entry == null) {
+                out.putVarLong(0);
+            } else {
+                byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+                out.putVarLong(bytes.length + 1L);
+                out.putBytes(bytes, 0, bytes.length);
+            }
+        }
+        int bitsPerCode = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(entries.length - 1, 0)));
+        out.putVarLong(bitsPerCode);
+        out.align();
+        long[] words = new long[wordCount((long) codes.length * bitsPerCode)];
+        for (int row = 0; row < codes.length; row++) {
+            long bit = (long) row * bitsPerCode;
+            int word = (int) (bit >>> 6);
+            int shift = (int) (bit & 63);
+            words[word] |= (long) codes[row] << shift;
+            if (shift + bitsPerCode > 64) {
+                words[word + 1] |= (long) codes[row] >>> (64 - shift);
+            }
+        }
+        for (long word : words) {
+            out.putLong(word);
+        }
+        return out;
+    }
+
+    private static String[] decodeDictionaryEntries(Decoder in) throws IOException {
+        long count = in.getVarLong();
+        // Every entry takes at least one byte
+        if (count < 0 || count > in.remaining()) {
+            throw new IOException("Invalid dictionary size " + count);
+        }
+        String[] entries = new String[(int) count];
+        for (int i = 0; i < entries.length; i++) {
+            int length = (int) in.getVarLong();
+            entries[i] = length == 0 ? null : in.getString(length - 1);
+        }
+        return entries;
+    }
+
+    private static int[] decodeCodes(Decoder in, int rows) throws IOException {
+        int bitsPerCode = (int) in.getVarLong();
+        if (bitsPerCode < 1 || bitsPerCode > 31) {
+            throw new IOException("Invalid dictionary code width " + bitsPerCode);
+        }
+        in.align();
+        long[] words = new long[wordCount((long) rows * bitsPerCode)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.getLong();
+        }
+        long mask = (1L << bitsPerCode) - 1;
+        int[] codes = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            long bit = (long) row * bitsPerCode;
+            int word = (int) (bit >>> 6);
+            int shift = (int) (bit & 63);
+            long value = words[word] >>> shift;
+            if (shift + bitsPerCode > 64) {
+                value |= words[word + 1] << (64 - shift);
+            }
+            codes[row] = (int) (value & mask);
+        }
+        return codes;
+    }
+
+    private static int wordCount(long bits) {
+        return (int) ((bits + 63) / 64);
+    }
+
+    /**
+     * Looks up required columns and checks their types.
+     */
+    private static class ColumnReader {
+        private final File file;
+        private final Map<String, Decoder> columns;
+        private final Map<String, Integer> types;
+
+        ColumnReader(File file, Map<String, Decoder> columns, Map<String, Integer> types) {
+            this.file = file;
+            this.columns = columns;
+            this.types = types;
+        }
+
+        Decoder get(String name, int type) throws IOException {
+            Decoder column = columns.get(name);
+            if (column == null) {
+                throw new IOException("Missing column " + name + " in " + file);
+            }
+            if (types.get(name) != type) {
+                throw new IOException("Column " + name + " has type " + types.get(name) + " instead of " + type +
+                        " in " + file);
+            }
+            return column;
+        }
+    }
+
+    /**
+     * Growable little-endian byte buffer that a column or the footer is encoded into.
+     */
+    private static class Encoder {
+        private ByteBuffer buffer;
+
+        Encoder(int capacity) {
+            this.buffer = ByteBuffer.allocate(Math.max(capacity, 16)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void putInt(int value) {
+            ensure(4).putInt(value);
+        }
+
+        void putLong(long value) {
+            ensure(8).putLong(value);
+        }
+
+        void putBytes(byte[] bytes) {
+            putBytes(bytes, 0, bytes.length);
+        }
+
+        void putBytes(byte[] bytes, int offset, int length) {
+            ensure(length).put(bytes, offset, length);
+        }
+
+        /**
+         * Writes an unsigned LEB128 varint, 7 bits per byte, least significant group first.
+         */
+        void putVarLong(long value) {
+            ByteBuffer out = ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                out.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.put((byte) value);
+        }
+
+        void align() {
+            ByteBuffer out = ensure(8);
+            while ((out.position() & 7) != 0) {
+                out.put((byte) 0);
+            }
+        }
+
+        int size() {
+            return buffer.position();
+        }
+
+        private ByteBuffer ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes))
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+            return buffer;
+        }
+
+        void writeTo(FileChannel channel) throws IOException {
+            ByteBuffer data = buffer.duplicate();
+            data.flip();
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+    }
+
+    /**
+     * Little-endian reader over one column's bytes; reading past the end throws
+     * IndexOutOfBoundsException, which read reports as a truncated file.
+     */
+    private static class Decoder {
+        private final byte[] data;
+        private final ByteBuffer buffer;
+        private int position;
+
+        Decoder(byte[] data) {
+            this.data = data;
+            this.buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+            this.position = 0;
+        }
+
+        boolean hasMagic() {
+            byte[] magic = Arrays.copyOfRange(data, position, position + MAGIC.length);
+            position += MAGIC.length;
+            return Arrays.equals(magic, MAGIC);
+        }
+
+        int getInt() {
+            int value = buffer.getInt(position);
+            position += 4;
+            return value;
+        }
+
+        long getLong() {
+            long value = buffer.getLong(position);
+            position += 8;
+            return value;
+        }
+
+        long getVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0 && shift < 64);
+            return value;
+        }
+
+        void getBytes(byte[] dst, int offset, int length) {
+            System.arraycopy(data, position, dst, offset, length);
+            position += length;
+        }
+
+        String getString(int length) {
+            if (length < 0 || length > data.length - position) {
+                throw new IndexOutOfBoundsException("String of " + length + " bytes at " + position);
+            }
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        void align() {
+            position = (position + 7) & ~7;
+        }
+
+        int remaining() {
+            return data.length - position;
+        }
+    }
+}
@@ -1,58 +1,266 @@
 package com.earlyreviewer.infra;
 
+import com.earlyreviewer.domain.LatencyHistogram;
 import com.earlyreviewer.domain.Reviewer;
+import com.earlyreviewer.domain.ReviewerFeatures;
+import com.earlyreviewer.domain.WindowedStats;
+import com.earlyreviewer.metrics.Counter;
+import com.earlyreviewer.metrics.Metrics;
 import com.earlyreviewer.util.LoggerUtil;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * PredictionEngine applies rule-based logic to determine if a reviewer is an "early reviewer".
  * Rules are applied in order; first matching rule determines the prediction.
+ * Rules come from PredictionRules: the built-in defaults, or a rules file named by the
+ * earlyreviewer.rules system property or installed with setRules.
  */
 public class PredictionEngine {
     private static final Logger logger = LoggerUtil.getLogger(PredictionEngine.class);
 
-    // Thresholds
-    private static final int EXPERIENCE_THRESHOLD = 5;
-    private static final double SIGNIFICANTLY_FASTER_MULTIPLIER = 0.85; // 15% faster
+    public static final String RULES_PROPERTY = "earlyreviewer.rules";
+
+    private static volatile PredictionRules rules = initialRules();
+    private static volatile RuleCounters ruleCounters;
+
+    /**
+     * Prediction counters of one rule set, indexed by rule ID and labelled by rule name.
+     */
+    private static final class RuleCounters {
+        final PredictionRules rules;
+        final Counter[] counters;
+
+        RuleCounters(PredictionRules rules) {
+            this.rules = rules;
+            this.counters = new Counter[rules.size() + 1];
+            for (int ruleId = 0; ruleId < counters.length; ruleId++) {
+                counters[ruleId] = Metrics.counter("earlyreviewer_predictions_total",
+                        "Predictions made, by the rule that decided them", "rule", rules.getName(ruleId));
+            }
+        }
+    }
 
     /**
      * Predicts early reviewer status based on rules.
-     * Rules (in order):
-     * 1. If avgTime < globalAvg AND experienced -> EARLY_REVIEWER
-     * 2. Else if avgTime < (globalAvg * 0.85) AND (familiar OR contextual knowledge) -> EARLY_REVIEWER
-     * 3. Else -> NOT_EARLY_REVIEWER
+     * Default rules (in order):
+     * 1. If no valid records -> NOT_EARLY_REVIEWER (insufficient data)
+     * 2. If avgTime < globalAvg AND pastReviewsCount >= 5 -> EARLY_REVIEWER
+     * 3. Else if avgTime < (globalAvg * 0.85) AND (familiar OR contextual knowledge) -> EARLY_REVIEWER
+     * 4. Else -> NOT_EARLY_REVIEWER
      *
      * @param reviewer The reviewer to predict
      * @param globalAverageTime The global average review time
      */
     public static void predict(Reviewer reviewer, double globalAverageTime) {
-        // Check if reviewer has valid data
-        if (reviewer.getValidRecordCount() == 0) {
-            reviewer.setEarlyReviewer(false);
-            reviewer.setExplanation("Insufficient data.");
-            return;
+        predict(reviewer, globalAverageTime, null, null);
+    }
+
+    /**
+     * Predicts early reviewer status, also making the global percentiles and windowed averages
+     * available to rules.
+     *
+     * @param reviewer The reviewer to predict
+     * @param globalAverageTime The global average review time
+     * @param globalLatency Latency histogram over all valid records, or null if unavailable
+     * @param globalWindow Windowed statistics over all valid records, or null if unavailable
+     */
+    public static void predict(Reviewer reviewer, double globalAverageTime, LatencyHistogram globalLatency,
+                               WindowedStats globalWindow) {
+        Run run = start(globalAverageTime, globalLatency, globalWindow);
+        run.predict(reviewer);
+        run.finish();
+    }
+
+    /**
+     * Starts a prediction run for reviewers predicted one at a time against the same global values,
+     * e.g. while re-predicting the reviewers of an analysis.
+     *
+     * @param globalAverageTime The global average review time
+     * @param globalLatency Latency histogram over all valid records, or null if unavailable
+     * @param globalWindow Windowed statistics over all valid records, or null if unavailable
+     */
+    public static Run start(double globalAverageTime, LatencyHistogram globalLatency, WindowedStats globalWindow) {
+        return new Run(rules, globalAverageTime, globalLatency, globalWindow);
+    }
+
+    /**
+     * A prediction run with the rules active when it started. The rule context is filled with the
+     * global values once and reused for each reviewer, and rule matches are counted locally and
+     * published by finish. Not thread-safe.
+     */
+    public static final class Run {
+        private final PredictionRules rules;
+        private final RuleContext context;
+        private final int[] matches;
+
+        private Run(PredictionRules rules, double globalAverageTime, LatencyHistogram globalLatency,
+                    WindowedStats globalWindow) {
+            this.rules = rules;
+            this.context = new RuleContext().global(globalAverageTime, globalLatency, globalWindow);
+            this.matches = new int[rules.size() + 1];
+        }
+
+        /**
+         * Predicts early reviewer status of a reviewer whose statistics have been computed.
+         */
+        public void predict(Reviewer reviewer) {
+            int ruleId = rules.evaluate(context.load(reviewer));
+            reviewer.setEarlyReviewer(rules.isEarly(ruleId));
+            reviewer.setExplanation(rules.getExplanation(ruleId));
+            matches[ruleId]++;
+        }
+
+        /**
+         * Publishes the rule matches counted so far to the prediction counters.
+         */
+        public void finish() {
+            Counter[] counters = countersFor(rules);
+            for (int ruleId = 0; ruleId < matches.length; ruleId++) {
+                if (matches[ruleId] > 0) {
+                    counters[ruleId].add(matches[ruleId]);
+                    matches[ruleId] = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Predicts a whole batch of reviewers given as struct-of-arrays features.
+     * Runs the compiled rules over the primitive columns in one loop with a single reused context,
+     * writing bit i of earlyBits (bit-packed, 64 reviewers per word) and ruleIds[i] for reviewer i.
+     * Results are identical to calling predict on the corresponding Reviewer objects.
+     *
+     * @param features Reviewer features
+     * @param globalAverageTime The global average review time
+     * @param globalLatency Latency histogram over all valid records, or null if unavailable
+     * @param globalWindow Windowed statistics over all valid records, or null if unavailable
+     * @param earlyBits Output of at least (size + 63) / 64 words; set bits mark early reviewers
+     * @param ruleIds Output of at least size entries; the matching rule, or rules.size() for the default
+     * @return The rule set used, for mapping rule IDs to explanations
+     */
+    public static PredictionRules predictBatch(ReviewerFeatures features, double globalAverageTime,
+                                               LatencyHistogram globalLatency, WindowedStats globalWindow,
+                                               long[] earlyBits, int[] ruleIds) {
+        PredictionRules current = rules;
+        RuleContext context = new RuleContext().global(globalAverageTime, globalLatency, globalWindow);
+
+        // Outcome per rule ID, looked up instead of branching on the matched rule
+        long[] earlyByRule = new long[current.size() + 1];
+        for (int rule = 0; rule <= current.size(); rule++) {
+            earlyByRule[rule] = current.isEarly(rule) ? 1L : 0L;
         }
 
-        double avgTime = reviewer.getAverageTimeToReview();
+        int size = features.size();
+        int[] matches = new int[current.size() + 1];
+        for (int word = 0; word < (size + 63) / 64; word++) {
+            long bits = 0;
+            int base = word << 6;
+            int end = Math.min(base + 64, size);
+            for (int i = base; i < end; i++) {
+                int ruleId = current.evaluate(context.load(features, i));
+                ruleIds[i] = ruleId;
+                matches[ruleId]++;
+                bits |= earlyByRule[ruleId] << (i - base);
+            }
+            earlyBits[word] = bits;
+        }
 
-        // Rule 1: Faster than global average AND experienced
-        if (avgTime < globalAverageTime && reviewer.isExperienced()) {
-            reviewer.setEarlyReviewer(true);
-            reviewer.setExplanation("Faster than global average and experienced.");
-            return;
+        Counter[] counters = countersFor(current);
+        for (int ruleId = 0; ruleId < matches.length; ruleId++) {
+            counters[ruleId].add(matches[ruleId]);
         }
+        return current;
+    }
+
+    /**
+     * Applies a batch result for one reviewer, as produced by predictBatch.
+     */
+    public static void apply(Reviewer reviewer, PredictionRules usedRules, int ruleId) {
+        reviewer.setEarlyReviewer(usedRules.isEarly(ruleId));
+        reviewer.setExplanation(usedRules.getExplanation(ruleId));
+    }
+
+    /**
+     * Returns the active rule set.
+     */
+    public static PredictionRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Replaces the active rule set; subsequent predictions use the new rules.
+     */
+    public static void setRules(PredictionRules newRules) {
+        rules = newRules;
+        logger.log(Level.INFO, "Installed " + newRules.size() + " prediction rules");
+    }
+
+    /**
+     * Loads a rules file and makes it the active rule set.
+     *
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a rule is malformed
+     */
+    public static void loadRules(File file) throws IOException {
+        setRules(PredictionRules.load(file));
+    }
 
-        // Rule 2: Significantly faster AND (familiar OR contextual knowledge)
-        if (avgTime < (globalAverageTime * SIGNIFICANTLY_FASTER_MULTIPLIER) &&
-                (reviewer.hasTeamFamiliarity() || reviewer.hasContextualKnowledge())) {
-            reviewer.setEarlyReviewer(true);
-            reviewer.setExplanation("Significantly faster and familiar with code/context.");
-            return;
+    /**
+     * Returns true if the active rules read global percentiles or windowed averages, which may
+     * change with any new record.
+     */
+    public static boolean usesGlobalAggregates() {
+        return rules.usesGlobalAggregates();
+    }
+
+    /**
+     * Returns true if the active rules read a reviewer's sliding-window statistics, which change
+     * as the window advances even without new records for that reviewer.
+     */
+    public static boolean usesWindow() {
+        return rules.usesWindow();
+    }
+
+    /**
+     * Returns true if the active rules read a reviewer's windowed or decayed statistics, so
+     * aggregates must keep them per reviewer.
+     */
+    public static boolean usesReviewerRecency() {
+        return rules.usesReviewerRecency();
+    }
+
+    /**
+     * Returns the multiples of the global average that rules compare avgTime against, or null if
+     * the rules use the global average in other ways.
+     * A reviewer's prediction can only change with the global average if its avgTime lies between
+     * the old and new value of one of these bounds; incremental analysis relies on this.
+     */
+    public static double[] getGlobalAverageMultipliers() {
+        return rules.getGlobalAverageMultipliers();
+    }
+
+    private static Counter[] countersFor(PredictionRules current) {
+        RuleCounters cached = ruleCounters;
+        if (cached == null || cached.rules != current) {
+            cached = new RuleCounters(current);
+            ruleCounters = cached;
         }
+        return cached.counters;
+    }
 
-        // Rule 3: No rule matched
-        reviewer.setEarlyReviewer(false);
-        reviewer.setExplanation("No early-review rule matched.");
+    private static PredictionRules initialRules() {
+        String path = System.getProperty(RULES_PROPERTY);
+        if (path != null) {
+            try {
+                return PredictionRules.load(new File(path));
+            } catch (IOException | IllegalArgumentException e) {
+                logger.log(Level.SEVERE, "Failed to load prediction rules from " + path + ", using defaults", e);
+            }
+        }
+        return PredictionRules.defaults();
     }
 }
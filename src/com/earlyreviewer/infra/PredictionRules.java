@@ -0,0 +1,592 @@
+package com.earlyreviewer.infra;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * PredictionRules is an ordered, compiled set of early-reviewer rules loaded from configuration.
+ * Each rule's condition is parsed once and compiled into a tree of lambdas over RuleContext, so
+ * evaluation is plain field reads and comparisons with no per-reviewer interpretation.
+ * The first matching rule determines the prediction and explanation; if none matches, the
+ * default outcome applies.
+ *
+ * Configuration (properties format), rules ordered by N:
+ *   rule.N.when        condition, e.g. avgTime < globalAverage * 0.85 && (teamFamiliarity || contextualKnowledge)
+ *   rule.N.early       true/false
+ *   rule.N.explanation text reported for reviewers matched by the rule
+ *   default.early, default.explanation
+ *
+ * Conditions support numeric variables avgTime, globalAverage, pastReviewsCount, validCount,
+ * the reviewer's p50Time, p90Time, p99Time and the global globalP50Time, globalP90Time,
+ * globalP99Time (approximate percentiles of time-to-review in seconds); the recency-weighted
+ * windowAvgTime and windowCount (sliding window, see StatsWindow), decayedAvgTime and the global
+ * globalWindowAverage and globalDecayedAverage; boolean variables experienced, teamFamiliarity,
+ * contextualKnowledge, true, false; numeric literals; arithmetic + - * /; comparisons
+ * < <= > >= == !=; and !, &&, || with parentheses for grouping conditions.
+ */
+public class PredictionRules {
+    static final String DEFAULT_RULES =
+            "rule.1.when = validCount == 0\n" +
+            "rule.1.early = false\n" +
+            "rule.1.explanation = Insufficient data.\n" +
+            "rule.2.when = avgTime < globalAverage && pastReviewsCount >= 5\n" +
+            "rule.2.early = true\n" +
+            "rule.2.explanation = Faster than global average and experienced.\n" +
+            "rule.3.when = avgTime < globalAverage * 0.85 && (teamFamiliarity || contextualKnowledge)\n" +
+            "rule.3.early = true\n" +
+            "rule.3.explanation = Significantly faster and familiar with code/context.\n" +
+            "default.early = false\n" +
+            "default.explanation = No early-review rule matched.\n";
+
+    private static final String DEFAULT_EXPLANATION = "No early-review rule matched.";
+
+    /**
+     * A compiled rule condition.
+     */
+    interface Condition {
+        boolean test(RuleContext context);
+    }
+
+    /**
+     * A compiled numeric expression.
+     */
+    interface NumericExpression {
+        double eval(RuleContext context);
+    }
+
+    private final Condition[] conditions;
+    private final String[] sources;
+    private final String[] names;
+    private final boolean[] early;
+    private final String[] explanations;
+    private final double[] globalAverageMultipliers;
+    private final boolean globalAggregates;
+    private final boolean window;
+    private final boolean reviewerRecency;
+
+    private PredictionRules(Condition[] conditions, String[] sources, String[] names, boolean[] early,
+                            String[] explanations, double[] globalAverageMultipliers, boolean globalAggregates,
+                            boolean window, boolean reviewerRecency) {
+        this.conditions = conditions;
+        this.sources = sources;
+        this.names = names;
+        this.early = early;
+        this.explanations = explanations;
+        this.globalAverageMultipliers = globalAverageMultipliers;
+        this.globalAggregates = globalAggregates;
+        this.window = window;
+        this.reviewerRecency = reviewerRecency;
+    }
+
+    /**
+     * Returns the built-in rules, equivalent to the original hardcoded PredictionEngine logic.
+     */
+    public static PredictionRules defaults() {
+        try {
+            return parse(new StringReader(DEFAULT_RULES));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read built-in rules", e);
+        }
+    }
+
+    /**
+     * Loads and compiles rules from a properties file.
+     *
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a rule is malformed
+     */
+    public static PredictionRules load(File file) throws IOException {
+        try (Reader reader = new FileReader(file)) {
+            return parse(reader);
+        }
+    }
+
+    /**
+     * Parses and compiles rules in properties format.
+     *
+     * @throws IOException if the reader fails
+     * @throws IllegalArgumentException if a rule is malformed
+     */
+    public static PredictionRules parse(Reader reader) throws IOException {
+        Properties properties = new Properties();
+        properties.load(reader);
+
+        TreeMap<Integer, String> conditionsByIndex = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith("rule.") && key.endsWith(".when")) {
+                String index = key.substring("rule.".length(), key.length() - ".when".length());
+                try {
+                    conditionsByIndex.put(Integer.parseInt(index), properties.getProperty(key));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid rule number in key '" + key + "'");
+                }
+            }
+        }
+
+        int count = conditionsByIndex.size();
+        Condition[] conditions = new Condition[count];
+        String[] sources = new String[count + 1];
+        String[] names = new String[count + 1];
+        boolean[] early = new boolean[count + 1];
+        String[] explanations = new String[count + 1];
+        Compiler compiler = new Compiler();
+
+        int i = 0;
+        for (int index : conditionsByIndex.keySet()) {
+            String prefix = "rule." + index + ".";
+            String source = conditionsByIndex.get(index).trim();
+            try {
+                conditions[i] = compiler.compile(source);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid condition for " + prefix + "when: " + e.getMessage());
+            }
+            sources[i] = source;
+            names[i] = "rule." + index;
+            early[i] = parseFlag(properties, prefix + "early");
+            explanations[i] = properties.getProperty(prefix + "explanation", "").trim();
+            i++;
+        }
+        sources[count] = "default";
+        names[count] = "default";
+        early[count] = parseFlag(properties, "default.early");
+        explanations[count] = properties.getProperty("default.explanation", DEFAULT_EXPLANATION).trim();
+
+        return new PredictionRules(conditions, sources, names, early, explanations,
+                compiler.globalAverageMultipliers(), compiler.globalAggregates, compiler.window,
+                compiler.reviewerRecency);
+    }
+
+    private static boolean parseFlag(Properties properties, String key) {
+        String value = properties.getProperty(key, "false").trim();
+        if (value.equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (value.equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw new IllegalArgumentException("Expected true or false for " + key + " but was '" + value + "'");
+    }
+
+    /**
+     * Returns the index of the first matching rule, or size() if none matched (the default outcome).
+     */
+    int evaluate(RuleContext context) {
+        Condition[] rules = conditions;
+        for (int i = 0; i < rules.length; i++) {
+            if (rules[i].test(context)) {
+                return i;
+            }
+        }
+        return rules.length;
+    }
+
+    /**
+     * Number of configured rules, which is also the rule ID of the default outcome.
+     */
+    public int size() {
+        return conditions.length;
+    }
+
+    public boolean isEarly(int ruleId) {
+        return early[ruleId];
+    }
+
+    public String getExplanation(int ruleId) {
+        return explanations[ruleId];
+    }
+
+    /**
+     * Source text of a rule's condition, or "default" for the default outcome.
+     */
+    public String getCondition(int ruleId) {
+        return sources[ruleId];
+    }
+
+    /**
+     * Configuration name of a rule, e.g. "rule.2", or "default" for the default outcome.
+     */
+    public String getName(int ruleId) {
+        return names[ruleId];
+    }
+
+    /**
+     * Returns true if any condition reads a global percentile or windowed/decayed average. These
+     * are not bounded like globalAverage, so such rules need every reviewer re-predicted on updates.
+     */
+    public boolean usesGlobalAggregates() {
+        return globalAggregates;
+    }
+
+    /**
+     * Returns true if any condition reads windowAvgTime or windowCount, which change for every
+     * reviewer when the sliding window advances.
+     */
+    public boolean usesWindow() {
+        return window;
+    }
+
+    /**
+     * Returns true if any condition reads a reviewer's windowed or decayed statistics
+     * (windowAvgTime, windowCount or decayedAvgTime).
+     */
+    public boolean usesReviewerRecency() {
+        return reviewerRecency;
+    }
+
+    /**
+     * Returns the multiples k of globalAverage that avgTime is compared against, or null if
+     * globalAverage is used in any other way. In the first case a reviewer's outcome can only
+     * change with the global average when its avgTime lies between the old and new k * globalAverage.
+     */
+    public double[] getGlobalAverageMultipliers() {
+        return globalAverageMultipliers == null ? null : globalAverageMultipliers.clone();
+    }
+
+    /**
+     * Recursive-descent compiler from condition text to lambdas.
+     * Also records how globalAverage is used across all compiled conditions.
+     */
+    private static class Compiler {
+        private final TreeSet<Double> multipliers = new TreeSet<>();
+        private boolean unboundedGlobalUse = false;
+        private boolean globalAggregates = false;
+        private boolean window = false;
+        private boolean reviewerRecency = false;
+        private List<String> tokens;
+        private int pos;
+
+        double[] globalAverageMultipliers() {
+            if (unboundedGlobalUse) {
+                return null;
+            }
+            double[] result = new double[multipliers.size()];
+            int i = 0;
+            for (double multiplier : multipliers) {
+                result[i++] = multiplier;
+            }
+            return result;
+        }
+
+        Condition compile(String source) {
+            tokens = tokenize(source);
+            pos = 0;
+            Condition condition = parseOr();
+            if (pos != tokens.size()) {
+                throw new IllegalArgumentException("Unexpected '" + tokens.get(pos) + "'");
+            }
+            return condition;
+        }
+
+        private Condition parseOr() {
+            Condition left = parseAnd();
+            while (accept("||")) {
+                Condition a = left;
+                Condition b = parseAnd();
+                left = c -> a.test(c) || b.test(c);
+            }
+            return left;
+        }
+
+        private Condition parseAnd() {
+            Condition left = parseUnary();
+            while (accept("&&")) {
+                Condition a = left;
+                Condition b = parseUnary();
+                left = c -> a.test(c) && b.test(c);
+            }
+            return left;
+        }
+
+        private Condition parseUnary() {
+            if (accept("!")) {
+                Condition operand = parseUnary();
+                return c -> !operand.test(c);
+            }
+            if (accept("(")) {
+                Condition inner = parseOr();
+                expect(")");
+                return inner;
+            }
+
+            String token = peek();
+            switch (token) {
+                case "true":
+                    pos++;
+                    return c -> true;
+                case "false":
+                    pos++;
+                    return c -> false;
+                case "experienced":
+                    pos++;
+                    return c -> c.experienced;
+                case "teamFamiliarity":
+                    pos++;
+                    return c -> c.teamFamiliarity;
+                case "contextualKnowledge":
+                    pos++;
+                    return c -> c.contextualKnowledge;
+                default:
+                    return parseComparison();
+            }
+        }
+
+        private Condition parseComparison() {
+            Numeric left = parseSum();
+            String op = next();
+            Numeric right = parseSum();
+
+            if (left.avgTime && right.globalMultiplier != null) {
+                multipliers.add(right.globalMultiplier);
+            } else if (right.avgTime && left.globalMultiplier != null) {
+                multipliers.add(left.globalMultiplier);
+            } else if (left.usesGlobal || right.usesGlobal) {
+                unboundedGlobalUse = true;
+            }
+
+            NumericExpression l = left.expression;
+            if (right.constant != null) {
+                double k = right.constant;
+                switch (op) {
+                    case "<": return c -> l.eval(c) < k;
+                    case "<=": return c -> l.eval(c) <= k;
+                    case ">": return c -> l.eval(c) > k;
+                    case ">=": return c -> l.eval(c) >= k;
+                    case "==": return c -> l.eval(c) == k;
+                    case "!=": return c -> l.eval(c) != k;
+                    default: throw new IllegalArgumentException("Expected comparison operator but found '" + op + "'");
+                }
+            }
+            NumericExpression r = right.expression;
+            switch (op) {
+                case "<": return c -> l.eval(c) < r.eval(c);
+                case "<=": return c -> l.eval(c) <= r.eval(c);
+                case ">": return c -> l.eval(c) > r.eval(c);
+                case ">=": return c -> l.eval(c) >= r.eval(c);
+                case "==": return c -> l.eval(c) == r.eval(c);
+                case "!=": return c -> l.eval(c) != r.eval(c);
+                default: throw new IllegalArgumentException("Expected comparison operator but found '" + op + "'");
+            }
+        }
+
+        private Numeric parseSum() {
+            Numeric left = parseProduct();
+            while (peek().equals("+") || peek().equals("-")) {
+                String op = next();
+                Numeric right = parseProduct();
+                left = op.equals("+") ? Numeric.add(left, right) : Numeric.subtract(left, right);
+            }
+            return left;
+        }
+
+        private Numeric parseProduct() {
+            Numeric left = parseTerm();
+            while (peek().equals("*") || peek().equals("/")) {
+                String op = next();
+                Numeric right = parseTerm();
+                left = op.equals("*") ? Numeric.multiply(left, right) : Numeric.divide(left, right);
+            }
+            return left;
+        }
+
+        private Numeric parseTerm() {
+            String token = next();
+            switch (token) {
+                case "avgTime":
+                    return new Numeric(c -> c.avgTime, null, true, null, false);
+                case "globalAverage":
+                    return new Numeric(c -> c.globalAverage, null, false, 1.0, true);
+                case "pastReviewsCount":
+                    return new Numeric(c -> c.pastReviewsCount, null, false, null, false);
+                case "validCount":
+                    return new Numeric(c -> c.validCount, null, false, null, false);
+                case "p50Time":
+                    return new Numeric(c -> c.p50Time, null, false, null, false);
+                case "p90Time":
+                    return new Numeric(c -> c.p90Time, null, false, null, false);
+                case "p99Time":
+                    return new Numeric(c -> c.p99Time, null, false, null, false);
+                case "windowAvgTime":
+                    window = true;
+                    reviewerRecency = true;
+                    return new Numeric(c -> c.windowAvgTime, null, false, null, false);
+                case "windowCount":
+                    window = true;
+                    reviewerRecency = true;
+                    return new Numeric(c -> c.windowCount, null, false, null, false);
+                case "decayedAvgTime":
+                    reviewerRecency = true;
+                    return new Numeric(c -> c.decayedAvgTime, null, false, null, false);
+                case "globalP50Time":
+                    globalAggregates = true;
+                    return new Numeric(c -> c.globalP50Time, null, false, null, false);
+                case "globalP90Time":
+                    globalAggregates = true;
+                    return new Numeric(c -> c.globalP90Time, null, false, null, false);
+                case "globalP99Time":
+                    globalAggregates = true;
+                    return new Numeric(c -> c.globalP99Time, null, false, null, false);
+                case "globalWindowAverage":
+                    globalAggregates = true;
+                    return new Numeric(c -> c.globalWindowAverage, null, false, null, false);
+                case "globalDecayedAverage":
+                    globalAggregates = true;
+                    return new Numeric(c -> c.globalDecayedAverage, null, false, null, false);
+                case "-":
+                    return Numeric.subtract(Numeric.constant(0.0), parseTerm());
+                default:
+                    try {
+                        return Numeric.constant(Double.parseDouble(token));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Unknown value '" + token + "'");
+                    }
+            }
+        }
+
+        private boolean accept(String token) {
+            if (peek().equals(token)) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String token) {
+            if (!accept(token)) {
+                throw new IllegalArgumentException("Expected '" + token + "' but found '" + peek() + "'");
+            }
+        }
+
+        private String peek() {
+            return pos < tokens.size() ? tokens.get(pos) : "";
+        }
+
+        private String next() {
+            if (pos >= tokens.size()) {
+                throw new IllegalArgumentException("Unexpected end of condition");
+            }
+            return tokens.get(pos++);
+        }
+
+        private static List<String> tokenize(String source) {
+            List<String> tokens = new ArrayList<>();
+            int i = 0;
+            while (i < source.length()) {
+                char ch = source.charAt(i);
+                if (Character.isWhitespace(ch)) {
+                    i++;
+                } else if (Character.isLetter(ch) || ch == '_') {
+                    int start = i;
+                    while (i < source.length() && (Character.isLetterOrDigit(source.charAt(i)) || source.charAt(i) == '_')) {
+                        i++;
+                    }
+                    tokens.add(source.substring(start, i));
+                } else if (Character.isDigit(ch) || ch == '.') {
+                    int start = i;
+                    while (i < source.length() && (Character.isDigit(source.charAt(i)) || source.charAt(i) == '.')) {
+                        i++;
+                    }
+                    tokens.add(source.substring(start, i));
+                } else if (i + 1 < source.length() && isTwoCharOperator(source.substring(i, i + 2))) {
+                    tokens.add(source.substring(i, i + 2));
+                    i += 2;
+                } else if ("<>!()*/+-".indexOf(ch) >= 0) {
+                    tokens.add(String.valueOf(ch));
+                    i++;
+                } else {
+                    throw new IllegalArgumentException("Unexpected character '" + ch + "'");
+                }
+            }
+            return tokens;
+        }
+
+        private static boolean isTwoCharOperator(String op) {
+            return op.equals("&&") || op.equals("||") || op.equals("<=") || op.equals(">=")
+                    || op.equals("==") || op.equals("!=");
+        }
+    }
+
+    /**
+     * A numeric subexpression with the compile-time facts needed for folding and for tracking
+     * globalAverage usage: its constant value if any, whether it is exactly avgTime, and k if it
+     * is exactly globalAverage * k.
+     */
+    private static class Numeric {
+        final NumericExpression expression;
+        final Double constant;
+        final boolean avgTime;
+        final Double globalMultiplier;
+        final boolean usesGlobal;
+
+        Numeric(NumericExpression expression, Double constant, boolean avgTime, Double globalMultiplier,
+                boolean usesGlobal) {
+            this.expression = expression;
+            this.constant = constant;
+            this.avgTime = avgTime;
+            this.globalMultiplier = globalMultiplier;
+            this.usesGlobal = usesGlobal;
+        }
+
+        static Numeric constant(double value) {
+            return new Numeric(c -> value, value, false, null, false);
+        }
+
+        static Numeric add(Numeric a, Numeric b) {
+            if (a.constant != null && b.constant != null) {
+                return constant(a.constant + b.constant);
+            }
+            NumericExpression x = a.expression;
+            NumericExpression y = b.expression;
+            return new Numeric(c -> x.eval(c) + y.eval(c), null, false, null, a.usesGlobal || b.usesGlobal);
+        }
+
+        static Numeric subtract(Numeric a, Numeric b) {
+            if (a.constant != null && b.constant != null) {
+                return constant(a.constant - b.constant);
+            }
+            NumericExpression x = a.expression;
+            NumericExpression y = b.expression;
+            return new Numeric(c -> x.eval(c) - y.eval(c), null, false, null, a.usesGlobal || b.usesGlobal);
+        }
+
+        static Numeric multiply(Numeric a, Numeric b) {
+            if (a.constant != null && b.constant != null) {
+                return constant(a.constant * b.constant);
+            }
+            if (a.globalMultiplier != null && b.constant != null) {
+                double k = b.constant;
+                NumericExpression x = a.expression;
+                return new Numeric(c -> x.eval(c) * k, null, false, a.globalMultiplier * k, true);
+            }
+            if (b.globalMultiplier != null && a.constant != null) {
+                double k = a.constant;
+                NumericExpression y = b.expression;
+                return new Numeric(c -> k * y.eval(c), null, false, b.globalMultiplier * k, true);
+            }
+            NumericExpression x = a.expression;
+            NumericExpression y = b.expression;
+            return new Numeric(c -> x.eval(c) * y.eval(c), null, false, null, a.usesGlobal || b.usesGlobal);
+        }
+
+        static Numeric divide(Numeric a, Numeric b) {
+            if (a.constant != null && b.constant != null) {
+                return constant(a.constant / b.constant);
+            }
+            if (a.globalMultiplier != null && b.constant != null) {
+                double k = b.constant;
+                NumericExpression x = a.expression;
+                return new Numeric(c -> x.eval(c) / k, null, false, a.globalMultiplier / k, true);
+            }
+            NumericExpression x = a.expression;
+            NumericExpression y = b.expression;
+            return new Numeric(c -> x.eval(c) / y.eval(c), null, false, null, a.usesGlobal || b.usesGlobal);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.earlyreviewer.infra;
+
+/**
+ * RejectionCounts counts rejected rows per reason in plain fields while a parse loop runs.
+ * CSVParser.recordParse publishes the totals to the rejection counters once per parse call.
+ */
+final class RejectionCounts {
+    long timestamps;
+    long timeToReview;
+    long malformed;
+
+    void add(RejectionCounts other) {
+        timestamps += other.timestamps;
+        timeToReview += other.timeToReview;
+        malformed += other.malformed;
+    }
+
+    void clear() {
+        timestamps = 0;
+        timeToReview = 0;
+        malformed = 0;
+    }
+}
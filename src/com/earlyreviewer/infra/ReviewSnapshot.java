@@ -0,0 +1,516 @@
+package com.earlyreviewer.infra;
+
+import com.earlyreviewer.domain.LatencyHistogram;
+import com.earlyreviewer.domain.ReviewRecordStore;
+import com.earlyreviewer.domain.ReviewerAggregates;
+import com.earlyreviewer.domain.ReviewerDictionary;
+import com.earlyreviewer.domain.ReviewerStats;
+import com.earlyreviewer.domain.StatsWindow;
+import com.earlyreviewer.domain.WindowedStats;
+import com.earlyreviewer.util.LoggerUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ReviewSnapshot is a compact binary form of parsed review data and reviewer aggregates.
+ * Loading a snapshot skips CSV parsing and aggregation entirely.
+ *
+ * Layout (little-endian, every section padded to 8 bytes):
+ *   header:      magic "ERSNAP\0\0", int version, int reserved, long recordCount, long reviewerCount
+ *   dictionary:  reviewerCount x (int byteLength, UTF-8 bytes)
+ *   records:     int[] reviewerCodes, int[] pastReviewsCounts, long[] submissionTimestamps,
+ *                long[] completionTimestamps, long[] teamFamiliarity bits, long[] contextualKnowledge bits
+ *   aggregates:  long[] validCounts, long[] sums, long[] mins, long[] maxs, int[] pastReviewsCounts,
+ *                byte[] flags (1 = team familiarity, 2 = contextual knowledge), indexed by reviewer code
+ *   latencies:   int[] bucketOffsets, int[] bucketCounts, indexed by reviewer code, followed by
+ *                long[] counts of all reviewers' histogram buckets concatenated in code order
+ *   windows:     long windowSeconds, long halfLifeSeconds, int bucketCount, int reserved, then by
+ *                reviewer code long[] headBuckets, long[] latestTimestamps, double[] decayedWeights,
+ *                double[] decayedSums, int[] ring-buffer counts and long[] ring-buffer sums
+ *                (bucketCount entries per reviewer)
+ *
+ * Version 1 and 2 files lack the later sections, and version 3 files written with a different
+ * StatsWindow cannot be reused; in those cases the aggregates are rebuilt from the records.
+ */
+public class ReviewSnapshot {
+    private static final Logger logger = LoggerUtil.getLogger(ReviewSnapshot.class);
+
+    private static final byte[] MAGIC = {'E', 'R', 'S', 'N', 'A', 'P', 0, 0};
+    public static final int VERSION = 3;
+    // Oldest version whose records section is still readable
+    private static final int MIN_VERSION = 1;
+    private static final int FIRST_VERSION_WITH_LATENCIES = 2;
+
+    private static final byte FLAG_TEAM_FAMILIARITY = 1;
+    private static final byte FLAG_CONTEXTUAL_KNOWLEDGE = 2;
+
+    private static final int WRITE_BUFFER_BYTES = 4 * 1024 * 1024;
+    private static final long MAP_WINDOW_BYTES = 1L << 30;
+
+    private final ReviewRecordStore store;
+    private final ReviewerAggregates aggregates;
+
+    public ReviewSnapshot(ReviewRecordStore store, ReviewerAggregates aggregates) {
+        if (aggregates.getDictionary() != store.getDictionary()) {
+            throw new IllegalArgumentException("Aggregates must use the store's reviewer dictionary");
+        }
+        this.store = store;
+        this.aggregates = aggregates;
+    }
+
+    /**
+     * Parses a CSV file, aggregates it and writes the result as a snapshot.
+     *
+     * @param csvFile Source CSV in the format expected by CSVParser
+     * @param snapshotFile Target snapshot file
+     * @return The snapshot that was written
+     * @throws IOException if either file cannot be accessed
+     */
+    public static ReviewSnapshot fromCsv(File csvFile, File snapshotFile) throws IOException {
+        ReviewRecordStore store = CSVParser.parseToStore(csvFile);
+        ReviewerAggregates aggregates = new ReviewerAggregates(store.getDictionary());
+        aggregates.addAll(store);
+
+        ReviewSnapshot snapshot = new ReviewSnapshot(store, aggregates);
+        snapshot.write(snapshotFile);
+        return snapshot;
+    }
+
+    // Getters
+    public ReviewRecordStore getStore() {
+        return store;
+    }
+
+    public ReviewerAggregates getAggregates() {
+        return aggregates;
+    }
+
+    /**
+     * Writes this snapshot to a file, replacing any existing content.
+     *
+     * @throws IOException if file cannot be written
+     */
+    public void write(File file) throws IOException {
+        ReviewerDictionary dictionary = store.getDictionary();
+        int records = store.size();
+        int reviewers = dictionary.size();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer out = new Writer(channel);
+
+            out.putBytes(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(0);
+            out.putLong(records);
+            out.putLong(reviewers);
+
+            for (int code = 0; code < reviewers; code++) {
+                byte[] id = dictionary.decode(code).getBytes(StandardCharsets.UTF_8);
+                out.putInt(id.length);
+                out.putBytes(id);
+            }
+            out.align();
+
+            for (int i = 0; i < records; i++) {
+                out.putInt(store.getReviewerCode(i));
+            }
+            out.align();
+            for (int i = 0; i < records; i++) {
+                out.putInt(store.getPastReviewsCount(i));
+            }
+            out.align();
+            for (int i = 0; i < records; i++) {
+                out.putLong(store.getSubmissionTimestamp(i));
+            }
+            for (int i = 0; i < records; i++) {
+                out.putLong(store.getCompletionTimestamp(i));
+            }
+            out.putLongs(bitWords(store.getTeamFamiliarityBits(), records));
+            out.putLongs(bitWords(store.getContextualKnowledgeBits(), records));
+
+            ReviewerStats[] stats = new ReviewerStats[reviewers];
+            for (int code = 0; code < reviewers; code++) {
+                stats[code] = aggregates.toStats(code);
+            }
+            for (ReviewerStats s : stats) {
+                out.putLong(s.getValidCount());
+            }
+            for (ReviewerStats s : stats) {
+                out.putLong(s.getSumTimeToReview());
+            }
+            for (ReviewerStats s : stats) {
+                out.putLong(s.getMinTimeToReview());
+            }
+            for (ReviewerStats s : stats) {
+                out.putLong(s.getMaxTimeToReview());
+            }
+            for (ReviewerStats s : stats) {
+                out.putInt(s.getPastReviewsCount());
+            }
+            out.align();
+            for (ReviewerStats s : stats) {
+                byte flags = 0;
+                if (s.hasTeamFamiliarity()) {
+                    flags |= FLAG_TEAM_FAMILIARITY;
+                }
+                if (s.hasContextualKnowledge()) {
+                    flags |= FLAG_CONTEXTUAL_KNOWLEDGE;
+                }
+                out.putByte(flags);
+            }
+            out.align();
+
+            for (ReviewerStats s : stats) {
+                out.putInt(s.getLatency().getBucketOffset());
+            }
+            out.align();
+            for (ReviewerStats s : stats) {
+                out.putInt(s.getLatency().getBucketCounts().length);
+            }
+            out.align();
+            for (ReviewerStats s : stats) {
+                out.putLongs(s.getLatency().getBucketCounts());
+            }
+
+            StatsWindow window = aggregates.getWindow();
+            out.putLong(window.getWindowSeconds());
+            out.putLong(window.getHalfLifeSeconds());
+            out.putInt(window.getBucketCount());
+            out.putInt(0);
+            WindowedStats[] windows = new WindowedStats[reviewers];
+            for (int code = 0; code < reviewers; code++) {
+                windows[code] = stats[code].getRecent();
+            }
+            for (WindowedStats w : windows) {
+                out.putLong(w.getHeadBucket());
+            }
+            for (WindowedStats w : windows) {
+                out.putLong(w.getLatestTimestamp());
+            }
+            for (WindowedStats w : windows) {
+                out.putLong(Double.doubleToRawLongBits(w.getDecayedWeight()));
+            }
+            for (WindowedStats w : windows) {
+                out.putLong(Double.doubleToRawLongBits(w.getDecayedSum()));
+            }
+            for (WindowedStats w : windows) {
+                for (int count : w.getBucketCounts()) {
+                    out.putInt(count);
+                }
+            }
+            out.align();
+            for (WindowedStats w : windows) {
+                out.putLongs(w.getBucketSums());
+            }
+            out.flush();
+        }
+
+        logger.log(Level.INFO, "Wrote snapshot of " + records + " records and " + reviewers +
+                " reviewers to " + file.getAbsolutePath());
+    }
+
+    /**
+     * Loads a snapshot through memory-mapped windows of the file.
+     *
+     * @param file Snapshot written by write(File)
+     * @return Loaded snapshot
+     * @throws IOException if file cannot be read or is not a supported snapshot
+     */
+    public static ReviewSnapshot read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            Reader in = new Reader(channel);
+
+            byte[] magic = new byte[MAGIC.length];
+            in.getBytes(magic, magic.length);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a review snapshot: " + file);
+            }
+            int version = in.getInt();
+            if (version < MIN_VERSION || version > VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + file);
+            }
+            in.getInt();
+            long recordCount = in.getLong();
+            long reviewerCount = in.getLong();
+            if (recordCount > Integer.MAX_VALUE || reviewerCount > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to load: " + file);
+            }
+            int records = (int) recordCount;
+            int reviewers = (int) reviewerCount;
+
+            ReviewerDictionary dictionary = new ReviewerDictionary();
+            byte[] id = new byte[64];
+            for (int code = 0; code < reviewers; code++) {
+                int length = in.getInt();
+                if (id.length < length) {
+                    id = new byte[length];
+                }
+                in.getBytes(id, length);
+                if (dictionary.encode(new String(id, 0, length, StandardCharsets.UTF_8)) != code) {
+                    throw new IOException("Duplicate reviewer ID in snapshot dictionary: " + file);
+                }
+            }
+            in.align();
+
+            int[] reviewerCodes = in.getInts(records);
+            in.align();
+            int[] pastReviewsCounts = in.getInts(records);
+            in.align();
+            long[] submissionTimestamps = in.getLongs(records);
+            long[] completionTimestamps = in.getLongs(records);
+            BitSet teamFamiliarity = BitSet.valueOf(in.getLongs(wordCount(records)));
+            BitSet contextualKnowledge = BitSet.valueOf(in.getLongs(wordCount(records)));
+
+            ReviewRecordStore store = new ReviewRecordStore(dictionary, reviewerCodes, pastReviewsCounts,
+                    submissionTimestamps, completionTimestamps, teamFamiliarity, contextualKnowledge, records);
+
+            long[] validCounts = in.getLongs(reviewers);
+            long[] sums = in.getLongs(reviewers);
+            long[] mins = in.getLongs(reviewers);
+            long[] maxs = in.getLongs(reviewers);
+            int[] pastReviews = in.getInts(reviewers);
+            in.align();
+            byte[] flags = new byte[reviewers];
+            in.getBytes(flags, reviewers);
+            in.align();
+
+            ReviewerAggregates aggregates = new ReviewerAggregates(dictionary);
+            LatencyHistogram[] latencies = version >= FIRST_VERSION_WITH_LATENCIES
+                    ? readLatencies(in, reviewers, mins, maxs) : null;
+            WindowedStats[] windows = version >= VERSION ? readWindows(in, aggregates.getWindow(), reviewers) : null;
+            if (latencies == null || windows == null) {
+                logger.log(Level.INFO, "Rebuilding aggregates of snapshot version " + version + " from records");
+                aggregates.addAll(store);
+            } else {
+                for (int code = 0; code < reviewers; code++) {
+                    if (validCounts[code] > 0) {
+                        aggregates.restore(code, new ReviewerStats(validCounts[code], sums[code], mins[code],
+                                maxs[code], pastReviews[code], (flags[code] & FLAG_TEAM_FAMILIARITY) != 0,
+                                (flags[code] & FLAG_CONTEXTUAL_KNOWLEDGE) != 0,
+                                latencies[code], windows[code]));
+                    }
+                }
+            }
+
+            logger.log(Level.INFO, "Loaded snapshot of " + records + " records and " + reviewers +
+                    " reviewers from " + file.getAbsolutePath());
+            return new ReviewSnapshot(store, aggregates);
+        }
+    }
+
+    private static LatencyHistogram[] readLatencies(Reader in, int reviewers, long[] mins, long[] maxs)
+            throws IOException {
+        int[] bucketOffsets = in.getInts(reviewers);
+        in.align();
+        int[] bucketCounts = in.getInts(reviewers);
+        in.align();
+        LatencyHistogram[] latencies = new LatencyHistogram[reviewers];
+        for (int code = 0; code < reviewers; code++) {
+            latencies[code] = new LatencyHistogram(bucketOffsets[code], in.getLongs(bucketCounts[code]), mins[code],
+                    maxs[code]);
+        }
+        return latencies;
+    }
+
+    /**
+     * Reads the windows section, or returns null if it was written with a different window
+     * configuration than the expected one.
+     */
+    private static WindowedStats[] readWindows(Reader in, StatsWindow expected, int reviewers) throws IOException {
+        long windowSeconds = in.getLong();
+        long halfLifeSeconds = in.getLong();
+        int bucketCount = in.getInt();
+        in.getInt();
+        if (windowSeconds != expected.getWindowSeconds() || halfLifeSeconds != expected.getHalfLifeSeconds()
+                || bucketCount != expected.getBucketCount()) {
+            logger.log(Level.INFO, "Snapshot windows use " + windowSeconds + "s in " + bucketCount + " buckets, " +
+                    halfLifeSeconds + "s half-life instead of " + expected);
+            return null;
+        }
+
+        long[] headBuckets = in.getLongs(reviewers);
+        long[] latestTimestamps = in.getLongs(reviewers);
+        long[] decayedWeights = in.getLongs(reviewers);
+        long[] decayedSums = in.getLongs(reviewers);
+        int[] counts = in.getInts(reviewers * bucketCount);
+        in.align();
+        long[] sums = in.getLongs(reviewers * bucketCount);
+
+        WindowedStats[] windows = new WindowedStats[reviewers];
+        for (int code = 0; code < reviewers; code++) {
+            int from = code * bucketCount;
+            int to = from + bucketCount;
+            windows[code] = new WindowedStats(expected, headBuckets[code], Arrays.copyOfRange(counts, from, to),
+                    Arrays.copyOfRange(sums, from, to), Double.longBitsToDouble(decayedWeights[code]),
+                    Double.longBitsToDouble(decayedSums[code]), latestTimestamps[code]);
+        }
+        return windows;
+    }
+
+    private static int wordCount(int bits) {
+        return (bits + 63) / 64;
+    }
+
+    private static long[] bitWords(BitSet bits, int size) {
+        return Arrays.copyOf(bits.toLongArray(), wordCount(size));
+    }
+
+    /**
+     * Buffered little-endian writer over a FileChannel that tracks 8-byte alignment.
+     */
+    private static class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long position;
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            this.position = 0;
+        }
+
+        void putByte(byte value) throws IOException {
+            ensure(1);
+            buffer.put(value);
+            position++;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+            position += 4;
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+            position += 8;
+        }
+
+        void putLongs(long[] values) throws IOException {
+            for (long value : values) {
+                putLong(value);
+            }
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            for (byte b : bytes) {
+                putByte(b);
+            }
+        }
+
+        void align() throws IOException {
+            while ((position & 7) != 0) {
+                putByte((byte) 0);
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Little-endian reader that maps the file in windows of at most MAP_WINDOW_BYTES.
+     */
+    private static class Reader {
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private long position;
+
+        Reader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.position = 0;
+        }
+
+        /**
+         * Makes at least `bytes` bytes from the current position available in the window.
+         */
+        private ByteBuffer ensure(long bytes) throws IOException {
+            if (position + bytes > size) {
+                throw new IOException("Truncated snapshot at byte " + position);
+            }
+            if (window == null || position < windowStart || position + bytes > windowStart + window.capacity()) {
+                long length = Math.min(MAP_WINDOW_BYTES, size - position);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                window.order(ByteOrder.LITTLE_ENDIAN);
+                windowStart = position;
+            }
+            window.position((int) (position - windowStart));
+            return window;
+        }
+
+        int getInt() throws IOException {
+            int value = ensure(4).getInt();
+            position += 4;
+            return value;
+        }
+
+        long getLong() throws IOException {
+            long value = ensure(8).getLong();
+            position += 8;
+            return value;
+        }
+
+        void getBytes(byte[] dst, int length) throws IOException {
+            ensure(length).get(dst, 0, length);
+            position += length;
+        }
+
+        /**
+         * Bulk-reads an int column, remapping as needed for columns larger than one window.
+         */
+        int[] getInts(int count) throws IOException {
+            int[] values = new int[count];
+            int done = 0;
+            while (done < count) {
+                int chunk = (int) Math.min(count - done, MAP_WINDOW_BYTES / 4);
+                ensure((long) chunk * 4).asIntBuffer().get(values, done, chunk);
+                position += (long) chunk * 4;
+                done += chunk;
+            }
+            return values;
+        }
+
+        long[] getLongs(int count) throws IOException {
+            long[] values = new long[count];
+            int done = 0;
+            while (done < count) {
+                int chunk = (int) Math.min(count - done, MAP_WINDOW_BYTES / 8);
+                ensure((long) chunk * 8).asLongBuffer().get(values, done, chunk);
+                position += (long) chunk * 8;
+                done += chunk;
+            }
+            return values;
+        }
+
+        void align() {
+            position = (position + 7) & ~7L;
+        }
+    }
+}
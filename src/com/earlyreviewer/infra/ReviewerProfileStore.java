@@ -0,0 +1,729 @@
+package com.earlyreviewer.infra;
+
+import com.earlyreviewer.domain.LatencyHistogram;
+import com.earlyreviewer.domain.Reviewer;
+import com.earlyreviewer.domain.ReviewerAggregates;
+import com.earlyreviewer.domain.ReviewerDictionary;
+import com.earlyreviewer.domain.ReviewerStats;
+import com.earlyreviewer.domain.StatsWindow;
+import com.earlyreviewer.domain.WindowedStats;
+import com.earlyreviewer.util.LoggerUtil;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * ReviewerProfileStore persists reviewer profiles, the aggregated statistics of a reviewer plus
+ * its latest prediction, across runs together with the position in the input they were built
+ * from: the byte offset just past the last folded line of the CSV file and a checksum of the bytes
+ * before it. A later run over the same, since grown file restores the profiles and only folds in
+ * the lines after that offset instead of re-aggregating the full history, whatever their
+ * timestamps. For any other input the store falls back to its watermark, the newest submission
+ * timestamp folded in: events submitted at or before it count as already folded.
+ *
+ * The file is an append-only log. Each commit appends a frame per changed profile and a commit
+ * frame carrying the new watermark and input position, then forces the file to disk. Every frame has a length and a
+ * CRC32C checksum, so opening the store replays the log up to the last complete commit and
+ * truncates a torn or corrupt tail. Once superseded frames make up most of the log it is
+ * compacted into a new file that atomically replaces it. A lock file keeps other processes from
+ * opening the same store. Instances are not thread-safe.
+ *
+ * Layout (little-endian; strings are int byteLength + UTF-8 bytes; var is a zigzag LEB128 varint,
+ * which keeps the mostly empty histogram and window buckets at a byte each):
+ *   header:   magic "ERPROF\0\0", int version, int window bucket count, long window seconds,
+ *             long half-life seconds
+ *   frame:    int payloadLength, int crc32c(payload), payload
+ *   profile:  byte 1, reviewer ID, long validCount, long sum, long min, long max, int pastReviewsCount,
+ *             byte flags (1 = team familiarity, 2 = contextual knowledge, 4 = early reviewer),
+ *             explanation, int latency bucketOffset, int bucketCount, var[] bucket counts,
+ *             long window headBucket, long latestTimestamp, double decayedWeight, double decayedSum,
+ *             var[] window bucket counts, var[] window bucket sums
+ *   commit:   byte 2, long watermark, long input offset (0 if unknown), int crc32c of the input bytes
+ *             just before that offset, int number of profile frames since the previous commit
+ */
+public class ReviewerProfileStore implements AutoCloseable {
+    private static final Logger logger = LoggerUtil.getLogger(ReviewerProfileStore.class);
+
+    private static final byte[] MAGIC = {'E', 'R', 'P', 'R', 'O', 'F', 0, 0};
+    public static final int VERSION = 2;
+    private static final int HEADER_BYTES = 32;
+    private static final int FRAME_HEADER_BYTES = 8;
+    private static final int COMMIT_BYTES = 25;
+    private static final int MAX_PAYLOAD_BYTES = 64 * 1024 * 1024;
+    private static final int MAX_VAR_BYTES = 10;
+
+    private static final byte PROFILE = 1;
+    private static final byte COMMIT = 2;
+    private static final byte FLAG_TEAM_FAMILIARITY = 1;
+    private static final byte FLAG_CONTEXTUAL_KNOWLEDGE = 2;
+    private static final byte FLAG_EARLY_REVIEWER = 4;
+
+    // The log is compacted once it is this many times larger than its live profiles
+    private static final int COMPACTION_RATIO = 2;
+    private static final long MIN_COMPACTION_BYTES = 1024 * 1024;
+    private static final int WRITE_BUFFER_BYTES = 1024 * 1024;
+    // Input bytes before the recorded offset whose checksum identifies the input
+    private static final int INPUT_CHECK_BYTES = 4096;
+
+    private final File file;
+    private final StatsWindow window;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private FileChannel channel;
+    // Latest committed profile payload per reviewer ID
+    private final Map<String, byte[]> profiles = new LinkedHashMap<>();
+    private long watermark = Long.MIN_VALUE;
+    private long inputOffset;
+    private int inputChecksum;
+    private long liveBytes;
+    private long size;
+    private ByteBuffer scratch = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+
+    private ReviewerProfileStore(File file, StatsWindow window, FileChannel lockChannel, FileLock lock) {
+        this.file = file;
+        this.window = window;
+        this.lockChannel = lockChannel;
+        this.lock = lock;
+    }
+
+    /**
+     * Opens or creates a store whose windows use the default StatsWindow.
+     *
+     * @see #open(File, StatsWindow)
+     */
+    public static ReviewerProfileStore open(File file) throws IOException {
+        return open(file, StatsWindow.getDefault());
+    }
+
+    /**
+     * Opens a store, creating it if the file does not exist, and recovers it to its last
+     * complete commit.
+     *
+     * @param file Log file; a .lock file is created next to it
+     * @param window Configuration of the stored windowed statistics
+     * @throws IOException if the file cannot be accessed, is locked by another process, is not a
+     *         profile store or was written with a different window configuration
+     */
+    public static ReviewerProfileStore open(File file, StatsWindow window) throws IOException {
+        FileChannel lockChannel = FileChannel.open(lockFile(file).toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        ReviewerProfileStore store = null;
+        try {
+            FileLock lock;
+            try {
+                lock = lockChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) {
+                throw new IOException("Profile store " + file + " is already open");
+            }
+            store = new ReviewerProfileStore(file, window, lockChannel, lock);
+            // A leftover compaction file is from a crash before it replaced the log
+            Files.deleteIfExists(compactionFile(file).toPath());
+            store.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            if (store.channel.size() == 0) {
+                store.channel.write(store.header(), 0);
+                store.channel.force(true);
+                store.size = HEADER_BYTES;
+            } else {
+                store.checkHeader();
+                store.recover();
+            }
+        } catch (IOException | RuntimeException e) {
+            if (store != null) {
+                store.close();
+            } else {
+                lockChannel.close();
+            }
+            throw e;
+        }
+
+        logger.log(Level.INFO, "Opened profile store " + file.getAbsolutePath() + " with " + store.profiles.size() +
+                " profiles up to submission " + store.watermark);
+        return store;
+    }
+
+    private static File lockFile(File file) {
+        return new File(file.getPath() + ".lock");
+    }
+
+    private static File compactionFile(File file) {
+        return new File(file.getPath() + ".compact");
+    }
+
+    private ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(window.getBucketCount());
+        header.putLong(window.getWindowSeconds());
+        header.putLong(window.getHalfLifeSeconds());
+        header.flip();
+        return header;
+    }
+
+    private void checkHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // Keep reading until the header is complete or the file ends
+        }
+        header.flip();
+        byte[] magic = new byte[MAGIC.length];
+        if (header.remaining() < HEADER_BYTES || !Arrays.equals(magic(header, magic), MAGIC)) {
+            throw new IOException("Not a profile store: " + file);
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported profile store version " + version + " in " + file +
+                    "; delete it to rebuild the profiles");
+        }
+        int bucketCount = header.getInt();
+        long windowSeconds = header.getLong();
+        long halfLifeSeconds = header.getLong();
+        if (bucketCount != window.getBucketCount() || windowSeconds != window.getWindowSeconds()
+                || halfLifeSeconds != window.getHalfLifeSeconds()) {
+            throw new IOException("Profile store " + file + " uses " + windowSeconds + "s windows in " + bucketCount +
+                    " buckets with a " + halfLifeSeconds + "s half-life instead of " + window +
+                    "; delete it to rebuild the profiles");
+        }
+    }
+
+    private static byte[] magic(ByteBuffer header, byte[] magic) {
+        header.get(magic);
+        return magic;
+    }
+
+    /**
+     * Replays the log, applying profile frames only once their commit frame has been read, and
+     * truncates whatever follows the last complete commit.
+     */
+    private void recover() throws IOException {
+        long committedEnd = HEADER_BYTES;
+        long position = HEADER_BYTES;
+        Map<String, byte[]> pending = new LinkedHashMap<>();
+        int pendingFrames = 0;
+        CRC32C crc = new CRC32C();
+        byte[] frameHeader = new byte[FRAME_HEADER_BYTES];
+
+        // Not closed: closing the stream would close the channel
+        InputStream in = new BufferedInputStream(Channels.newInputStream(channel.position(HEADER_BYTES)), 1 << 16);
+        while (readFully(in, frameHeader)) {
+            ByteBuffer header = ByteBuffer.wrap(frameHeader).order(ByteOrder.LITTLE_ENDIAN);
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length < 1 || length > MAX_PAYLOAD_BYTES) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            if (!readFully(in, payload)) {
+                break;
+            }
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            position += FRAME_HEADER_BYTES + length;
+
+            if (payload[0] == PROFILE) {
+                pending.put(profileId(payload), payload);
+                pendingFrames++;
+            } else if (payload[0] == COMMIT && length == COMMIT_BYTES) {
+                ByteBuffer commit = ByteBuffer.wrap(payload).order(ByteOrder.LITTLE_ENDIAN);
+                commit.get();
+                long committedWatermark = commit.getLong();
+                long committedOffset = commit.getLong();
+                int committedChecksum = commit.getInt();
+                if (commit.getInt() != pendingFrames) {
+                    break;
+                }
+                for (Map.Entry<String, byte[]> entry : pending.entrySet()) {
+                    apply(entry.getKey(), entry.getValue());
+                }
+                pending.clear();
+                pendingFrames = 0;
+                watermark = committedWatermark;
+                inputOffset = committedOffset;
+                inputChecksum = committedChecksum;
+                committedEnd = position;
+            } else {
+                break;
+            }
+        }
+
+        long fileSize = channel.size();
+        if (committedEnd < fileSize) {
+            logger.log(Level.WARNING, "Discarding " + (fileSize - committedEnd) +
+                    " bytes of incomplete or corrupt updates at the end of profile store " + file);
+            channel.truncate(committedEnd);
+            channel.force(true);
+        }
+        size = committedEnd;
+    }
+
+    private static boolean readFully(InputStream in, byte[] bytes) throws IOException {
+        int done = 0;
+        while (done < bytes.length) {
+            int read = in.read(bytes, done, bytes.length - done);
+            if (read < 0) {
+                return false;
+            }
+            done += read;
+        }
+        return true;
+    }
+
+    private void apply(String reviewerId, byte[] payload) {
+        byte[] previous = profiles.put(reviewerId, payload);
+        if (previous != null) {
+            liveBytes -= FRAME_HEADER_BYTES + previous.length;
+        }
+        liveBytes += FRAME_HEADER_BYTES + payload.length;
+    }
+
+    // Getters
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Newest submission timestamp folded into the stored profiles, or Long.MIN_VALUE if none.
+     */
+    public long getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * Byte offset just past the last input line folded into the stored profiles, or 0 if unknown.
+     */
+    public long getInputOffset() {
+        return inputOffset;
+    }
+
+    /**
+     * Whether the given input continues the one the profiles were built from, so its lines after
+     * getInputOffset() are exactly the ones not folded in yet. Judged by the input length and a
+     * checksum of the bytes just before the offset, which catches a replaced or rewritten file.
+     *
+     * @throws IOException if the input cannot be read
+     */
+    public boolean isContinuedBy(File input) throws IOException {
+        return inputOffset > 0 && input.length() >= inputOffset && inputChecksum(input, inputOffset) == inputChecksum;
+    }
+
+    private static int inputChecksum(File input, long offset) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate((int) Math.min(offset, INPUT_CHECK_BYTES));
+        try (FileChannel in = FileChannel.open(input.toPath(), StandardOpenOption.READ)) {
+            long position = offset - bytes.capacity();
+            while (bytes.hasRemaining()) {
+                int read = in.read(bytes, position + bytes.position());
+                if (read < 0) {
+                    throw new IOException("Input " + input + " ends before offset " + offset);
+                }
+            }
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.flip());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Number of stored profiles.
+     */
+    public int size() {
+        return profiles.size();
+    }
+
+    /**
+     * Returns the stored profile of a reviewer, with statistics computed and the stored
+     * prediction applied, or null if there is none.
+     */
+    public Reviewer getProfile(String reviewerId) {
+        byte[] payload = profiles.get(reviewerId);
+        return payload == null ? null : decode(payload);
+    }
+
+    /**
+     * Restores every stored profile into new aggregates, ready for folding in newer events.
+     */
+    public ReviewerAggregates toAggregates() {
+        ReviewerAggregates aggregates = new ReviewerAggregates(new ReviewerDictionary(), window);
+        ReviewerDictionary dictionary = aggregates.getDictionary();
+        for (Map.Entry<String, byte[]> entry : profiles.entrySet()) {
+            aggregates.restore(dictionary.encode(entry.getKey()), decode(entry.getValue()).getStats());
+        }
+        return aggregates;
+    }
+
+    /**
+     * Stores profiles that were not folded in from an input file, so the recorded input position
+     * is cleared and later runs rely on the watermark.
+     *
+     * @see #commit(Collection, long, File, long)
+     */
+    public int commit(Collection<Reviewer> reviewers, long newWatermark) throws IOException {
+        return commit(reviewers, newWatermark, null, 0);
+    }
+
+    /**
+     * Stores the profiles of the given reviewers and advances the watermark and input position,
+     * atomically: after a crash the store recovers either all of them or none. Profiles equal to
+     * the stored ones are not written again, so passing every reviewer of an analysis only appends
+     * what changed.
+     *
+     * @param reviewers Reviewers with computed statistics and predictions
+     * @param newWatermark Newest submission timestamp folded into them; the watermark never moves back
+     * @param input CSV file the events were read from, or null if none
+     * @param newInputOffset Byte offset just past the last line of input folded into the profiles
+     * @return Number of profiles written
+     * @throws IOException if the log or the input cannot be read or written; the store is left as
+     *         before the call
+     */
+    public int commit(Collection<Reviewer> reviewers, long newWatermark, File input, long newInputOffset)
+            throws IOException {
+        if (channel == null) {
+            throw new IllegalStateException("Profile store " + file + " is closed");
+        }
+        long committedOffset = input == null ? 0 : newInputOffset;
+        int committedChecksum = committedOffset > 0 ? inputChecksum(input, committedOffset) : 0;
+        Map<String, byte[]> changed = new LinkedHashMap<>();
+        for (Reviewer reviewer : reviewers) {
+            byte[] payload = encode(reviewer);
+            if (!Arrays.equals(payload, profiles.get(reviewer.getReviewerId()))) {
+                changed.put(reviewer.getReviewerId(), payload);
+            }
+        }
+        long committedWatermark = Math.max(watermark, newWatermark);
+        if (changed.isEmpty() && committedWatermark == watermark && committedOffset == inputOffset
+                && committedChecksum == inputChecksum) {
+            return 0;
+        }
+
+        long end;
+        try {
+            end = writeFrames(channel, size, changed.values(),
+                    commitPayload(committedWatermark, committedOffset, committedChecksum, changed.size()));
+            channel.force(false);
+        } catch (IOException e) {
+            // Drop the partial tail so later commits are not appended behind it
+            try {
+                channel.truncate(size);
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+            }
+            throw e;
+        }
+
+        for (Map.Entry<String, byte[]> entry : changed.entrySet()) {
+            apply(entry.getKey(), entry.getValue());
+        }
+        watermark = committedWatermark;
+        inputOffset = committedOffset;
+        inputChecksum = committedChecksum;
+        size = end;
+        logger.log(Level.FINE, "Committed " + changed.size() + " profiles up to submission " + watermark +
+                " and input offset " + inputOffset);
+
+        if (size > MIN_COMPACTION_BYTES && size > COMPACTION_RATIO * (HEADER_BYTES + liveBytes)) {
+            // The commit is durable already; a failed compaction is retried on a later commit
+            try {
+                compact();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Cannot compact profile store " + file + ": " + e.getMessage());
+            }
+        }
+        return changed.size();
+    }
+
+    private static byte[] commitPayload(long commitWatermark, long commitOffset, int commitChecksum, int frames) {
+        ByteBuffer commit = ByteBuffer.allocate(COMMIT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        commit.put(COMMIT);
+        commit.putLong(commitWatermark);
+        commit.putLong(commitOffset);
+        commit.putInt(commitChecksum);
+        commit.putInt(frames);
+        return commit.array();
+    }
+
+    /**
+     * Appends profile frames and the given commit frame at the given position.
+     *
+     * @return Position just past the commit frame
+     */
+    private long writeFrames(FileChannel target, long position, Collection<byte[]> payloads, byte[] commit)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32C crc = new CRC32C();
+        for (byte[] payload : payloads) {
+            if (buffer.remaining() < FRAME_HEADER_BYTES + payload.length) {
+                position = write(target, buffer, position);
+                if (buffer.capacity() < FRAME_HEADER_BYTES + payload.length) {
+                    buffer = ByteBuffer.allocate(FRAME_HEADER_BYTES + payload.length).order(ByteOrder.LITTLE_ENDIAN);
+                }
+            }
+            putFrame(buffer, crc, payload);
+        }
+
+        if (buffer.remaining() < FRAME_HEADER_BYTES + COMMIT_BYTES) {
+            position = write(target, buffer, position);
+        }
+        putFrame(buffer, crc, commit);
+        return write(target, buffer, position);
+    }
+
+    private static void putFrame(ByteBuffer buffer, CRC32C crc, byte[] payload) {
+        crc.reset();
+        crc.update(payload);
+        buffer.putInt(payload.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+    }
+
+    private static long write(FileChannel target, ByteBuffer buffer, long position) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += target.write(buffer, position);
+        }
+        buffer.clear();
+        return position;
+    }
+
+    /**
+     * Rewrites the log with only the current profiles and atomically replaces it.
+     *
+     * @throws IOException if the compacted log cannot be written; the current log stays in use
+     */
+    public void compact() throws IOException {
+        long before = size;
+        Path target = file.toPath();
+        Path temp = compactionFile(file).toPath();
+        long end;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(header(), 0);
+            end = writeFrames(out, HEADER_BYTES, profiles.values(),
+                    commitPayload(watermark, inputOffset, inputChecksum, profiles.size()));
+            out.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        // Only switch channels once the compacted log is in place; the old one now refers to the replaced file
+        FileChannel previous = channel;
+        try {
+            channel = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            channel = null;
+            throw new IOException("Cannot reopen compacted profile store " + file + "; reopen the store", e);
+        } finally {
+            previous.close();
+        }
+        syncDirectory(target.toAbsolutePath().getParent());
+        size = end;
+        logger.log(Level.INFO, "Compacted profile store " + file + " from " + before + " to " + size + " bytes");
+    }
+
+    /**
+     * Makes the rename of a compacted log durable where the platform allows syncing a directory.
+     */
+    private static void syncDirectory(Path directory) {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Cannot sync directory " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private byte[] encode(Reviewer reviewer) {
+        ReviewerStats stats = reviewer.getStats();
+        LatencyHistogram latency = stats.getLatency();
+        WindowedStats recent = stats.getRecent();
+        if (!recent.getWindow().equals(window)) {
+            throw new IllegalArgumentException("Reviewer " + reviewer.getReviewerId() + " uses window " +
+                    recent.getWindow() + " but the store uses " + window);
+        }
+        long[] latencyCounts = latency.getBucketCounts();
+        int[] windowCounts = recent.getBucketCounts();
+        long[] windowSums = recent.getBucketSums();
+        byte[] id = reviewer.getReviewerId().getBytes(StandardCharsets.UTF_8);
+        String explanationText = reviewer.getExplanation();
+        byte[] explanation = (explanationText == null ? "" : explanationText).getBytes(StandardCharsets.UTF_8);
+
+        int length = 1 + 4 + id.length + 4 * 8 + 4 + 1 + 4 + explanation.length + 8
+                + (latencyCounts.length + windowCounts.length + windowSums.length) * MAX_VAR_BYTES + 4 * 8;
+        if (scratch.capacity() < length) {
+            scratch = ByteBuffer.allocate(Math.max(length, scratch.capacity() * 2)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        ByteBuffer out = scratch;
+        out.clear();
+        out.put(PROFILE);
+        out.putInt(id.length);
+        out.put(id);
+        out.putLong(stats.getValidCount());
+        out.putLong(stats.getSumTimeToReview());
+        out.putLong(stats.getMinTimeToReview());
+        out.putLong(stats.getMaxTimeToReview());
+        out.putInt(stats.getPastReviewsCount());
+        byte flags = 0;
+        if (stats.hasTeamFamiliarity()) {
+            flags |= FLAG_TEAM_FAMILIARITY;
+        }
+        if (stats.hasContextualKnowledge()) {
+            flags |= FLAG_CONTEXTUAL_KNOWLEDGE;
+        }
+        if (reviewer.isEarlyReviewer()) {
+            flags |= FLAG_EARLY_REVIEWER;
+        }
+        out.put(flags);
+        out.putInt(explanation.length);
+        out.put(explanation);
+        out.putInt(latency.getBucketOffset());
+        out.putInt(latencyCounts.length);
+        for (long count : latencyCounts) {
+            putVar(out, count);
+        }
+        out.putLong(recent.getHeadBucket());
+        out.putLong(recent.getLatestTimestamp());
+        out.putDouble(recent.getDecayedWeight());
+        out.putDouble(recent.getDecayedSum());
+        for (int count : windowCounts) {
+            putVar(out, count);
+        }
+        for (long sum : windowSums) {
+            putVar(out, sum);
+        }
+        return Arrays.copyOf(out.array(), out.position());
+    }
+
+    private static String profileId(byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload).order(ByteOrder.LITTLE_ENDIAN);
+        in.get();
+        return getString(in);
+    }
+
+    private Reviewer decode(byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            in.get();
+            String reviewerId = getString(in);
+            long validCount = in.getLong();
+            long sum = in.getLong();
+            long min = in.getLong();
+            long max = in.getLong();
+            int pastReviewsCount = in.getInt();
+            byte flags = in.get();
+            String explanation = getString(in);
+            int bucketOffset = in.getInt();
+            long[] latencyCounts = new long[in.getInt()];
+            for (int i = 0; i < latencyCounts.length; i++) {
+                latencyCounts[i] = getVar(in);
+            }
+            long headBucket = in.getLong();
+            long latestTimestamp = in.getLong();
+            double decayedWeight = in.getDouble();
+            double decayedSum = in.getDouble();
+            int[] windowCounts = new int[window.getBucketCount()];
+            for (int i = 0; i < windowCounts.length; i++) {
+                windowCounts[i] = (int) getVar(in);
+            }
+            long[] windowSums = new long[window.getBucketCount()];
+            for (int i = 0; i < windowSums.length; i++) {
+                windowSums[i] = getVar(in);
+            }
+
+            ReviewerStats stats = new ReviewerStats(validCount, sum, min, max, pastReviewsCount,
+                    (flags & FLAG_TEAM_FAMILIARITY) != 0, (flags & FLAG_CONTEXTUAL_KNOWLEDGE) != 0,
+                    new LatencyHistogram(bucketOffset, latencyCounts, min, max),
+                    new WindowedStats(window, headBucket, windowCounts, windowSums, decayedWeight, decayedSum,
+                            latestTimestamp));
+            Reviewer reviewer = new Reviewer(reviewerId, stats);
+            reviewer.computeStatistics();
+            reviewer.setEarlyReviewer((flags & FLAG_EARLY_REVIEWER) != 0);
+            reviewer.setExplanation(explanation);
+            return reviewer;
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            // Checksums make this a bug in encode rather than a damaged file
+            throw new IllegalStateException("Malformed profile in " + file, e);
+        }
+    }
+
+    private static void putVar(ByteBuffer out, long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.put((byte) (zigzag | 0x80));
+            zigzag >>>= 7;
+        }
+        out.put((byte) zigzag);
+    }
+
+    private static long getVar(ByteBuffer in) {
+        long zigzag = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+            if (shift >= 63) {
+                throw new IllegalStateException("Varint too long");
+            }
+        }
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Closes the log and releases the lock; committed profiles are already durable.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            try {
+                if (lock.isValid()) {
+                    lock.release();
+                }
+            } finally {
+                lockChannel.close();
+            }
+        }
+    }
+}
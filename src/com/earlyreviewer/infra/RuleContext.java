@@ -0,0 +1,99 @@
+package com.earlyreviewer.infra;
+
+import com.earlyreviewer.domain.LatencyHistogram;
+import com.earlyreviewer.domain.Reviewer;
+import com.earlyreviewer.domain.ReviewerFeatures;
+import com.earlyreviewer.domain.WindowedStats;
+
+/**
+ * RuleContext holds the reviewer features a compiled prediction rule can read.
+ * A single instance is refilled for each reviewer so evaluation does not allocate; the global
+ * values are set once per prediction run.
+ */
+final class RuleContext {
+    double avgTime;
+    double globalAverage;
+    int pastReviewsCount;
+    int validCount;
+    boolean experienced;
+    boolean teamFamiliarity;
+    boolean contextualKnowledge;
+    double p50Time;
+    double p90Time;
+    double p99Time;
+    double windowAvgTime;
+    int windowCount;
+    double decayedAvgTime;
+    // NaN when no global latency histogram or window is available, so comparisons against them are false
+    double globalP50Time = Double.NaN;
+    double globalP90Time = Double.NaN;
+    double globalP99Time = Double.NaN;
+    double globalWindowAverage = Double.NaN;
+    double globalDecayedAverage = Double.NaN;
+
+    /**
+     * Sets the values shared by all reviewers of a prediction run.
+     *
+     * @param globalLatency Latency histogram over all valid records, or null if unavailable
+     * @param globalWindow Windowed statistics over all valid records, or null if unavailable
+     */
+    RuleContext global(double globalAverageTime, LatencyHistogram globalLatency, WindowedStats globalWindow) {
+        this.globalAverage = globalAverageTime;
+        if (globalLatency != null && globalLatency.getTotalCount() > 0) {
+            this.globalP50Time = globalLatency.getP50();
+            this.globalP90Time = globalLatency.getP90();
+            this.globalP99Time = globalLatency.getP99();
+        } else {
+            this.globalP50Time = Double.NaN;
+            this.globalP90Time = Double.NaN;
+            this.globalP99Time = Double.NaN;
+        }
+        if (globalWindow != null) {
+            this.globalWindowAverage = globalWindow.getWindowAverage();
+            this.globalDecayedAverage = globalWindow.getDecayedAverage();
+        } else {
+            this.globalWindowAverage = Double.NaN;
+            this.globalDecayedAverage = Double.NaN;
+        }
+        return this;
+    }
+
+    /**
+     * Loads the features of a reviewer whose statistics have been computed.
+     */
+    RuleContext load(Reviewer reviewer) {
+        this.avgTime = reviewer.getAverageTimeToReview();
+        this.pastReviewsCount = reviewer.getPastReviewsCount();
+        this.validCount = reviewer.getValidRecordCount();
+        this.experienced = reviewer.isExperienced();
+        this.teamFamiliarity = reviewer.hasTeamFamiliarity();
+        this.contextualKnowledge = reviewer.hasContextualKnowledge();
+        this.p50Time = reviewer.getMedianTimeToReview();
+        this.p90Time = reviewer.getP90TimeToReview();
+        this.p99Time = reviewer.getP99TimeToReview();
+        this.windowAvgTime = reviewer.getWindowAverageTimeToReview();
+        this.windowCount = reviewer.getWindowReviewCount();
+        this.decayedAvgTime = reviewer.getDecayedAverageTimeToReview();
+        return this;
+    }
+
+    /**
+     * Loads the features stored at one index of a struct-of-arrays batch.
+     */
+    RuleContext load(ReviewerFeatures features, int index) {
+        byte flags = features.getFlags()[index];
+        this.avgTime = features.getAvgTimes()[index];
+        this.pastReviewsCount = features.getPastReviewsCounts()[index];
+        this.validCount = features.getValidCounts()[index];
+        this.experienced = (flags & ReviewerFeatures.EXPERIENCED) != 0;
+        this.teamFamiliarity = (flags & ReviewerFeatures.TEAM_FAMILIARITY) != 0;
+        this.contextualKnowledge = (flags & ReviewerFeatures.CONTEXTUAL_KNOWLEDGE) != 0;
+        this.p50Time = features.getP50Times()[index];
+        this.p90Time = features.getP90Times()[index];
+        this.p99Time = features.getP99Times()[index];
+        this.windowAvgTime = features.getWindowAvgTimes()[index];
+        this.windowCount = features.getWindowCounts()[index];
+        this.decayedAvgTime = features.getDecayedAvgTimes()[index];
+        return this;
+    }
+}
@@ -0,0 +1,33 @@
+package com.earlyreviewer.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counter is a monotonically increasing count, e.g. records parsed. Increments accumulate in
+ * LongAdder cells so threads updating the same counter do not contend; hot loops should still
+ * count in a local variable and add the total once per batch.
+ */
+public final class Counter {
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        value.increment();
+    }
+
+    /**
+     * @param amount Non-negative amount to add
+     */
+    public void add(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Counters only increase but got " + amount);
+        }
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+}
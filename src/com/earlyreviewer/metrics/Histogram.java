@@ -0,0 +1,86 @@
+package com.earlyreviewer.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram counts recorded values in fixed buckets with inclusive upper bounds, plus an overflow
+ * bucket, and keeps their sum. Timers are histograms of nanosecond durations exposed in seconds.
+ * Each bucket accumulates in LongAdder cells, so recording from many threads does not contend.
+ */
+public final class Histogram {
+    private final long[] upperBounds;
+    private final LongAdder[] buckets;
+    private final LongAdder sum;
+    // Recorded values are divided by this when exposed, e.g. 1e9 to show nanoseconds as seconds
+    private final double unitScale;
+
+    Histogram(long[] upperBounds, double unitScale) {
+        for (int i = 1; i < upperBounds.length; i++) {
+            if (upperBounds[i] <= upperBounds[i - 1]) {
+                throw new IllegalArgumentException("Bucket bounds must increase: " + Arrays.toString(upperBounds));
+            }
+        }
+        this.upperBounds = upperBounds.clone();
+        this.buckets = new LongAdder[upperBounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+        this.sum = new LongAdder();
+        this.unitScale = unitScale;
+    }
+
+    public void record(long value) {
+        int low = 0;
+        int high = upperBounds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (upperBounds[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        buckets[low].increment();
+        sum.add(value);
+    }
+
+    /**
+     * Records the time elapsed since a System.nanoTime() reading; for timers.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    // Getters
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Count per bucket, the last one counting values above every bound.
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    public long[] getUpperBounds() {
+        return upperBounds.clone();
+    }
+
+    public double getUnitScale() {
+        return unitScale;
+    }
+}
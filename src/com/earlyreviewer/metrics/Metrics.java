@@ -0,0 +1,41 @@
+package com.earlyreviewer.metrics;
+
+/**
+ * Metrics is the shorthand for creating pipeline metrics in the default registry, used like
+ * LoggerUtil.getLogger for static fields. Metric names start with earlyreviewer_.
+ *
+ * Durations of the analysis stages share the earlyreviewer_stage_seconds timer, labelled by
+ * stage: parse, aggregate, predict, update and export.
+ */
+public class Metrics {
+    public static final String STAGE_SECONDS = "earlyreviewer_stage_seconds";
+
+    public static Counter counter(String name, String help, String... labels) {
+        return MetricsRegistry.getDefault().counter(name, help, labels);
+    }
+
+    public static Histogram timer(String name, String help, String... labels) {
+        return MetricsRegistry.getDefault().timer(name, help, labels);
+    }
+
+    /**
+     * Returns the counter of result rows exported in a format such as csv, csv.gz or columnar.
+     */
+    public static Counter exportRows(String format) {
+        return counter("earlyreviewer_export_rows_total", "Reviewer result rows exported", "format", format);
+    }
+
+    /**
+     * Returns the counter of bytes written by exports in a format.
+     */
+    public static Counter exportBytes(String format) {
+        return counter("earlyreviewer_export_bytes_total", "Bytes written by result exports", "format", format);
+    }
+
+    /**
+     * Returns the timer of one analysis stage.
+     */
+    public static Histogram stageTimer(String stage) {
+        return timer(STAGE_SECONDS, "Time spent per call of an analysis stage", "stage", stage);
+    }
+}
@@ -0,0 +1,161 @@
+package com.earlyreviewer.metrics;
+
+import com.earlyreviewer.util.LoggerUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.JMException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * MetricsExporter publishes a registry in the Prometheus text format: over HTTP at /metrics on a
+ * local port, and/or by periodically rewriting a file (e.g. for node_exporter's textfile
+ * collector). The file is replaced atomically, so readers never see a partial dump.
+ *
+ * startFromSystemProperties configures it from earlyreviewer.metrics.port,
+ * earlyreviewer.metrics.file and earlyreviewer.metrics.intervalSeconds (default 15), and also
+ * registers the registry over JMX.
+ */
+public class MetricsExporter implements AutoCloseable {
+    private static final Logger logger = LoggerUtil.getLogger(MetricsExporter.class);
+
+    public static final String PORT_PROPERTY = "earlyreviewer.metrics.port";
+    public static final String FILE_PROPERTY = "earlyreviewer.metrics.file";
+    public static final String INTERVAL_PROPERTY = "earlyreviewer.metrics.intervalSeconds";
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry registry;
+    private final HttpServer server;
+    private final File file;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Starts exporting; each output is optional.
+     *
+     * @param registry Registry to export
+     * @param port Local port to serve /metrics on, 0 for any free port, or -1 for no HTTP server
+     * @param file File to rewrite periodically, or null for none
+     * @param intervalSeconds Seconds between file dumps
+     * @throws IOException if the port cannot be bound
+     */
+    public MetricsExporter(MetricsRegistry registry, int port, File file, long intervalSeconds) throws IOException {
+        if (file != null && intervalSeconds <= 0) {
+            throw new IllegalArgumentException("Dump interval must be positive but was " + intervalSeconds);
+        }
+        this.registry = registry;
+        this.file = file;
+        if (port >= 0) {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/metrics", this::handleMetrics);
+            server.start();
+            logger.log(Level.INFO, "Serving metrics on port " + getPort());
+        } else {
+            server = null;
+        }
+        if (file != null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(this::dumpQuietly, 0, intervalSeconds, TimeUnit.SECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Registers the default registry over JMX and starts the exports named by system properties.
+     * The exporter is closed by a shutdown hook, so a dump file ends with the run's totals.
+     *
+     * @return The running exporter, or null if no port or file is configured
+     * @throws IOException if the port cannot be bound
+     */
+    public static MetricsExporter startFromSystemProperties() throws IOException {
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        try {
+            registry.registerMBean();
+        } catch (JMException e) {
+            logger.log(Level.WARNING, "Cannot register metrics MBean: " + e.getMessage());
+        }
+        Integer port = Integer.getInteger(PORT_PROPERTY);
+        String path = System.getProperty(FILE_PROPERTY);
+        if (port == null && path == null) {
+            return null;
+        }
+        MetricsExporter exporter = new MetricsExporter(registry, port == null ? -1 : port,
+                path == null ? null : new File(path), Long.getLong(INTERVAL_PROPERTY, 15));
+        Runtime.getRuntime().addShutdownHook(new Thread(exporter::close, "metrics-shutdown"));
+        return exporter;
+    }
+
+    /**
+     * Port the HTTP endpoint listens on, or -1 without one.
+     */
+    public int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    /**
+     * Writes the current metrics to the dump file, replacing it atomically.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public void dump() throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                registry.writePrometheus(writer);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void dumpQuietly() {
+        try {
+            dump();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to write metrics to " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        byte[] body = registry.toPrometheusText().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Stops serving and writes a final dump, so the file holds the totals of the run.
+     */
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            dumpQuietly();
+        }
+    }
+}
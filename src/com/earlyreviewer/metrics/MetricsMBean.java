@@ -0,0 +1,81 @@
+package com.earlyreviewer.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MetricsMBean exposes a registry over JMX with one read-only attribute per metric value, named
+ * like its exposition line, plus a PrometheusText attribute holding the whole exposition.
+ * The attribute list is rebuilt on every request, so metrics created later show up as well.
+ */
+final class MetricsMBean implements DynamicMBean {
+    private static final String PROMETHEUS_TEXT = "PrometheusText";
+
+    private final MetricsRegistry registry;
+
+    MetricsMBean(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        if (PROMETHEUS_TEXT.equals(attribute)) {
+            return registry.toPrometheusText();
+        }
+        Number value = registry.values().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException("No metric " + attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Number> values = registry.values();
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            if (PROMETHEUS_TEXT.equals(attribute)) {
+                list.add(new Attribute(attribute, registry.toPrometheusText()));
+            } else if (values.containsKey(attribute)) {
+                list.add(new Attribute(attribute, values.get(attribute)));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException("No operation " + actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        attributes.add(new MBeanAttributeInfo(PROMETHEUS_TEXT, String.class.getName(),
+                "All metrics in Prometheus text format", true, false, false));
+        for (Map.Entry<String, Number> entry : registry.values().entrySet()) {
+            attributes.add(new MBeanAttributeInfo(entry.getKey(), entry.getValue().getClass().getName(),
+                    entry.getKey(), true, false, false));
+        }
+        return new MBeanInfo(MetricsMBean.class.getName(), "Early reviewer pipeline metrics",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[0], null);
+    }
+}
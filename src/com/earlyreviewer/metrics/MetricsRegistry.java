@@ -0,0 +1,236 @@
+package com.earlyreviewer.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * MetricsRegistry holds named counters and histograms, optionally split by label values, and
+ * renders them in the Prometheus text exposition format.
+ *
+ * Metrics are created once, typically in static fields next to a class's logger, and updated
+ * without any registry lookup. Requesting the same name and labels again returns the same metric.
+ */
+public final class MetricsRegistry {
+    public static final String OBJECT_NAME = "com.earlyreviewer:type=Metrics";
+
+    private static final Pattern NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final String COUNTER = "counter";
+    private static final String HISTOGRAM = "histogram";
+    private static final double NANOS_PER_SECOND = 1e9;
+    // Timer bucket bounds from 100 microseconds to 5 minutes
+    private static final long[] TIMER_BOUNDS_NANOS = {100_000L, 250_000L, 500_000L, 1_000_000L, 2_500_000L,
+            5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L, 100_000_000L, 250_000_000L, 500_000_000L,
+            1_000_000_000L, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L, 30_000_000_000L, 60_000_000_000L,
+            300_000_000_000L};
+
+    private static final MetricsRegistry defaultRegistry = new MetricsRegistry();
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    /**
+     * Metrics of one name: shared help text and type, one metric per label set.
+     */
+    private static final class Family {
+        final String name;
+        final String help;
+        final String type;
+        final Map<String, Object> metrics = new ConcurrentSkipListMap<>();
+
+        Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    /**
+     * Returns the registry the pipeline's metrics live in.
+     */
+    public static MetricsRegistry getDefault() {
+        return defaultRegistry;
+    }
+
+    /**
+     * Returns the counter with the given name and labels, creating it if needed.
+     *
+     * @param name Prometheus metric name, by convention ending in _total
+     * @param help Description shown in the exposition; the first registration's text is kept
+     * @param labels Alternating label names and values
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) register(name, help, COUNTER, labels, Counter::new);
+    }
+
+    /**
+     * Returns the timer with the given name and labels, a histogram of durations recorded in
+     * nanoseconds and exposed in seconds.
+     *
+     * @param name Prometheus metric name, by convention ending in _seconds
+     */
+    public Histogram timer(String name, String help, String... labels) {
+        return (Histogram) register(name, help, HISTOGRAM, labels,
+                () -> new Histogram(TIMER_BOUNDS_NANOS, NANOS_PER_SECOND));
+    }
+
+    /**
+     * Returns the histogram with the given name and labels; bounds apply when it is created.
+     *
+     * @param upperBounds Increasing inclusive bucket bounds
+     */
+    public Histogram histogram(String name, String help, long[] upperBounds, String... labels) {
+        return (Histogram) register(name, help, HISTOGRAM, labels, () -> new Histogram(upperBounds, 1));
+    }
+
+    private Object register(String name, String help, String type, String[] labels, Supplier<Object> factory) {
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid metric name '" + name + "'");
+        }
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type);
+        }
+        return family.metrics.computeIfAbsent(formatLabels(labels), key -> factory.get());
+    }
+
+    /**
+     * Formats label pairs as {a="x",b="y"}, or an empty string without labels.
+     */
+    private static String formatLabels(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        }
+        if (labels.length == 0) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (!NAME.matcher(labels[i]).matches() || labels[i].contains(":")) {
+                throw new IllegalArgumentException("Invalid label name '" + labels[i] + "'");
+            }
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(labels[i]).append("=\"");
+            String value = labels[i + 1];
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                if (ch == '\\' || ch == '"') {
+                    text.append('\\').append(ch);
+                } else if (ch == '\n') {
+                    text.append("\\n");
+                } else {
+                    text.append(ch);
+                }
+            }
+            text.append('"');
+        }
+        return text.append('}').toString();
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format (version 0.0.4).
+     */
+    public void writePrometheus(Appendable out) throws IOException {
+        for (Family family : families.values()) {
+            out.append("# HELP ").append(family.name).append(' ')
+                    .append(family.help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> entry : family.metrics.entrySet()) {
+                String labels = entry.getKey();
+                if (entry.getValue() instanceof Counter) {
+                    out.append(family.name).append(labels).append(' ')
+                            .append(Long.toString(((Counter) entry.getValue()).get())).append('\n');
+                } else {
+                    writeHistogram(out, family.name, labels, (Histogram) entry.getValue());
+                }
+            }
+        }
+    }
+
+    private static void writeHistogram(Appendable out, String name, String labels, Histogram histogram)
+            throws IOException {
+        long[] bounds = histogram.getUpperBounds();
+        long[] counts = histogram.getBucketCounts();
+        double scale = histogram.getUnitScale();
+        // Bucket labels go after the metric's own labels
+        String prefix = labels.isEmpty() ? "{" : labels.substring(0, labels.length() - 1) + ",";
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            String bound = i < bounds.length ? formatNumber(bounds[i] / scale) : "+Inf";
+            out.append(name).append("_bucket").append(prefix).append("le=\"").append(bound).append("\"} ")
+                    .append(Long.toString(cumulative)).append('\n');
+        }
+        out.append(name).append("_sum").append(labels).append(' ')
+                .append(formatNumber(histogram.getSum() / scale)).append('\n');
+        out.append(name).append("_count").append(labels).append(' ').append(Long.toString(cumulative)).append('\n');
+    }
+
+    private static String formatNumber(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        // Plain decimals, e.g. 0.0001 rather than 1.0E-4
+        return BigDecimal.valueOf(value).toPlainString();
+    }
+
+    /**
+     * Returns the Prometheus text exposition of every metric.
+     */
+    public String toPrometheusText() {
+        StringBuilder text = new StringBuilder();
+        try {
+            writePrometheus(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Returns the current value of every counter, and the count and sum of every histogram, keyed
+     * like their exposition lines, e.g. earlyreviewer_parse_records_total or
+     * earlyreviewer_stage_seconds_count{stage="parse"}.
+     */
+    public Map<String, Number> values() {
+        Map<String, Number> values = new LinkedHashMap<>();
+        for (Family family : families.values()) {
+            for (Map.Entry<String, Object> entry : family.metrics.entrySet()) {
+                if (entry.getValue() instanceof Counter) {
+                    values.put(family.name + entry.getKey(), ((Counter) entry.getValue()).get());
+                } else {
+                    Histogram histogram = (Histogram) entry.getValue();
+                    values.put(family.name + "_count" + entry.getKey(), histogram.getCount());
+                    values.put(family.name + "_sum" + entry.getKey(), histogram.getSum() / histogram.getUnitScale());
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Exposes this registry on the platform MBean server under OBJECT_NAME, one read-only
+     * attribute per value. Does nothing if a registry is already registered there.
+     *
+     * @throws JMException if registration fails
+     */
+    public void registerMBean() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName(OBJECT_NAME);
+        synchronized (MetricsRegistry.class) {
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(new MetricsMBean(this), objectName);
+            }
+        }
+    }
+}
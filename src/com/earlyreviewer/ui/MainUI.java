@@ -1,41 +1,63 @@
 package com.earlyreviewer.ui;
 
-import com.earlyreviewer.domain.ReviewRecord;
-import com.earlyreviewer.infra.CSVParser;
+import com.earlyreviewer.usecase.ReviewerAnalysis;
 import com.earlyreviewer.usecase.ReviewerAnalyzer;
 import com.earlyreviewer.domain.Reviewer;
+import com.earlyreviewer.infra.ColumnarResults;
+import com.earlyreviewer.metrics.MetricsExporter;
 import com.earlyreviewer.util.CSVExporter;
 import com.earlyreviewer.util.LoggerUtil;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.io.File;
 import java.io.IOException;
-import java.util.*;
-import java.util.List;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * MainUI provides the Swing-based desktop interface for the Early Reviewer Prediction Tool.
  * Handles user interactions: CSV upload, prediction, export, and results display.
+ * Analysis, prediction, sorting and export run on SwingWorker threads so the window stays
+ * responsive; the event dispatch thread only updates the progress bar and installs results.
+ * The table reads reviewers lazily through ReviewerTableModel; click a column header to sort,
+ * and filter by ID prefix or to early reviewers only. Filtered rows are computed on a worker too,
+ * once typing in the search field pauses.
  */
 public class MainUI extends JFrame {
     private static final Logger logger = LoggerUtil.getLogger(MainUI.class);
-    
+
+    // Share of the progress bar used by parsing; the rest fills while reviewers are sorted
+    private static final int PARSE_PROGRESS = 90;
+    // Typing pause after which the search field is applied
+    private static final int FILTER_DELAY_MILLIS = 200;
+
     private JButton uploadButton;
     private JButton predictButton;
     private JButton exportButton;
+    private JButton cancelButton;
+    private JProgressBar progressBar;
+    private JTextField searchField;
+    private JCheckBox earlyOnlyBox;
     private JTable resultsTable;
+    private ReviewerTableModel tableModel;
     private JTextArea summaryPanel;
     private JFileChooser fileChooser;
-    private Map<String, Reviewer> currentReviewers;
-    private File currentFile;
+    private ReviewerAnalysis currentAnalysis;
+    private boolean predicted;
+    private SwingWorker<?, ?> activeWorker;
+    private Timer filterTimer;
+    private FilterWorker filterWorker;
 
     public MainUI() {
         initializeUI();
-        currentReviewers = new HashMap<>();
         fileChooser = new JFileChooser();
         fileChooser.setFileFilter(new javax.swing.filechooser.FileFilter() {
             @Override
@@ -77,9 +99,58 @@ public class MainUI extends JFrame {
         exportButton.addActionListener(e -> handleExport());
         buttonPanel.add(exportButton);
 
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        buttonPanel.add(progressBar);
+
+        cancelButton = new JButton("Cancel");
+        cancelButton.setEnabled(false);
+        cancelButton.addActionListener(e -> handleCancel());
+        buttonPanel.add(cancelButton);
+
+        // Filter controls; the search field is applied once typing pauses
+        buttonPanel.add(new JLabel("Search ID:"));
+        searchField = new JTextField(12);
+        filterTimer = new Timer(FILTER_DELAY_MILLIS, e -> applyFilter());
+        filterTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                filterTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                filterTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                filterTimer.restart();
+            }
+        });
+        buttonPanel.add(searchField);
+
+        earlyOnlyBox = new JCheckBox("Early reviewers only");
+        earlyOnlyBox.addActionListener(e -> applyFilter());
+        buttonPanel.add(earlyOnlyBox);
+
         // Results table
-        resultsTable = new JTable();
+        tableModel = new ReviewerTableModel();
+        resultsTable = new JTable(tableModel);
         resultsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        resultsTable.getColumnModel().getColumn(ReviewerTableModel.EXPLANATION_COLUMN).setPreferredWidth(200);
+        resultsTable.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = resultsTable.convertColumnIndexToModel(
+                        resultsTable.getTableHeader().columnAtPoint(e.getPoint()));
+                if (column >= 0) {
+                    handleSort(column);
+                }
+            }
+        });
         JScrollPane tableScrollPane = new JScrollPane(resultsTable);
 
         // Summary panel
@@ -99,124 +170,403 @@ public class MainUI extends JFrame {
     }
 
     /**
-     * Handles CSV file upload via file chooser.
+     * Handles CSV file upload via file chooser; the file is analyzed in the background.
      */
     private void handleUploadCSV() {
         int result = fileChooser.showOpenDialog(this);
         if (result == JFileChooser.APPROVE_OPTION) {
-            currentFile = fileChooser.getSelectedFile();
-            try {
-                List<ReviewRecord> records = CSVParser.parse(currentFile);
-                currentReviewers = ReviewerAnalyzer.process(records);
-                displayReviewers();
-                predictButton.setEnabled(true);
-                exportButton.setEnabled(false);
-                summaryPanel.setText("Loaded " + currentReviewers.size() + " reviewers. Click 'Predict Early Reviewers' to analyze.");
-                logger.log(Level.INFO, "Loaded file: " + currentFile.getAbsolutePath());
-            } catch (IOException e) {
-                showError("Error loading CSV file: " + e.getMessage());
-                logger.log(Level.SEVERE, "Failed to load CSV", e);
-            }
+            File file = fileChooser.getSelectedFile();
+            currentAnalysis = null;
+            predicted = false;
+            tableModel.clear();
+            summaryPanel.setText("Analyzing " + file.getName() + "...");
+            start(new AnalysisWorker(file, currentFilter()), "Parsing");
         }
     }
 
     /**
-     * Handles prediction button click - reruns analyzer.
+     * Handles prediction button click - re-runs the prediction rules on the loaded analysis.
      */
     private void handlePredict() {
-        if (currentReviewers.isEmpty()) {
+        if (currentAnalysis == null || currentAnalysis.getReviewers().isEmpty()) {
             showError("No reviewers loaded.");
             return;
         }
+        start(new PredictWorker(currentAnalysis), "Predicting");
+    }
 
-        try {
-            // Refresh predictions
-            List<ReviewRecord> records = CSVParser.parse(currentFile);
-            currentReviewers = ReviewerAnalyzer.process(records);
-            displayReviewers();
-            updateSummary();
-            exportButton.setEnabled(true);
-            logger.log(Level.INFO, "Prediction analysis completed");
-        } catch (IOException e) {
-            showError("Error during prediction: " + e.getMessage());
-            logger.log(Level.SEVERE, "Prediction failed", e);
+    /**
+     * Handles export to CSV file; the file is written in the background. The chooser offers to
+     * append each reviewer's p50/p90/p99 review times to a CSV export.
+     */
+    private void handleExport() {
+        JFileChooser exportChooser = new JFileChooser();
+        exportChooser.setSelectedFile(new File("early_reviewers_results.csv"));
+        exportChooser.setFileFilter(new javax.swing.filechooser.FileFilter() {
+            @Override
+            public boolean accept(File f) {
+                String name = f.getName();
+                return f.isDirectory() || name.endsWith(".csv") || name.endsWith(".csv.gz") ||
+                        name.endsWith(ColumnarResults.FILE_EXTENSION);
+            }
+
+            @Override
+            public String getDescription() {
+                return "CSV Files (*.csv, *.csv.gz) or columnar results (*" + ColumnarResults.FILE_EXTENSION + ")";
+            }
+        });
+
+        JCheckBox percentilesBox = new JCheckBox("Include p50/p90/p99 review times (CSV)");
+        exportChooser.setAccessory(percentilesBox);
+
+        int result = exportChooser.showSaveDialog(this);
+        if (result == JFileChooser.APPROVE_OPTION) {
+            start(new ExportWorker(currentAnalysis, exportChooser.getSelectedFile(), percentilesBox.isSelected()),
+                    "Exporting");
         }
     }
 
     /**
-     * Displays reviewers in the table.
+     * Sorts the table by a column, toggling the direction when it is already sorted by it.
      */
-    private void displayReviewers() {
-        String[] columns = {"Reviewer ID", "Avg Time (s)", "Past Reviews", "Experience",
-                "Team Familiarity", "Contextual Knowledge", "Early Reviewer", "Explanation"};
+    private void handleSort(int column) {
+        if (activeWorker != null || tableModel.getReviewerCount() == 0) {
+            return;
+        }
+        boolean ascending = column != tableModel.getSortColumn() || !tableModel.isAscending();
+        start(new SortWorker(tableModel.getReviewers(), column, ascending, currentFilter()), "Sorting");
+    }
+
+    private ReviewerTableModel.Filter currentFilter() {
+        return new ReviewerTableModel.Filter(earlyOnlyBox.isSelected(), searchField.getText().trim());
+    }
 
-        DefaultTableModel model = new DefaultTableModel(columns, 0);
+    /**
+     * Brings the table in line with the filter controls. Rows are computed on a FilterWorker; while
+     * it or another worker runs, the filter is applied again once they are done.
+     */
+    private void applyFilter() {
+        if (filterWorker != null || activeWorker != null) {
+            return;
+        }
+        ReviewerTableModel.Filter filter = currentFilter();
+        if (!filter.equals(tableModel.getFilter())) {
+            refilter(filter);
+        }
+    }
 
-        // Sort reviewers by ID for consistent display
-        List<Reviewer> sortedReviewers = new ArrayList<>(currentReviewers.values());
-        sortedReviewers.sort((a, b) -> a.getReviewerId().compareTo(b.getReviewerId()));
+    /**
+     * Recomputes the rows of a filter for the current reviewers and order on a FilterWorker.
+     */
+    private void refilter(ReviewerTableModel.Filter filter) {
+        filterWorker = new FilterWorker(tableModel.getReviewers(), tableModel.getOrder(), filter);
+        updateButtons();
+        filterWorker.execute();
+    }
 
-        for (Reviewer reviewer : sortedReviewers) {
-            Object[] row = {
-                    reviewer.getReviewerId(),
-                    String.format("%.0f", reviewer.getAverageTimeToReview()),
-                    reviewer.getPastReviewsCount(),
-                    reviewer.isExperienced() ? "Experienced" : "Low",
-                    reviewer.hasTeamFamiliarity() ? "Yes" : "No",
-                    reviewer.hasContextualKnowledge() ? "Yes" : "No",
-                    reviewer.isEarlyReviewer() ? "YES" : "NO",
-                    reviewer.getExplanation()
-            };
-            model.addRow(row);
+    private void handleCancel() {
+        if (activeWorker != null) {
+            activeWorker.cancel(true);
         }
+    }
 
-        resultsTable.setModel(model);
-        // Adjust column widths
-        resultsTable.getColumnModel().getColumn(7).setPreferredWidth(200);
+    /**
+     * Runs a worker, showing its progress and disabling other actions until it is done.
+     */
+    private void start(SwingWorker<?, ?> worker, String status) {
+        activeWorker = worker;
+        progressBar.setValue(0);
+        progressBar.setString(status);
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                progressBar.setValue((Integer) e.getNewValue());
+            }
+        });
+        updateButtons();
+        worker.execute();
     }
 
     /**
-     * Updates the summary panel with statistics.
+     * Clears the active worker once it has finished, successfully or not.
      */
-    private void updateSummary() {
-        int[] summary = ReviewerAnalyzer.computeSummary(currentReviewers);
-        String text = String.format("Analysis Complete\n\nTotal Reviewers: %d\nEarly Reviewers: %d\nNot Early: %d",
-                summary[0], summary[1], summary[2]);
-        summaryPanel.setText(text);
+    private void finish(SwingWorker<?, ?> worker, String status) {
+        if (activeWorker == worker) {
+            activeWorker = null;
+        }
+        progressBar.setString(status);
+        updateButtons();
+        applyFilter();
+    }
+
+    private void updateButtons() {
+        boolean busy = activeWorker != null;
+        // Prediction rewrites the reviewers in place, so nothing else may read them for filtering
+        // meanwhile, and it cannot be cancelled part-way since repredict does not check for interrupts
+        boolean predicting = activeWorker instanceof PredictWorker;
+        uploadButton.setEnabled(!busy);
+        predictButton.setEnabled(!busy && filterWorker == null && currentAnalysis != null);
+        exportButton.setEnabled(!busy && currentAnalysis != null && predicted);
+        cancelButton.setEnabled(busy && !predicting);
+        searchField.setEnabled(!predicting);
+        earlyOnlyBox.setEnabled(!predicting);
     }
 
     /**
-     * Handles export to CSV file.
+     * Parses and analyzes a file and sorts the reviewers by ID for display.
      */
-    private void handleExport() {
-        JFileChooser exportChooser = new JFileChooser();
-        exportChooser.setDefaultFileName("early_reviewers_results.csv");
-        exportChooser.setFileFilter(new javax.swing.filechooser.FileFilter() {
-            @Override
-            public boolean accept(File f) {
-                return f.isDirectory() || f.getName().endsWith(".csv");
+    private class AnalysisWorker extends SwingWorker<ReviewerAnalysis, Void> {
+        private final File file;
+        private final ReviewerTableModel.Filter filter;
+        // Written by doInBackground; get() in done() makes them visible
+        private Reviewer[] reviewers;
+        private int[] rows;
+
+        AnalysisWorker(File file, ReviewerTableModel.Filter filter) {
+            this.file = file;
+            this.filter = filter;
+        }
+
+        @Override
+        protected ReviewerAnalysis doInBackground() throws Exception {
+            ReviewerAnalysis analysis = ReviewerAnalyzer.analyze(file, (bytesParsed, totalBytes) -> setProgress(
+                    totalBytes == 0 ? PARSE_PROGRESS : (int) (bytesParsed * PARSE_PROGRESS / totalBytes)));
+            if (isCancelled()) {
+                throw new InterruptedIOException("Analysis cancelled");
             }
 
-            @Override
-            public String getDescription() {
-                return "CSV Files (*.csv)";
+            // Sort reviewers by ID for consistent display
+            reviewers = analysis.getReviewers().values().toArray(new Reviewer[0]);
+            ReviewerTableModel.sortById(reviewers);
+            rows = ReviewerTableModel.filterRows(reviewers, null, filter);
+            setProgress(100);
+            return analysis;
+        }
+
+        @Override
+        protected void done() {
+            try {
+                currentAnalysis = get();
+                tableModel.setReviewers(reviewers, filter, rows);
+                summaryPanel.setText("Loaded " + currentAnalysis.getReviewers().size() +
+                        " reviewers. Click 'Predict Early Reviewers' to analyze.");
+                logger.log(Level.INFO, "Loaded file: " + file.getAbsolutePath());
+                finish(this, "Loaded");
+            } catch (CancellationException e) {
+                tableModel.clear();
+                summaryPanel.setText("Analysis of " + file.getName() + " cancelled.");
+                logger.log(Level.INFO, "Cancelled loading " + file.getAbsolutePath());
+                finish(this, "Cancelled");
+            } catch (InterruptedException | ExecutionException e) {
+                tableModel.clear();
+                summaryPanel.setText("Ready to analyze. Upload a CSV file to begin.");
+                finish(this, "Failed");
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                showError("Error loading CSV file: " + cause.getMessage());
+                logger.log(Level.SEVERE, "Failed to load CSV", cause);
             }
-        });
+        }
+    }
 
-        int result = exportChooser.showSaveDialog(this);
-        if (result == JFileChooser.APPROVE_OPTION) {
-            File outputFile = exportChooser.getSelectedFile();
+    /**
+     * Re-predicts the reviewers of the loaded analysis in place and computes the summary.
+     */
+    private class PredictWorker extends SwingWorker<int[], Void> {
+        private final ReviewerAnalysis analysis;
+        private final Reviewer[] reviewers;
+        private final int[] order;
+        private final int sortColumn;
+        private final boolean ascending;
+        private final ReviewerTableModel.Filter filter;
+        // Written by doInBackground: the new display order if the table is sorted by a prediction
+        // column, else null, and the filtered rows under the new predictions
+        private int[] newOrder;
+        private int[] rows;
+
+        PredictWorker(ReviewerAnalysis analysis) {
+            this.analysis = analysis;
+            this.reviewers = tableModel.getReviewers();
+            this.order = tableModel.getOrder();
+            this.sortColumn = tableModel.getSortColumn();
+            this.ascending = tableModel.isAscending();
+            this.filter = tableModel.getFilter();
+        }
+
+        @Override
+        protected int[] doInBackground() {
+            // The filter controls are disabled until done(); the table may paint a mix of old and
+            // new predictions until then
+            ReviewerAnalyzer.repredict(analysis);
+            if (sortColumn == ReviewerTableModel.EARLY_REVIEWER_COLUMN
+                    || sortColumn == ReviewerTableModel.EXPLANATION_COLUMN) {
+                newOrder = ReviewerTableModel.sortedOrder(reviewers, sortColumn, ascending);
+            }
+            rows = ReviewerTableModel.filterRows(reviewers, newOrder != null ? newOrder : order, filter);
+            return ReviewerAnalyzer.computeSummary(analysis.getReviewers());
+        }
+
+        @Override
+        protected void done() {
+            if (rows == null || tableModel.getReviewers() != reviewers) {
+                // Failed before the rows were computed; predictions may have changed anyway
+                if (filterWorker == null) {
+                    refilter(tableModel.getFilter());
+                }
+            } else if (newOrder != null) {
+                tableModel.setOrder(newOrder, sortColumn, ascending, filter, rows);
+            } else {
+                tableModel.setRows(filter, rows);
+            }
+            try {
+                updateSummary(get());
+                predicted = true;
+                logger.log(Level.INFO, "Prediction analysis completed");
+                finish(this, "Predicted");
+            } catch (InterruptedException | ExecutionException e) {
+                finish(this, "Failed");
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                showError("Error during prediction: " + cause.getMessage());
+                logger.log(Level.SEVERE, "Prediction failed", cause);
+            }
+        }
+    }
+
+    /**
+     * Computes the display order for a column sort without blocking the table.
+     */
+    private class SortWorker extends SwingWorker<int[], Void> {
+        private final Reviewer[] reviewers;
+        private final int column;
+        private final boolean ascending;
+        private final ReviewerTableModel.Filter filter;
+        // Written by doInBackground; get() in done() makes it visible
+        private int[] rows;
+
+        SortWorker(Reviewer[] reviewers, int column, boolean ascending, ReviewerTableModel.Filter filter) {
+            this.reviewers = reviewers;
+            this.column = column;
+            this.ascending = ascending;
+            this.filter = filter;
+        }
+
+        @Override
+        protected int[] doInBackground() {
+            int[] order = ReviewerTableModel.sortedOrder(reviewers, column, ascending);
+            rows = ReviewerTableModel.filterRows(reviewers, order, filter);
+            return order;
+        }
+
+        @Override
+        protected void done() {
             try {
-                CSVExporter.export(currentReviewers.values(), outputFile);
-                JOptionPane.showMessageDialog(this, "Results exported to: " + outputFile.getAbsolutePath());
+                int[] order = get();
+                if (tableModel.getReviewers() == reviewers) {
+                    tableModel.setOrder(order, column, ascending, filter, rows);
+                }
+                finish(this, "Sorted by " + tableModel.getColumnName(column));
+            } catch (CancellationException e) {
+                finish(this, "Cancelled");
+            } catch (InterruptedException | ExecutionException e) {
+                finish(this, "Failed");
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                logger.log(Level.SEVERE, "Sorting failed", cause);
+            }
+        }
+    }
+
+    /**
+     * Computes the rows of a filter without blocking the table; the result is dropped if the
+     * reviewers or their order changed meanwhile.
+     */
+    private class FilterWorker extends SwingWorker<int[], Void> {
+        private final Reviewer[] reviewers;
+        private final int[] order;
+        private final ReviewerTableModel.Filter filter;
+
+        FilterWorker(Reviewer[] reviewers, int[] order, ReviewerTableModel.Filter filter) {
+            this.reviewers = reviewers;
+            this.order = order;
+            this.filter = filter;
+        }
+
+        @Override
+        protected int[] doInBackground() {
+            return ReviewerTableModel.filterRows(reviewers, order, filter);
+        }
+
+        @Override
+        protected void done() {
+            filterWorker = null;
+            updateButtons();
+            try {
+                int[] rows = get();
+                if (tableModel.getReviewers() == reviewers && tableModel.getOrder() == order) {
+                    tableModel.setRows(filter, rows);
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                logger.log(Level.SEVERE, "Filtering failed", cause);
+            }
+            // The controls may have changed while filtering
+            applyFilter();
+        }
+    }
+
+    /**
+     * Writes the loaded analysis to a CSV file, gzip-compressed if its name ends with .gz, or to a
+     * columnar results file if it has the columnar extension.
+     */
+    private class ExportWorker extends SwingWorker<Void, Void> {
+        private final ReviewerAnalysis analysis;
+        private final File outputFile;
+        private final boolean includePercentiles;
+
+        ExportWorker(ReviewerAnalysis analysis, File outputFile, boolean includePercentiles) {
+            this.analysis = analysis;
+            this.outputFile = outputFile;
+            this.includePercentiles = includePercentiles;
+        }
+
+        @Override
+        protected Void doInBackground() throws Exception {
+            String name = outputFile.getName();
+            if (name.endsWith(ColumnarResults.FILE_EXTENSION)) {
+                ColumnarResults.of(analysis.getReviewers().values()).write(outputFile);
+            } else {
+                CSVExporter.exportParallel(analysis.getReviewers().values(), outputFile, includePercentiles,
+                        name.endsWith(".gz"));
+            }
+            return null;
+        }
+
+        @Override
+        protected void done() {
+            try {
+                get();
+                finish(this, "Exported");
+                JOptionPane.showMessageDialog(MainUI.this, "Results exported to: " + outputFile.getAbsolutePath());
                 logger.log(Level.INFO, "Exported results to: " + outputFile.getAbsolutePath());
-            } catch (IOException e) {
-                showError("Error exporting results: " + e.getMessage());
-                logger.log(Level.SEVERE, "Export failed", e);
+            } catch (CancellationException e) {
+                finish(this, "Cancelled");
+            } catch (InterruptedException | ExecutionException e) {
+                finish(this, "Failed");
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                showError("Error exporting results: " + cause.getMessage());
+                logger.log(Level.SEVERE, "Export failed", cause);
             }
         }
     }
 
+    /**
+     * Updates the summary panel with statistics.
+     *
+     * @param summary Array [totalReviewers, earlyReviewers, notEarlyReviewers]
+     */
+    private void updateSummary(int[] summary) {
+        String text = String.format("Analysis Complete\n\nTotal Reviewers: %d\nEarly Reviewers: %d\nNot Early: %d",
+                summary[0], summary[1], summary[2]);
+        summaryPanel.setText(text);
+    }
+
     /**
      * Shows an error dialog to the user.
      */
@@ -229,6 +579,11 @@ public class MainUI extends JFrame {
      */
     public static void main(String[] args) {
         LoggerUtil.initialize();
+        try {
+            MetricsExporter.startFromSystemProperties();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Cannot export metrics: " + e.getMessage());
+        }
         SwingUtilities.invokeLater(() -> {
             MainUI frame = new MainUI();
             frame.setVisible(true);
@@ -0,0 +1,392 @@
+package com.earlyreviewer.ui;
+
+import com.earlyreviewer.domain.Reviewer;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * ReviewerTableModel shows reviewers in the results table without copying them into rows.
+ * Cells are read from the Reviewer objects and formatted only when the table paints them.
+ * Reviewers are held sorted by ID, so a reviewer's index is its ID rank; other sort orders are an
+ * int permutation of those indexes, and filtering selects indexes into a second int array.
+ * Sorting and filtering therefore never create per-row objects, and with millions of reviewers
+ * the model costs at most 8 bytes per reviewer on top of the reviewers themselves.
+ *
+ * Sort orders and filtered rows can be computed off the event dispatch thread with sortedOrder
+ * and filterRows and installed with setOrder, setReviewers or setRows, so the event dispatch
+ * thread never scans the reviewers. Everything else must be called on the event dispatch thread.
+ */
+public class ReviewerTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    static final int ID_COLUMN = 0;
+    static final int AVERAGE_TIME_COLUMN = 1;
+    static final int EARLY_REVIEWER_COLUMN = 6;
+    static final int EXPLANATION_COLUMN = 7;
+
+    private static final String[] COLUMNS = {"Reviewer ID", "Avg Time (s)", "Past Reviews", "Experience",
+            "Team Familiarity", "Contextual Knowledge", "Early Reviewer", "Explanation"};
+
+    private static final Comparator<Reviewer> BY_ID = (a, b) -> a.getReviewerId().compareTo(b.getReviewerId());
+
+    // Sorted by reviewer ID
+    private Reviewer[] reviewers;
+    // Indexes into reviewers in display order, or null for ID order
+    private int[] order;
+    private int sortColumn;
+    private boolean ascending;
+    // Indexes of the rows shown, in display order
+    private int[] rows;
+    private Filter filter;
+
+    public ReviewerTableModel() {
+        this.reviewers = new Reviewer[0];
+        this.order = null;
+        this.sortColumn = ID_COLUMN;
+        this.ascending = true;
+        this.rows = new int[0];
+        this.filter = Filter.NONE;
+    }
+
+    /**
+     * Which reviewers the table shows; immutable.
+     */
+    public static final class Filter {
+        public static final Filter NONE = new Filter(false, "");
+
+        private final boolean earlyOnly;
+        private final String idPrefix;
+
+        /**
+         * @param earlyOnly Whether to show only predicted early reviewers
+         * @param idPrefix Case-sensitive prefix reviewer IDs must start with; empty for all
+         */
+        public Filter(boolean earlyOnly, String idPrefix) {
+            this.earlyOnly = earlyOnly;
+            this.idPrefix = idPrefix;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Filter)) {
+                return false;
+            }
+            Filter other = (Filter) o;
+            return earlyOnly == other.earlyOnly && idPrefix.equals(other.idPrefix);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(earlyOnly, idPrefix);
+        }
+    }
+
+    /**
+     * Sorts reviewers by ID in place, as setReviewers expects them. Can run on any thread.
+     */
+    public static void sortById(Reviewer[] reviewers) {
+        Arrays.sort(reviewers, BY_ID);
+    }
+
+    /**
+     * Shows a new set of reviewers in ID order.
+     *
+     * @param reviewers Reviewers sorted with sortById; the model keeps the array
+     * @param filter Filter the rows were computed for
+     * @param rows Result of filterRows for these reviewers in ID order
+     */
+    public void setReviewers(Reviewer[] reviewers, Filter filter, int[] rows) {
+        this.reviewers = reviewers;
+        this.order = null;
+        this.sortColumn = ID_COLUMN;
+        this.ascending = true;
+        setRows(filter, rows);
+    }
+
+    public void clear() {
+        setReviewers(new Reviewer[0], filter, new int[0]);
+    }
+
+    /**
+     * Installs a display order computed with sortedOrder for the current reviewers.
+     *
+     * @param filter Filter the rows were computed for
+     * @param rows Result of filterRows for the current reviewers in the new order
+     */
+    public void setOrder(int[] order, int column, boolean ascending, Filter filter, int[] rows) {
+        if (order != null && order.length != reviewers.length) {
+            throw new IllegalArgumentException("Order covers " + order.length + " rows but the model has " +
+                    reviewers.length);
+        }
+        this.order = order;
+        this.sortColumn = column;
+        this.ascending = ascending;
+        setRows(filter, rows);
+    }
+
+    /**
+     * Shows the rows selected by a filter in the current order, e.g. after the filter changed or
+     * the reviewers were re-predicted in place.
+     *
+     * @param filter Filter the rows were computed for
+     * @param rows Result of filterRows for the current reviewers and order
+     */
+    public void setRows(Filter filter, int[] rows) {
+        this.filter = filter;
+        this.rows = rows;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Selects the indexes of the reviewers matching a filter, in display order. Reads the
+     * reviewers only, so it can run on a background thread while the model shows them.
+     *
+     * @param reviewers Reviewers sorted with sortById
+     * @param order Display order from sortedOrder, or null for ID order
+     * @param filter Reviewers to keep
+     * @return Indexes into reviewers of the rows to show
+     */
+    public static int[] filterRows(Reviewer[] reviewers, int[] order, Filter filter) {
+        boolean earlyOnly = filter.earlyOnly;
+        String idPrefix = filter.idPrefix;
+        int[] rows = new int[reviewers.length];
+        int count = 0;
+        if (order == null) {
+            // ID order: matches of a prefix are one contiguous range
+            int from = 0;
+            int to = reviewers.length;
+            if (!idPrefix.isEmpty()) {
+                from = lowerBound(reviewers, idPrefix);
+                to = from;
+                while (to < reviewers.length && reviewers[to].getReviewerId().startsWith(idPrefix)) {
+                    to++;
+                }
+            }
+            for (int index = from; index < to; index++) {
+                if (!earlyOnly || reviewers[index].isEarlyReviewer()) {
+                    rows[count++] = index;
+                }
+            }
+        } else {
+            for (int index : order) {
+                Reviewer reviewer = reviewers[index];
+                if ((!earlyOnly || reviewer.isEarlyReviewer()) &&
+                        (idPrefix.isEmpty() || reviewer.getReviewerId().startsWith(idPrefix))) {
+                    rows[count++] = index;
+                }
+            }
+        }
+        return count == rows.length ? rows : Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * First index whose reviewer ID is not less than the key.
+     */
+    private static int lowerBound(Reviewer[] reviewers, String key) {
+        int low = 0;
+        int high = reviewers.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (reviewers[mid].getReviewerId().compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Computes the display order of reviewers sorted by a column, ties broken by ID. Reads the
+     * reviewers only, so it can run on a background thread while the model shows them.
+     * Each reviewer's column value is mapped to an int key and packed with its index into a long,
+     * so the sort is a primitive sort; average times are keyed at float precision first and runs
+     * of equal keys are then ordered by the exact value.
+     *
+     * @param reviewers Reviewers sorted with sortById
+     * @param column Column to sort by
+     * @param ascending Sort direction of the column; ties stay in ascending ID order
+     * @return Permutation of indexes into reviewers, or null for ascending ID order
+     */
+    public static int[] sortedOrder(Reviewer[] reviewers, int column, boolean ascending) {
+        int n = reviewers.length;
+        if (column == ID_COLUMN) {
+            if (ascending) {
+                return null;
+            }
+            int[] order = new int[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = n - 1 - i;
+            }
+            return order;
+        }
+
+        Map<String, Integer> explanationRanks = column == EXPLANATION_COLUMN ? explanationRanks(reviewers) : null;
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            int key = key(reviewers[i], column, explanationRanks);
+            packed[i] = ((long) (ascending ? key : ~key) << 32) | i;
+        }
+        Arrays.sort(packed);
+
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) packed[i];
+        }
+        if (column == AVERAGE_TIME_COLUMN) {
+            refineAverageTimeRuns(reviewers, packed, order, ascending);
+        }
+        return order;
+    }
+
+    /**
+     * Maps a column value to an int with the same ordering.
+     */
+    private static int key(Reviewer reviewer, int column, Map<String, Integer> explanationRanks) {
+        switch (column) {
+            case AVERAGE_TIME_COLUMN:
+                int bits = Float.floatToIntBits((float) reviewer.getAverageTimeToReview());
+                // Negative floats order in reverse by their bits
+                return bits >= 0 ? bits : bits ^ Integer.MAX_VALUE;
+            case 2:
+                return reviewer.getPastReviewsCount();
+            case 3:
+                return reviewer.isExperienced() ? 1 : 0;
+            case 4:
+                return reviewer.hasTeamFamiliarity() ? 1 : 0;
+            case 5:
+                return reviewer.hasContextualKnowledge() ? 1 : 0;
+            case EARLY_REVIEWER_COLUMN:
+                return reviewer.isEarlyReviewer() ? 1 : 0;
+            case EXPLANATION_COLUMN:
+                return explanationRanks.get(reviewer.getExplanation());
+            default:
+                throw new IllegalArgumentException("No column " + column);
+        }
+    }
+
+    /**
+     * Ranks the distinct explanations, of which there are few (one per rule).
+     */
+    private static Map<String, Integer> explanationRanks(Reviewer[] reviewers) {
+        Map<String, Integer> ranks = new HashMap<>();
+        for (Reviewer reviewer : reviewers) {
+            ranks.putIfAbsent(reviewer.getExplanation(), 0);
+        }
+        String[] distinct = ranks.keySet().toArray(new String[0]);
+        Arrays.sort(distinct);
+        for (int rank = 0; rank < distinct.length; rank++) {
+            ranks.put(distinct[rank], rank);
+        }
+        return ranks;
+    }
+
+    /**
+     * Orders runs of reviewers whose average times are equal at float precision by the exact
+     * average, keeping ID order among exact ties.
+     */
+    private static void refineAverageTimeRuns(Reviewer[] reviewers, long[] packed, int[] order, boolean ascending) {
+        int start = 0;
+        while (start < order.length) {
+            int end = start + 1;
+            while (end < order.length && (packed[end] >>> 32) == (packed[start] >>> 32)) {
+                end++;
+            }
+            // Insertion sort; runs hold near-identical values and are short
+            for (int i = start + 1; i < end; i++) {
+                int index = order[i];
+                double value = reviewers[index].getAverageTimeToReview();
+                int j = i - 1;
+                while (j >= start) {
+                    int c = Double.compare(reviewers[order[j]].getAverageTimeToReview(), value);
+                    if ((ascending ? c : -c) <= 0) {
+                        break;
+                    }
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = index;
+            }
+            start = end;
+        }
+    }
+
+    // Getters
+    public Reviewer[] getReviewers() {
+        return reviewers;
+    }
+
+    /**
+     * Display order from sortedOrder, or null for ID order.
+     */
+    public int[] getOrder() {
+        return order;
+    }
+
+    public Filter getFilter() {
+        return filter;
+    }
+
+    public int getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * Number of reviewers loaded, including those hidden by the filter.
+     */
+    public int getReviewerCount() {
+        return reviewers.length;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Reviewer reviewer = reviewers[rows[rowIndex]];
+        switch (columnIndex) {
+            case 0:
+                return reviewer.getReviewerId();
+            case 1:
+                return String.format("%.0f", reviewer.getAverageTimeToReview());
+            case 2:
+                return reviewer.getPastReviewsCount();
+            case 3:
+                return reviewer.isExperienced() ? "Experienced" : "Low";
+            case 4:
+                return reviewer.hasTeamFamiliarity() ? "Yes" : "No";
+            case 5:
+                return reviewer.hasContextualKnowledge() ? "Yes" : "No";
+            case EARLY_REVIEWER_COLUMN:
+                return reviewer.isEarlyReviewer() ? "YES" : "NO";
+            case EXPLANATION_COLUMN:
+                return reviewer.getExplanation();
+            default:
+                throw new IllegalArgumentException("No column " + columnIndex);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.earlyreviewer.usecase;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assignment is an open review assignment handed out by ReviewerAssigner. It counts against the
+ * reviewer's load until complete is called.
+ */
+public final class Assignment {
+    private final String reviewerId;
+    private final double averageTimeToReview;
+    private final int queuePosition;
+    private final AtomicInteger openAssignments;
+    private final AtomicBoolean completed;
+
+    Assignment(String reviewerId, double averageTimeToReview, int queuePosition, AtomicInteger openAssignments) {
+        this.reviewerId = reviewerId;
+        this.averageTimeToReview = averageTimeToReview;
+        this.queuePosition = queuePosition;
+        this.openAssignments = openAssignments;
+        this.completed = new AtomicBoolean();
+    }
+
+    /**
+     * Releases the assignment from the reviewer's load. Calling it again has no effect.
+     */
+    public void complete() {
+        if (completed.compareAndSet(false, true)) {
+            openAssignments.decrementAndGet();
+        }
+    }
+
+    // Getters
+    public String getReviewerId() {
+        return reviewerId;
+    }
+
+    public double getAverageTimeToReview() {
+        return averageTimeToReview;
+    }
+
+    /**
+     * Number of assignments the reviewer already had open when this one was made.
+     */
+    public int getQueuePosition() {
+        return queuePosition;
+    }
+
+    /**
+     * Expected seconds until this review completes: the reviewer's open assignments and this one,
+     * each taking the reviewer's average time-to-review.
+     */
+    public double getExpectedCompletionTime() {
+        return averageTimeToReview * (queuePosition + 1);
+    }
+
+    public boolean isCompleted() {
+        return completed.get();
+    }
+
+    @Override
+    public String toString() {
+        return reviewerId + " (queue " + queuePosition + ", expected " +
+                String.format("%.1f", getExpectedCompletionTime()) + "s)";
+    }
+}
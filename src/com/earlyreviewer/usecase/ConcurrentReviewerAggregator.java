@@ -0,0 +1,143 @@
+package com.earlyreviewer.usecase;
+
+import com.earlyreviewer.domain.ReviewEvent;
+import com.earlyreviewer.domain.ReviewerAggregates;
+import com.earlyreviewer.domain.ReviewerDictionary;
+import com.earlyreviewer.domain.StatsWindow;
+import com.earlyreviewer.util.LoggerUtil;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ConcurrentReviewerAggregator lets several producer threads fold review events into one
+ * analysis at the same time, e.g. one thread per repository event stream.
+ *
+ * Events go into stripes, each a ReviewerAggregates with its own lock and dictionary, in the
+ * manner of LongAdder's cells: a producer starts at its own stripe and takes the first one whose
+ * lock is free, so producers rarely wait on each other. Readers call snapshot, which locks every
+ * stripe at once and merges them, so a snapshot reflects exactly the events added before it and
+ * never a partially added one. Producers block while a snapshot merges.
+ *
+ * Counts, sums, percentiles and windows do not depend on which stripe an event landed in. A
+ * reviewer's past reviews count is taken from the first event of the first stripe holding it, which
+ * with several producers need not be the first event added.
+ */
+public class ConcurrentReviewerAggregator {
+    private static final Logger logger = LoggerUtil.getLogger(ConcurrentReviewerAggregator.class);
+
+    private static final AtomicInteger nextHomeStripe = new AtomicInteger();
+    // Spreads producer threads over the stripes; a thread keeps its home stripe while it is free
+    private static final ThreadLocal<Integer> homeStripe =
+            ThreadLocal.withInitial(nextHomeStripe::getAndIncrement);
+
+    private final StatsWindow window;
+    private final ReentrantLock[] locks;
+    private final ReviewerAggregates[] stripes;
+
+    public ConcurrentReviewerAggregator() {
+        this(4 * Runtime.getRuntime().availableProcessors(), StatsWindow.getDefault());
+    }
+
+    /**
+     * @param stripeCount Number of independently locked stripes; more stripes reduce contention
+     *                    between producers but make snapshots merge more
+     * @param window Configuration of the windowed and decayed statistics
+     */
+    public ConcurrentReviewerAggregator(int stripeCount, StatsWindow window) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive but was " + stripeCount);
+        }
+        this.window = window;
+        this.locks = new ReentrantLock[stripeCount];
+        this.stripes = new ReviewerAggregates[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            locks[i] = new ReentrantLock();
+            stripes[i] = new ReviewerAggregates(new ReviewerDictionary(), window);
+        }
+    }
+
+    /**
+     * Adds one event; invalid events are ignored. Safe to call from any number of threads.
+     */
+    public void add(ReviewEvent event) {
+        int stripe = lockStripe();
+        try {
+            stripes[stripe].add(event);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Adds a batch of events under a single lock acquisition; invalid events are ignored.
+     * A concurrent snapshot sees either the whole batch or none of it.
+     */
+    public void addAll(List<? extends ReviewEvent> events) {
+        int stripe = lockStripe();
+        try {
+            ReviewerAggregates aggregates = stripes[stripe];
+            for (ReviewEvent event : events) {
+                aggregates.add(event);
+            }
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Locks the first free stripe starting at the calling thread's home stripe, or waits for the
+     * home stripe if all are busy.
+     *
+     * @return Index of the locked stripe
+     */
+    private int lockStripe() {
+        int home = Math.floorMod(homeStripe.get(), locks.length);
+        for (int i = 0; i < locks.length; i++) {
+            int stripe = home + i < locks.length ? home + i : home + i - locks.length;
+            if (locks[stripe].tryLock()) {
+                return stripe;
+            }
+        }
+        locks[home].lock();
+        return home;
+    }
+
+    /**
+     * Merges all stripes into a consistent copy of the aggregates; later events do not affect it.
+     */
+    public ReviewerAggregates snapshotAggregates() {
+        ReviewerAggregates merged = new ReviewerAggregates(new ReviewerDictionary(), window);
+        // Producers hold at most one lock, so taking all of them in order cannot deadlock
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            for (ReviewerAggregates stripe : stripes) {
+                merged.merge(stripe);
+            }
+        } finally {
+            for (ReentrantLock lock : locks) {
+                lock.unlock();
+            }
+        }
+        logger.log(Level.FINE, "Snapshot of " + merged.getTotalValidCount() + " valid events from " +
+                stripes.length + " stripes");
+        return merged;
+    }
+
+    /**
+     * Takes a consistent snapshot and computes statistics and predictions for it. The returned
+     * analysis is owned by the caller and can be updated further with ReviewerAnalyzer.update.
+     */
+    public ReviewerAnalysis snapshot() {
+        return ReviewerAnalyzer.toAnalysis(snapshotAggregates());
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+}
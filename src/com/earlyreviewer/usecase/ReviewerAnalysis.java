@@ -0,0 +1,173 @@
+package com.earlyreviewer.usecase;
+
+import com.earlyreviewer.domain.LatencyHistogram;
+import com.earlyreviewer.domain.Reviewer;
+import com.earlyreviewer.domain.WindowedStats;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * ReviewerAnalysis is the state of an analysis that can be updated incrementally.
+ * Holds the reviewers, the global totals behind the global average, the global latency
+ * histogram and windowed statistics, and an index of reviewers
+ * ordered by average time-to-review so threshold ranges can be re-predicted selectively.
+ * Not thread-safe; updates go through ReviewerAnalyzer.update.
+ */
+public class ReviewerAnalysis {
+    private final Map<String, Reviewer> reviewers;
+    private final NavigableMap<AverageKey, Reviewer> byAverageTime;
+    private long totalValidCount;
+    private long totalTimeToReview;
+    private double globalAverageTime;
+    private final LatencyHistogram globalLatency;
+    private final WindowedStats globalWindow;
+    private final boolean reviewerWindows;
+    private long inputOffset = -1;
+
+    ReviewerAnalysis(Map<String, Reviewer> reviewers, long totalValidCount, long totalTimeToReview,
+                     double globalAverageTime, LatencyHistogram globalLatency, WindowedStats globalWindow,
+                     boolean reviewerWindows) {
+        this.reviewers = reviewers;
+        this.reviewerWindows = reviewerWindows;
+        this.globalLatency = globalLatency;
+        this.globalWindow = globalWindow;
+        this.byAverageTime = new TreeMap<>();
+        this.totalValidCount = totalValidCount;
+        this.totalTimeToReview = totalTimeToReview;
+        this.globalAverageTime = globalAverageTime;
+        for (Reviewer reviewer : reviewers.values()) {
+            index(reviewer);
+        }
+    }
+
+    // Getters
+    public Map<String, Reviewer> getReviewers() {
+        return Collections.unmodifiableMap(reviewers);
+    }
+
+    public double getGlobalAverageTime() {
+        return globalAverageTime;
+    }
+
+    public long getTotalValidCount() {
+        return totalValidCount;
+    }
+
+    /**
+     * Latency histogram over all valid records (shared, not copied).
+     */
+    public LatencyHistogram getGlobalLatency() {
+        return globalLatency;
+    }
+
+    /**
+     * Windowed statistics over all valid records (shared, not copied); its latest timestamp is
+     * where every reviewer's window ends.
+     */
+    public WindowedStats getGlobalWindow() {
+        return globalWindow;
+    }
+
+    /**
+     * Returns true if the reviewers carry their own windowed statistics; otherwise their windows
+     * only hold records added by incremental updates.
+     */
+    public boolean hasReviewerWindows() {
+        return reviewerWindows;
+    }
+
+    /**
+     * Byte offset just past the last complete line analyzed, where a CSVTailFollower should
+     * start; -1 if the analysis did not stop at a line boundary of a file.
+     */
+    public long getInputOffset() {
+        return inputOffset;
+    }
+
+    /**
+     * Reviewers whose average time-to-review lies in [from, to], fastest first.
+     */
+    public Collection<Reviewer> reviewersWithAverageBetween(double from, double to) {
+        if (from > to) {
+            return Collections.emptyList();
+        }
+        return byAverageTime.subMap(new AverageKey(from, ""), true,
+                new AverageKey(Math.nextUp(to), ""), false).values();
+    }
+
+    // Package-private mutators used by ReviewerAnalyzer
+    Map<String, Reviewer> reviewers() {
+        return reviewers;
+    }
+
+    void setInputOffset(long inputOffset) {
+        this.inputOffset = inputOffset;
+    }
+
+    void addToTotals(long submissionTimestamp, long timeToReview) {
+        totalValidCount++;
+        totalTimeToReview += timeToReview;
+        globalLatency.record(timeToReview);
+        globalWindow.record(submissionTimestamp, timeToReview);
+    }
+
+    /**
+     * Recomputes the global average from the totals and returns it.
+     */
+    double refreshGlobalAverageTime() {
+        globalAverageTime = totalValidCount == 0 ? 0.0 : (double) totalTimeToReview / totalValidCount;
+        return globalAverageTime;
+    }
+
+    /**
+     * Must be called before a reviewer's average changes.
+     */
+    void unindex(Reviewer reviewer) {
+        byAverageTime.remove(new AverageKey(reviewer.getAverageTimeToReview(), reviewer.getReviewerId()));
+    }
+
+    void index(Reviewer reviewer) {
+        if (reviewer.getValidRecordCount() > 0) {
+            byAverageTime.put(new AverageKey(reviewer.getAverageTimeToReview(), reviewer.getReviewerId()), reviewer);
+        }
+    }
+
+    /**
+     * Index key ordering reviewers by average time, then by ID.
+     */
+    private static final class AverageKey implements Comparable<AverageKey> {
+        private final double averageTime;
+        private final String reviewerId;
+
+        AverageKey(double averageTime, String reviewerId) {
+            this.averageTime = averageTime;
+            this.reviewerId = reviewerId;
+        }
+
+        @Override
+        public int compareTo(AverageKey other) {
+            int result = Double.compare(averageTime, other.averageTime);
+            if (result != 0) {
+                return result;
+            }
+            return reviewerId.compareTo(other.reviewerId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof AverageKey)) {
+                return false;
+            }
+            return compareTo((AverageKey) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Double.hashCode(averageTime) * 31 + reviewerId.hashCode();
+        }
+    }
+}
@@ -1,13 +1,29 @@
 package com.earlyreviewer.usecase;
 
+import com.earlyreviewer.domain.LatencyHistogram;
 import com.earlyreviewer.domain.ReviewRecord;
+import com.earlyreviewer.domain.ReviewRecordStore;
 import com.earlyreviewer.domain.Reviewer;
+import com.earlyreviewer.domain.ReviewerAggregates;
+import com.earlyreviewer.domain.ReviewerDictionary;
+import com.earlyreviewer.domain.ReviewerFeatures;
+import com.earlyreviewer.domain.StatsWindow;
+import com.earlyreviewer.domain.WindowedStats;
+import com.earlyreviewer.infra.CSVParser;
 import com.earlyreviewer.infra.PredictionEngine;
+import com.earlyreviewer.infra.PredictionRules;
+import com.earlyreviewer.infra.ReviewSnapshot;
+import com.earlyreviewer.infra.ReviewerProfileStore;
+import com.earlyreviewer.metrics.Histogram;
+import com.earlyreviewer.metrics.Metrics;
 import com.earlyreviewer.util.LoggerUtil;
 
-import java.util.ArrayList;
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -19,6 +35,55 @@ import java.util.logging.Logger;
 public class ReviewerAnalyzer {
     private static final Logger logger = LoggerUtil.getLogger(ReviewerAnalyzer.class);
 
+    private static final Histogram AGGREGATE_TIMER = Metrics.stageTimer("aggregate");
+    private static final Histogram PREDICT_TIMER = Metrics.stageTimer("predict");
+    private static final Histogram UPDATE_TIMER = Metrics.stageTimer("update");
+
+    // Relative widening of threshold ranges re-predicted by incremental updates
+    private static final double THRESHOLD_TOLERANCE = 1e-9;
+
+    /**
+     * How full analyses run the prediction engine.
+     */
+    public enum PredictionMode {
+        /** PredictionEngine.predict on each Reviewer object. */
+        PER_REVIEWER,
+        /** PredictionEngine.predictBatch over struct-of-arrays features taken from the aggregates. */
+        BATCH
+    }
+
+    private static volatile PredictionMode predictionMode = PredictionMode.BATCH;
+
+    /**
+     * Selects how full analyses run predictions; both modes produce identical results.
+     */
+    public static void setPredictionMode(PredictionMode mode) {
+        predictionMode = mode;
+    }
+
+    public static PredictionMode getPredictionMode() {
+        return predictionMode;
+    }
+
+    /**
+     * Creates aggregates for a full analysis that keep windowed statistics per reviewer only if
+     * the active rules read them; exports only need counts, averages and percentiles.
+     */
+    public static ReviewerAggregates newAggregates(ReviewerDictionary dictionary) {
+        return new ReviewerAggregates(dictionary, StatsWindow.getDefault(), PredictionEngine.usesReviewerRecency());
+    }
+
+    /**
+     * Fails if the active rules read reviewer windows the analysis was built without, e.g. after
+     * the rules changed; such an analysis must be rebuilt from the input.
+     */
+    private static void checkReviewerWindows(ReviewerAnalysis analysis) {
+        if (!analysis.hasReviewerWindows() && PredictionEngine.usesReviewerRecency()) {
+            throw new IllegalStateException("The prediction rules read reviewer windows, which this analysis " +
+                    "was built without; analyze the data again");
+        }
+    }
+
     /**
      * Processes a list of review records and returns aggregated reviewer data.
      * Filters out invalid records and computes per-reviewer statistics.
@@ -27,22 +92,335 @@ public class ReviewerAnalyzer {
      * @return Map of reviewerId -> Reviewer with computed statistics
      */
     public static Map<String, Reviewer> process(List<ReviewRecord> records) {
-        Map<String, Reviewer> reviewers = new HashMap<>();
+        long start = System.nanoTime();
+        ReviewerAggregates aggregates = newAggregates(new ReviewerDictionary());
 
-        // Filter valid records and aggregate by reviewer
-        List<ReviewRecord> validRecords = new ArrayList<>();
+        // Encode each reviewer ID once and aggregate by code; invalid records are skipped
         for (ReviewRecord record : records) {
-            if (record.isValid()) {
-                validRecords.add(record);
-                
-                // Add record to reviewer aggregate
-                String reviewerId = record.getReviewerId();
-                reviewers.putIfAbsent(reviewerId, new Reviewer(reviewerId));
-                reviewers.get(reviewerId).addRecord(record);
+            aggregates.add(record);
+        }
+
+        return finish(aggregates, start);
+    }
+
+    /**
+     * Streams a CSV file straight into per-reviewer running aggregates in a single pass.
+     * Reviewer IDs are dictionary-encoded while parsing and aggregated in int-indexed arrays, so
+     * memory grows with the number of reviewers rather than the number of records.
+     *
+     * @param file CSV file in the format expected by CSVParser
+     * @return Map of reviewerId -> Reviewer with computed statistics
+     * @throws IOException if file cannot be read
+     */
+    public static Map<String, Reviewer> process(File file) throws IOException {
+        ReviewerDictionary dictionary = new ReviewerDictionary();
+        ReviewerAggregates aggregates = newAggregates(dictionary);
+
+        CSVParser.parseEncoded(file, dictionary,
+                (reviewerCode, pastReviewsCount, submissionTimestamp, completionTimestamp, familiar, contextual) ->
+                        aggregates.add(reviewerCode, pastReviewsCount, submissionTimestamp,
+                                completionTimestamp - submissionTimestamp, familiar, contextual));
+
+        return finish(aggregates, System.nanoTime());
+    }
+
+    /**
+     * Processes records held in a columnar store, aggregating directly from its columns.
+     *
+     * @param store Columnar review records
+     * @return Map of reviewerId -> Reviewer with computed statistics
+     */
+    public static Map<String, Reviewer> process(ReviewRecordStore store) {
+        long start = System.nanoTime();
+        ReviewerAggregates aggregates = newAggregates(store.getDictionary());
+        aggregates.addAll(store);
+        return finish(aggregates, start);
+    }
+
+    /**
+     * Processes a loaded snapshot using its persisted per-reviewer aggregates, skipping both
+     * CSV parsing and aggregation.
+     *
+     * @param snapshot Snapshot read with ReviewSnapshot.read
+     * @return Map of reviewerId -> Reviewer with computed statistics
+     */
+    public static Map<String, Reviewer> process(ReviewSnapshot snapshot) {
+        return finish(snapshot.getAggregates(), System.nanoTime());
+    }
+
+    /**
+     * Analyzes a list of review records and keeps the state needed for incremental updates.
+     *
+     * @param records List of review records from CSV
+     * @return Analysis whose reviewers carry computed statistics and predictions
+     */
+    public static ReviewerAnalysis analyze(List<ReviewRecord> records) {
+        long start = System.nanoTime();
+        ReviewerAggregates aggregates = newAggregates(new ReviewerDictionary());
+        for (ReviewRecord record : records) {
+            aggregates.add(record);
+        }
+        return toAnalysis(aggregates, start);
+    }
+
+    /**
+     * Streams a CSV file into an analysis that can later be updated incrementally.
+     *
+     * @param file CSV file in the format expected by CSVParser
+     * @return Analysis whose reviewers carry computed statistics and predictions
+     * @throws IOException if file cannot be read
+     */
+    public static ReviewerAnalysis analyze(File file) throws IOException {
+        return analyze(file, (CSVParser.ProgressListener) null);
+    }
+
+    /**
+     * Streams a CSV file into an analysis, reporting parsing progress as byte offsets.
+     * Interrupting the calling thread cancels the analysis while the file is being parsed.
+     *
+     * @param file CSV file in the format expected by CSVParser
+     * @param progress Receives parsing progress, or null for none
+     * @return Analysis whose reviewers carry computed statistics and predictions
+     * @throws IOException if file cannot be read, or InterruptedIOException if cancelled
+     */
+    public static ReviewerAnalysis analyze(File file, CSVParser.ProgressListener progress) throws IOException {
+        ReviewerDictionary dictionary = new ReviewerDictionary();
+        ReviewerAggregates aggregates = newAggregates(dictionary);
+
+        CSVParser.parseEncoded(file, dictionary,
+                (reviewerCode, pastReviewsCount, submissionTimestamp, completionTimestamp, familiar, contextual) ->
+                        aggregates.add(reviewerCode, pastReviewsCount, submissionTimestamp,
+                                completionTimestamp - submissionTimestamp, familiar, contextual), progress);
+
+        return toAnalysis(aggregates, System.nanoTime());
+    }
+
+    /**
+     * Analyzes the complete lines of a CSV file that is still being appended to. An unterminated
+     * last line is left unparsed; follow the file from getInputOffset() of the result so every
+     * line is ingested exactly once.
+     *
+     * @param file CSV file in the format expected by CSVParser
+     * @return Analysis whose reviewers carry computed statistics and predictions
+     * @throws IOException if file cannot be read
+     */
+    public static ReviewerAnalysis analyzeForFollowing(File file) throws IOException {
+        ReviewerDictionary dictionary = new ReviewerDictionary();
+        ReviewerAggregates aggregates = newAggregates(dictionary);
+
+        long offset = CSVParser.parseEncodedLines(file, dictionary,
+                (reviewerCode, pastReviewsCount, submissionTimestamp, completionTimestamp, familiar, contextual) ->
+                        aggregates.add(reviewerCode, pastReviewsCount, submissionTimestamp,
+                                completionTimestamp - submissionTimestamp, familiar, contextual));
+
+        ReviewerAnalysis analysis = toAnalysis(aggregates, System.nanoTime());
+        analysis.setInputOffset(offset);
+        return analysis;
+    }
+
+    /**
+     * Analyzes a CSV file incrementally on top of a profile store: the stored profiles are
+     * restored and only records not folded in by an earlier run are aggregated. If the file
+     * continues the input the store was built from, parsing resumes after the last line stored,
+     * so appended records count whatever their timestamps. Any other file is parsed completely and
+     * only records submitted after the store's watermark are folded in; records at or before it
+     * are assumed to be folded already and reported in a warning. The resulting profiles, the
+     * newest submission timestamp and the input position are committed back to the store. Like
+     * analyzeForFollowing, only complete lines are analyzed.
+     *
+     * @param file CSV file in the format expected by CSVParser
+     * @param store Open profile store
+     * @return Analysis whose reviewers carry computed statistics and predictions
+     * @throws IOException if the file cannot be read or the store cannot be written
+     */
+    public static ReviewerAnalysis analyze(File file, ReviewerProfileStore store) throws IOException {
+        long restoreStart = System.nanoTime();
+        int restored = store.size();
+        ReviewerAggregates aggregates = store.toAggregates();
+        AGGREGATE_TIMER.recordSince(restoreStart);
+        long watermark = store.getWatermark();
+        boolean resume = store.isContinuedBy(file);
+        long startOffset = resume ? store.getInputOffset() : 0;
+        long[] newest = {watermark};
+        // Records at or before the watermark: folded in when resuming, skipped otherwise
+        long[] older = new long[1];
+
+        long offset = CSVParser.parseEncodedLines(file, startOffset, aggregates.getDictionary(),
+                (reviewerCode, pastReviewsCount, submissionTimestamp, completionTimestamp, familiar, contextual) -> {
+                    if (submissionTimestamp <= watermark) {
+                        older[0]++;
+                        if (!resume) {
+                            return;
+                        }
+                    }
+                    aggregates.add(reviewerCode, pastReviewsCount, submissionTimestamp,
+                            completionTimestamp - submissionTimestamp, familiar, contextual);
+                    newest[0] = Math.max(newest[0], submissionTimestamp);
+                });
+
+        ReviewerAnalysis analysis = toAnalysis(aggregates, System.nanoTime());
+        analysis.setInputOffset(offset);
+        int stored = store.commit(analysis.getReviewers().values(), newest[0], file, offset);
+        if (resume) {
+            logger.log(Level.INFO, "Restored " + restored + " stored profiles, resumed at byte " + startOffset +
+                    " with " + older[0] + " records submitted up to " + watermark + " and stored " + stored +
+                    " changed profiles");
+        } else {
+            if (older[0] > 0 && restored > 0) {
+                logger.log(Level.WARNING, "Skipped " + older[0] + " records submitted up to " + watermark +
+                        " as already stored: " + file + " does not continue the input of profile store " +
+                        store.getFile() + ", so records it has not seen are lost; delete the store to rebuild it");
             }
+            logger.log(Level.INFO, "Restored " + restored + " stored profiles and stored " + stored +
+                    " changed profiles");
+        }
+        return analysis;
+    }
+
+    /**
+     * Re-runs the prediction for every reviewer of an analysis with the active rules, reusing the
+     * aggregated statistics instead of re-reading the input.
+     */
+    public static void repredict(ReviewerAnalysis analysis) {
+        checkReviewerWindows(analysis);
+        long start = System.nanoTime();
+        PredictionEngine.Run run = PredictionEngine.start(analysis.getGlobalAverageTime(),
+                analysis.getGlobalLatency(), analysis.getGlobalWindow());
+        for (Reviewer reviewer : analysis.getReviewers().values()) {
+            run.predict(reviewer);
         }
+        run.finish();
+        PREDICT_TIMER.recordSince(start);
+        logger.log(Level.INFO, "Re-predicted " + analysis.getReviewers().size() + " reviewers");
+    }
 
-        logger.log(Level.INFO, "Processed " + validRecords.size() + " valid records for " +
+    /**
+     * Computes statistics and predictions for the aggregates and keeps them as an analysis.
+     */
+    static ReviewerAnalysis toAnalysis(ReviewerAggregates aggregates) {
+        return toAnalysis(aggregates, System.nanoTime());
+    }
+
+    private static ReviewerAnalysis toAnalysis(ReviewerAggregates aggregates, long aggregateStart) {
+        Map<String, Reviewer> reviewers = finish(aggregates, aggregateStart);
+        return new ReviewerAnalysis(reviewers, aggregates.getTotalValidCount(), aggregates.getTotalSum(),
+                aggregates.getGlobalAverageTime(), aggregates.getGlobalLatency(), aggregates.getGlobalWindow(),
+                aggregates.hasReviewerWindows());
+    }
+
+    /**
+     * Folds a batch of new review records into an existing analysis.
+     * Only reviewers that received records have their statistics recomputed. Predictions are re-run
+     * for those reviewers plus any reviewer whose average lies between the old and new value of a
+     * global-average threshold used by PredictionEngine, since only they can change classification.
+     * If the rules read global percentiles or windowed averages, every reviewer is re-predicted.
+     * When the newest submission moves the sliding window into a new bucket, every reviewer's window
+     * is advanced (O(buckets) each), and re-predicted if the rules read windowed statistics.
+     *
+     * @param analysis Analysis to update in place
+     * @param delta New review records; invalid records are skipped
+     * @return IDs of reviewers whose prediction was re-evaluated
+     */
+    public static Set<String> update(ReviewerAnalysis analysis, List<ReviewRecord> delta) {
+        checkReviewerWindows(analysis);
+        long start = System.nanoTime();
+        Map<String, Reviewer> reviewers = analysis.reviewers();
+        Map<String, Reviewer> affected = new HashMap<>();
+        LatencyHistogram globalLatency = analysis.getGlobalLatency();
+        WindowedStats globalWindow = analysis.getGlobalWindow();
+        long previousValidCount = analysis.getTotalValidCount();
+        long previousWindowEnd = globalWindow.getHeadBucket();
+
+        for (ReviewRecord record : delta) {
+            if (!record.isValid()) {
+                continue;
+            }
+            analysis.addToTotals(record.getSubmissionTimestamp(), record.getTimeToReview());
+
+            String reviewerId = record.getReviewerId();
+            Reviewer reviewer = affected.get(reviewerId);
+            if (reviewer == null) {
+                reviewer = reviewers.get(reviewerId);
+                if (reviewer == null) {
+                    reviewer = new Reviewer(reviewerId);
+                    reviewers.put(reviewerId, reviewer);
+                } else {
+                    // Remove from the index while its average is still the indexed value
+                    analysis.unindex(reviewer);
+                }
+                affected.put(reviewerId, reviewer);
+            }
+            reviewer.accumulate(record);
+        }
+
+        long latestTimestamp = globalWindow.getLatestTimestamp();
+        boolean windowMoved = globalWindow.getHeadBucket() != previousWindowEnd;
+        if (windowMoved && analysis.hasReviewerWindows()) {
+            for (Reviewer reviewer : reviewers.values()) {
+                reviewer.getStats().getRecent().advanceTo(latestTimestamp);
+            }
+        }
+        for (Reviewer reviewer : affected.values()) {
+            reviewer.getStats().getRecent().advanceTo(latestTimestamp);
+            reviewer.computeStatistics();
+            analysis.index(reviewer);
+        }
+
+        double previousAverage = analysis.getGlobalAverageTime();
+        double globalAverageTime = analysis.refreshGlobalAverageTime();
+
+        Set<String> repredicted = new HashSet<>(affected.keySet());
+        PredictionEngine.Run run = PredictionEngine.start(globalAverageTime, globalLatency, globalWindow);
+        for (Reviewer reviewer : affected.values()) {
+            run.predict(reviewer);
+        }
+
+        boolean totalsChanged = analysis.getTotalValidCount() != previousValidCount;
+        boolean repredictAll = (totalsChanged && PredictionEngine.usesGlobalAggregates())
+                || (windowMoved && PredictionEngine.usesWindow());
+        if (globalAverageTime != previousAverage || repredictAll) {
+            double[] multipliers = PredictionEngine.getGlobalAverageMultipliers();
+            if (multipliers == null || repredictAll) {
+                // Rules use global values in ways that cannot be bounded; re-predict everyone
+                for (Reviewer reviewer : reviewers.values()) {
+                    if (repredicted.add(reviewer.getReviewerId())) {
+                        run.predict(reviewer);
+                    }
+                }
+            } else {
+                for (double multiplier : multipliers) {
+                    double a = previousAverage * multiplier;
+                    double b = globalAverageTime * multiplier;
+                    // Widen slightly so rounding in the rule's own arithmetic cannot exclude a boundary reviewer
+                    double from = Math.min(a, b);
+                    double to = Math.max(a, b);
+                    from -= Math.abs(from) * THRESHOLD_TOLERANCE;
+                    to += Math.abs(to) * THRESHOLD_TOLERANCE;
+                    for (Reviewer reviewer : analysis.reviewersWithAverageBetween(from, to)) {
+                        if (repredicted.add(reviewer.getReviewerId())) {
+                            run.predict(reviewer);
+                        }
+                    }
+                }
+            }
+        }
+        run.finish();
+
+        UPDATE_TIMER.recordSince(start);
+        logger.log(Level.INFO, "Applied " + delta.size() + " new records: " + affected.size() +
+                " reviewers updated, " + repredicted.size() + " re-predicted");
+        return repredicted;
+    }
+
+    /**
+     * Builds Reviewer objects from the aggregates, then computes statistics and predictions.
+     * The aggregate stage is timed from aggregateStart, which lies before the aggregation loop
+     * when records are already in memory; streaming aggregation while parsing counts as parsing.
+     */
+    private static Map<String, Reviewer> finish(ReviewerAggregates aggregates, long aggregateStart) {
+        Reviewer[] reviewersByCode = aggregates.toReviewerArray();
+        Map<String, Reviewer> reviewers = ReviewerAggregates.toReviewers(reviewersByCode);
+        logger.log(Level.INFO, "Processed " + aggregates.getTotalValidCount() + " valid records for " +
                 reviewers.size() + " reviewers");
 
         // Compute statistics for each reviewer
@@ -51,13 +429,32 @@ public class ReviewerAnalyzer {
         }
 
         // Compute global average time across all valid records
-        double globalAverageTime = computeGlobalAverageTime(validRecords);
+        double globalAverageTime = computeGlobalAverageTime(aggregates);
         logger.log(Level.INFO, "Global average review time: " + String.format("%.2f", globalAverageTime) + " seconds");
+        long predictStart = System.nanoTime();
+        AGGREGATE_TIMER.record(predictStart - aggregateStart);
 
         // Run prediction engine on all reviewers
-        for (Reviewer reviewer : reviewers.values()) {
-            PredictionEngine.predict(reviewer, globalAverageTime);
+        if (predictionMode == PredictionMode.BATCH) {
+            ReviewerFeatures features = aggregates.toFeatures();
+            long[] earlyBits = new long[(features.size() + 63) / 64];
+            int[] ruleIds = new int[features.size()];
+            PredictionRules rules = PredictionEngine.predictBatch(features, globalAverageTime,
+                    aggregates.getGlobalLatency(), aggregates.getGlobalWindow(), earlyBits, ruleIds);
+            for (int code = 0; code < reviewersByCode.length; code++) {
+                if (reviewersByCode[code] != null) {
+                    PredictionEngine.apply(reviewersByCode[code], rules, ruleIds[code]);
+                }
+            }
+        } else {
+            PredictionEngine.Run run = PredictionEngine.start(globalAverageTime, aggregates.getGlobalLatency(),
+                    aggregates.getGlobalWindow());
+            for (Reviewer reviewer : reviewers.values()) {
+                run.predict(reviewer);
+            }
+            run.finish();
         }
+        PREDICT_TIMER.recordSince(predictStart);
 
         return reviewers;
     }
@@ -65,20 +462,11 @@ public class ReviewerAnalyzer {
     /**
      * Computes the global average time-to-review across all valid records.
      *
-     * @param validRecords List of valid review records
+     * @param aggregates Aggregates holding the global totals over valid review records
      * @return Average time in seconds, or 0 if no valid records
      */
-    private static double computeGlobalAverageTime(List<ReviewRecord> validRecords) {
-        if (validRecords.isEmpty()) {
-            return 0.0;
-        }
-
-        long sum = 0;
-        for (ReviewRecord record : validRecords) {
-            sum += record.getTimeToReview();
-        }
-
-        return (double) sum / validRecords.size();
+    private static double computeGlobalAverageTime(ReviewerAggregates aggregates) {
+        return aggregates.getGlobalAverageTime();
     }
 
     /**
@@ -0,0 +1,153 @@
+package com.earlyreviewer.usecase;
+
+import com.earlyreviewer.domain.Reviewer;
+import com.earlyreviewer.util.LoggerUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ReviewerAssigner assigns PRs to the reviewer with the lowest expected completion time, taking
+ * open assignments into account so the fastest reviewers are not dogpiled. A reviewer with n open
+ * assignments is expected to finish a new one after (n + 1) times their average time-to-review,
+ * and no reviewer gets more than maxOpenAssignments at once.
+ *
+ * Open assignments are tracked with one atomic counter per reviewer and claimed by
+ * compare-and-set, so concurrent assign calls never take a lock; a claim that loses a race
+ * re-evaluates the candidates. Candidates are scanned fastest first and the scan stops once a
+ * reviewer's average alone exceeds the best expected completion time, so a lookup usually
+ * touches only the first few reviewers.
+ */
+public class ReviewerAssigner {
+    private static final Logger logger = LoggerUtil.getLogger(ReviewerAssigner.class);
+
+    private final int maxOpenAssignments;
+    // Open assignment counters by reviewer ID; kept across refreshes so open work stays counted
+    private final Map<String, AtomicInteger> openAssignments;
+    // Candidates sorted by average time-to-review, replaced as a whole on refresh
+    private volatile Candidate[] candidates;
+    private final AtomicLong contendedClaims;
+
+    private static final class Candidate {
+        final String reviewerId;
+        final double averageTimeToReview;
+        final AtomicInteger open;
+
+        Candidate(String reviewerId, double averageTimeToReview, AtomicInteger open) {
+            this.reviewerId = reviewerId;
+            this.averageTimeToReview = averageTimeToReview;
+            this.open = open;
+        }
+    }
+
+    /**
+     * @param reviewers Analyzed reviewers; those without valid reviews are not assigned to
+     * @param maxOpenAssignments Maximum number of open assignments per reviewer
+     * @throws IllegalArgumentException if maxOpenAssignments is not positive
+     */
+    public ReviewerAssigner(Map<String, Reviewer> reviewers, int maxOpenAssignments) {
+        if (maxOpenAssignments <= 0) {
+            throw new IllegalArgumentException("Maximum open assignments must be positive but was " +
+                    maxOpenAssignments);
+        }
+        this.maxOpenAssignments = maxOpenAssignments;
+        this.openAssignments = new ConcurrentHashMap<>();
+        this.contendedClaims = new AtomicLong();
+        refresh(reviewers);
+    }
+
+    /**
+     * Replaces the candidates with the current statistics, e.g. after ReviewerAnalyzer.update.
+     * Open assignments are kept. Safe to call while assignments are being made.
+     */
+    public void refresh(Map<String, Reviewer> reviewers) {
+        List<Candidate> list = new ArrayList<>(reviewers.size());
+        for (Reviewer reviewer : reviewers.values()) {
+            if (reviewer.getValidRecordCount() > 0) {
+                AtomicInteger open = openAssignments.computeIfAbsent(reviewer.getReviewerId(),
+                        id -> new AtomicInteger());
+                list.add(new Candidate(reviewer.getReviewerId(), reviewer.getAverageTimeToReview(), open));
+            }
+        }
+        list.sort((a, b) -> {
+            int result = Double.compare(a.averageTimeToReview, b.averageTimeToReview);
+            return result != 0 ? result : a.reviewerId.compareTo(b.reviewerId);
+        });
+        candidates = list.toArray(new Candidate[0]);
+        logger.log(Level.FINE, "Assigning to " + list.size() + " reviewers");
+    }
+
+    /**
+     * Assigns a PR to the reviewer with the lowest expected completion time.
+     *
+     * @return The assignment, or null if every reviewer is at capacity
+     */
+    public Assignment assign() {
+        return assign(Collections.emptySet());
+    }
+
+    /**
+     * Assigns a PR to the reviewer with the lowest expected completion time, skipping the
+     * excluded IDs (e.g. the PR author).
+     *
+     * @return The assignment, or null if every eligible reviewer is at capacity
+     */
+    public Assignment assign(Collection<String> excluded) {
+        Candidate[] snapshot = candidates;
+        while (true) {
+            Candidate best = null;
+            int bestOpen = 0;
+            double bestCost = Double.POSITIVE_INFINITY;
+            for (Candidate candidate : snapshot) {
+                // Costs only grow with load, so no later candidate can beat the best
+                if (candidate.averageTimeToReview >= bestCost) {
+                    break;
+                }
+                int open = candidate.open.get();
+                if (open >= maxOpenAssignments) {
+                    continue;
+                }
+                double cost = candidate.averageTimeToReview * (open + 1);
+                if (cost < bestCost && !excluded.contains(candidate.reviewerId)) {
+                    best = candidate;
+                    bestOpen = open;
+                    bestCost = cost;
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+            if (best.open.compareAndSet(bestOpen, bestOpen + 1)) {
+                return new Assignment(best.reviewerId, best.averageTimeToReview, bestOpen, best.open);
+            }
+            contendedClaims.incrementAndGet();
+        }
+    }
+
+    /**
+     * Number of open assignments of a reviewer.
+     */
+    public int getOpenAssignments(String reviewerId) {
+        AtomicInteger open = openAssignments.get(reviewerId);
+        return open == null ? 0 : open.get();
+    }
+
+    public int getMaxOpenAssignments() {
+        return maxOpenAssignments;
+    }
+
+    /**
+     * Number of claims that lost a race with a concurrent assignment and were retried.
+     */
+    public long getContendedClaims() {
+        return contendedClaims.get();
+    }
+}
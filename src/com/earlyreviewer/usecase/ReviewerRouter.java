@@ -0,0 +1,149 @@
+package com.earlyreviewer.usecase;
+
+import com.earlyreviewer.domain.ReviewRecord;
+import com.earlyreviewer.domain.Reviewer;
+import com.earlyreviewer.util.LoggerUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ReviewerRouter answers "which K early reviewers should this PR go to" for an analysis that keeps
+ * growing. Predicted early reviewers are kept in a concurrent skip list ordered by average
+ * time-to-review, so a lookup walks only the first K available entries and never blocks.
+ * New events go through ingest, which updates the analysis incrementally and re-ranks only the
+ * reviewers whose prediction was re-evaluated.
+ *
+ * Lookups may run on any number of threads. Ingestion is serialized, and the analysis must not be
+ * updated other than through this router. A lookup that overlaps an ingest may briefly miss a
+ * reviewer that is being re-ranked.
+ */
+public class ReviewerRouter {
+    private static final Logger logger = LoggerUtil.getLogger(ReviewerRouter.class);
+
+    private final ReviewerAnalysis analysis;
+    // Early reviewers, fastest first; read without locking
+    private final ConcurrentSkipListSet<RoutedReviewer> ranking;
+    // Current ranking entry of each early reviewer, guarded by this
+    private final Map<String, RoutedReviewer> entries;
+    // entries.size() for lock-free readers; ConcurrentSkipListSet.size() is a full traversal
+    private volatile int rankedCount;
+    private final Set<String> unavailable;
+
+    /**
+     * @param analysis Analysis whose predicted early reviewers are routed to
+     */
+    public ReviewerRouter(ReviewerAnalysis analysis) {
+        this.analysis = analysis;
+        this.ranking = new ConcurrentSkipListSet<>(RoutedReviewer::compareTo);
+        this.entries = new HashMap<>();
+        this.unavailable = ConcurrentHashMap.newKeySet();
+        synchronized (this) {
+            for (Reviewer reviewer : analysis.getReviewers().values()) {
+                rank(reviewer);
+            }
+        }
+        logger.log(Level.INFO, "Routing to " + entries.size() + " early reviewers of " +
+                analysis.getReviewers().size());
+    }
+
+    /**
+     * Folds new review records into the analysis and re-ranks the affected reviewers.
+     * Can be used directly as the consumer of a CSVTailFollower.
+     *
+     * @param delta New review records; invalid records are skipped
+     * @return IDs of reviewers whose prediction was re-evaluated
+     */
+    public synchronized Set<String> ingest(List<ReviewRecord> delta) {
+        Set<String> repredicted = ReviewerAnalyzer.update(analysis, delta);
+        Map<String, Reviewer> reviewers = analysis.getReviewers();
+        for (String reviewerId : repredicted) {
+            rank(reviewers.get(reviewerId));
+        }
+        return repredicted;
+    }
+
+    /**
+     * Replaces the ranking entry of a reviewer with its current statistics and prediction.
+     */
+    private void rank(Reviewer reviewer) {
+        RoutedReviewer previous = entries.remove(reviewer.getReviewerId());
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+        if (reviewer.isEarlyReviewer()) {
+            RoutedReviewer entry = new RoutedReviewer(reviewer.getReviewerId(), reviewer.getAverageTimeToReview(),
+                    reviewer.getValidRecordCount(), reviewer.getExplanation());
+            entries.put(entry.getReviewerId(), entry);
+            ranking.add(entry);
+        }
+        rankedCount = entries.size();
+    }
+
+    /**
+     * Returns up to k available early reviewers, fastest first.
+     */
+    public List<RoutedReviewer> topK(int k) {
+        return topK(k, Collections.emptySet());
+    }
+
+    /**
+     * Returns up to k available early reviewers, fastest first, skipping the excluded IDs
+     * (e.g. the PR author).
+     *
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<RoutedReviewer> topK(int k, Collection<String> excluded) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative but was " + k);
+        }
+        List<RoutedReviewer> result = new ArrayList<>(Math.min(k, 64));
+        if (k == 0) {
+            return result;
+        }
+        boolean checkAvailability = !unavailable.isEmpty();
+        for (RoutedReviewer candidate : ranking) {
+            String reviewerId = candidate.getReviewerId();
+            if ((checkAvailability && unavailable.contains(reviewerId)) || excluded.contains(reviewerId)) {
+                continue;
+            }
+            result.add(candidate);
+            if (result.size() == k) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Marks a reviewer as available or unavailable (e.g. on leave or at capacity); unavailable
+     * reviewers keep their rank but are skipped by lookups.
+     */
+    public void setAvailable(String reviewerId, boolean available) {
+        if (available) {
+            unavailable.remove(reviewerId);
+        } else {
+            unavailable.add(reviewerId);
+        }
+    }
+
+    public boolean isAvailable(String reviewerId) {
+        return !unavailable.contains(reviewerId);
+    }
+
+    /**
+     * Number of ranked early reviewers, including unavailable ones.
+     */
+    public int size() {
+        return rankedCount;
+    }
+}
@@ -0,0 +1,52 @@
+package com.earlyreviewer.usecase;
+
+/**
+ * RoutedReviewer is an immutable snapshot of a predicted early reviewer as ranked by
+ * ReviewerRouter. Safe to hand to concurrent callers, unlike the mutable Reviewer it was taken from.
+ */
+public final class RoutedReviewer {
+    private final String reviewerId;
+    private final double averageTimeToReview;
+    private final int validRecordCount;
+    private final String explanation;
+
+    public RoutedReviewer(String reviewerId, double averageTimeToReview, int validRecordCount, String explanation) {
+        this.reviewerId = reviewerId;
+        this.averageTimeToReview = averageTimeToReview;
+        this.validRecordCount = validRecordCount;
+        this.explanation = explanation;
+    }
+
+    /**
+     * Orders reviewers fastest first, then by ID so every reviewer has a distinct position.
+     */
+    int compareTo(RoutedReviewer other) {
+        int result = Double.compare(averageTimeToReview, other.averageTimeToReview);
+        if (result != 0) {
+            return result;
+        }
+        return reviewerId.compareTo(other.reviewerId);
+    }
+
+    // Getters
+    public String getReviewerId() {
+        return reviewerId;
+    }
+
+    public double getAverageTimeToReview() {
+        return averageTimeToReview;
+    }
+
+    public int getValidRecordCount() {
+        return validRecordCount;
+    }
+
+    public String getExplanation() {
+        return explanation;
+    }
+
+    @Override
+    public String toString() {
+        return reviewerId + " (" + String.format("%.1f", averageTimeToReview) + "s)";
+    }
+}
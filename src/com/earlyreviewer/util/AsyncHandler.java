@@ -0,0 +1,159 @@
+package com.earlyreviewer.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * AsyncHandler hands log records to a bounded ring buffer and publishes them to its target
+ * handlers on a background thread, so logging threads never wait for console or file I/O.
+ * When the buffer is full new records are dropped and counted; the writer reports the number
+ * dropped once it catches up. Records are published in the order they were logged.
+ */
+public class AsyncHandler extends Handler {
+    private final Handler[] targets;
+    private final LogRecord[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    // Held while records are removed from the ring and published, keeping their order
+    private final Object publishLock = new Object();
+    private final Thread writer;
+    private int head;
+    private int count;
+    private long dropped;
+    private volatile boolean running = true;
+
+    /**
+     * Starts the writer thread.
+     *
+     * @param capacity Number of records buffered before new ones are dropped
+     * @param targets Handlers receiving the records, e.g. a ConsoleHandler and a FileHandler
+     */
+    public AsyncHandler(int capacity, Handler... targets) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive but was " + capacity);
+        }
+        this.targets = targets.clone();
+        this.ring = new LogRecord[capacity];
+        writer = new Thread(this::run, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (!running || !isLoggable(record)) {
+            return;
+        }
+        // The caller is inferred lazily from the stack; do it before leaving the logging thread
+        record.getSourceClassName();
+
+        lock.lock();
+        try {
+            if (count == ring.length) {
+                dropped++;
+                return;
+            }
+            ring[(head + count) % ring.length] = record;
+            count++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            lock.lock();
+            try {
+                while (count == 0 && running) {
+                    notEmpty.await(1, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                lock.unlock();
+            }
+            drain();
+        }
+    }
+
+    /**
+     * Publishes every buffered record, then a notice if records were dropped.
+     */
+    private void drain() {
+        synchronized (publishLock) {
+            LogRecord[] batch;
+            long droppedNow;
+            lock.lock();
+            try {
+                batch = new LogRecord[count];
+                for (int i = 0; i < batch.length; i++) {
+                    batch[i] = ring[head];
+                    ring[head] = null;
+                    head = (head + 1) % ring.length;
+                }
+                count = 0;
+                droppedNow = dropped;
+                dropped = 0;
+            } finally {
+                lock.unlock();
+            }
+
+            for (LogRecord record : batch) {
+                publishToTargets(record);
+            }
+            if (droppedNow > 0) {
+                LogRecord notice = new LogRecord(Level.WARNING, "Dropped " + droppedNow +
+                        " log records because the logging queue was full");
+                notice.setLoggerName(AsyncHandler.class.getName());
+                notice.setSourceClassName(AsyncHandler.class.getName());
+                notice.setSourceMethodName("publish");
+                publishToTargets(notice);
+            }
+        }
+    }
+
+    private void publishToTargets(LogRecord record) {
+        for (Handler target : targets) {
+            try {
+                target.publish(record);
+            } catch (RuntimeException e) {
+                reportError("Failed to publish log record", e, ErrorManager.WRITE_FAILURE);
+            }
+        }
+    }
+
+    /**
+     * Publishes everything logged so far on the calling thread and flushes the targets.
+     */
+    @Override
+    public void flush() {
+        drain();
+        for (Handler target : targets) {
+            target.flush();
+        }
+    }
+
+    /**
+     * Stops the writer, publishes the remaining records and closes the targets.
+     */
+    @Override
+    public void close() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        for (Handler target : targets) {
+            target.close();
+        }
+    }
+}
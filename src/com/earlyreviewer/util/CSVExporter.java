@@ -1,22 +1,60 @@
 package com.earlyreviewer.util;
 
 import com.earlyreviewer.domain.Reviewer;
+import com.earlyreviewer.metrics.Counter;
+import com.earlyreviewer.metrics.Histogram;
+import com.earlyreviewer.metrics.Metrics;
 
-import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * CSVExporter writes reviewer analysis results to a CSV file.
  * Output format matches the input plus additional computed fields.
+ *
+ * Rows are appended directly into a reusable byte buffer, without format strings or per-row
+ * Strings, and written to a FileChannel in large blocks. Text is encoded in the platform default
+ * charset, like a FileWriter. The parallel exports format chunks of rows on worker threads and
+ * write them in order, so every export of the same reviewers produces the same bytes.
  */
 public class CSVExporter {
     private static final Logger logger = LoggerUtil.getLogger(CSVExporter.class);
 
+    private static final Counter CSV_ROWS = Metrics.exportRows("csv");
+    private static final Counter CSV_BYTES = Metrics.exportBytes("csv");
+    private static final Counter GZIP_ROWS = Metrics.exportRows("csv.gz");
+    private static final Counter GZIP_BYTES = Metrics.exportBytes("csv.gz");
+    private static final Histogram EXPORT_TIMER = Metrics.stageTimer("export");
+
+    // Buffered rows are written once they fill this many bytes
+    private static final int WRITE_BLOCK_BYTES = 1 << 20;
+    private static final int ROWS_PER_CHUNK = 16384;
+    // Chunks formatted ahead of the writer per worker; bounds the memory of a parallel export
+    private static final int CHUNKS_AHEAD_PER_WORKER = 2;
+    private static final int GZIP_BUFFER_BYTES = 64 * 1024;
+
+    private static final Charset CHARSET = Charset.defaultCharset();
+    private static final byte[] HEADER = ("reviewerId,avgReviewTimeSeconds,pastReviewsCount,experienceCategory," +
+            "teamFamiliarity,contextualKnowledge,earlyReviewer,explanation").getBytes(CHARSET);
+    private static final byte[] PERCENTILES_HEADER =
+            ",p50ReviewTimeSeconds,p90ReviewTimeSeconds,p99ReviewTimeSeconds".getBytes(CHARSET);
+
     /**
      * Exports reviewer results to a CSV file.
      * Columns: reviewerId, avgReviewTimeSeconds, pastReviewsCount, experienceCategory,
@@ -27,37 +65,292 @@ public class CSVExporter {
      * @throws IOException if file cannot be written
      */
     public static void export(Collection<Reviewer> reviewers, File outputFile) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile))) {
-            // Write header
-            writer.write("reviewerId,avgReviewTimeSeconds,pastReviewsCount,experienceCategory," +
-                    "teamFamiliarity,contextualKnowledge,earlyReviewer,explanation\n");
+        export(reviewers, outputFile, false);
+    }
+
+    /**
+     * Exports reviewer results to a CSV file, optionally followed by latency percentile columns
+     * p50ReviewTimeSeconds, p90ReviewTimeSeconds and p99ReviewTimeSeconds.
+     *
+     * @param reviewers Collection of Reviewer objects to export
+     * @param outputFile Target CSV file
+     * @param includePercentiles Whether to append the percentile columns
+     * @throws IOException if file cannot be written
+     */
+    public static void export(Collection<Reviewer> reviewers, File outputFile, boolean includePercentiles)
+            throws IOException {
+        export(reviewers, outputFile, includePercentiles, false);
+    }
 
-            // Write data rows
+    /**
+     * Exports reviewer results to a CSV file on the calling thread.
+     *
+     * @param reviewers Collection of Reviewer objects to export
+     * @param outputFile Target CSV file
+     * @param includePercentiles Whether to append the percentile columns
+     * @param gzip Whether to gzip-compress the file
+     * @throws IOException if file cannot be written
+     */
+    public static void export(Collection<Reviewer> reviewers, File outputFile, boolean includePercentiles,
+                              boolean gzip) throws IOException {
+        long start = System.nanoTime();
+        try (OutputStream out = open(outputFile, gzip)) {
+            RowBuffer buffer = new RowBuffer(WRITE_BLOCK_BYTES + 1024);
+            buffer.appendHeader(includePercentiles);
             for (Reviewer reviewer : reviewers) {
-                String line = formatReviewerRow(reviewer);
-                writer.write(line);
-                writer.write("\n");
+                buffer.appendRow(reviewer, includePercentiles);
+                if (buffer.size() >= WRITE_BLOCK_BYTES) {
+                    buffer.writeTo(out);
+                    buffer.reset();
+                }
+            }
+            buffer.writeTo(out);
+        }
+        recordExport(reviewers.size(), outputFile, gzip, start);
+        logger.log(Level.INFO, "Exported " + reviewers.size() + " reviewers to " + outputFile.getAbsolutePath());
+    }
+
+    /**
+     * Exports reviewer results to a CSV file, formatting on the common fork-join pool.
+     *
+     * @param reviewers Collection of Reviewer objects to export
+     * @param outputFile Target CSV file
+     * @param includePercentiles Whether to append the percentile columns
+     * @param gzip Whether to gzip-compress the file
+     * @throws IOException if file cannot be written
+     */
+    public static void exportParallel(Collection<Reviewer> reviewers, File outputFile, boolean includePercentiles,
+                                      boolean gzip) throws IOException {
+        exportParallel(reviewers, outputFile, includePercentiles, gzip, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Exports reviewer results to a CSV file, formatting on a dedicated fork-join pool of the given size.
+     *
+     * @param reviewers Collection of Reviewer objects to export
+     * @param outputFile Target CSV file
+     * @param includePercentiles Whether to append the percentile columns
+     * @param gzip Whether to gzip-compress the file
+     * @param parallelism Number of worker threads
+     * @throws IOException if file cannot be written
+     */
+    public static void exportParallel(Collection<Reviewer> reviewers, File outputFile, boolean includePercentiles,
+                                      boolean gzip, int parallelism) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            exportParallel(reviewers, outputFile, includePercentiles, gzip, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Formats chunks of ROWS_PER_CHUNK rows on the pool and writes them in order as they complete,
+     * keeping a bounded number of chunks ahead of the writer. With gzip every chunk is compressed
+     * on its worker into a gzip member of its own; the concatenated members decompress to the
+     * same CSV as a sequential export.
+     */
+    private static void exportParallel(Collection<Reviewer> reviewers, File outputFile, boolean includePercentiles,
+                                       boolean gzip, ForkJoinPool pool) throws IOException {
+        long start = System.nanoTime();
+        Reviewer[] rows = reviewers.toArray(new Reviewer[0]);
+        int chunkCount = Math.max(1, (rows.length + ROWS_PER_CHUNK - 1) / ROWS_PER_CHUNK);
+        int chunksAhead = pool.getParallelism() * CHUNKS_AHEAD_PER_WORKER;
+
+        ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+        try (OutputStream out = open(outputFile, false)) {
+            int submitted = 0;
+            for (int written = 0; written < chunkCount; written++) {
+                while (submitted < chunkCount && submitted < written + chunksAhead) {
+                    int chunk = submitted++;
+                    pending.add(pool.submit(() -> formatChunk(rows, chunk, includePercentiles, gzip)));
+                }
+                out.write(pending.poll().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while exporting to " + outputFile, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IOException("Failed to export to " + outputFile, cause);
+        } finally {
+            for (Future<byte[]> future : pending) {
+                future.cancel(false);
             }
+        }
+        recordExport(rows.length, outputFile, gzip, start);
+        logger.log(Level.INFO, "Exported " + rows.length + " reviewers to " + outputFile.getAbsolutePath() +
+                " using " + chunkCount + " chunks");
+    }
+
+    private static void recordExport(long rows, File outputFile, boolean gzip, long startNanos) {
+        (gzip ? GZIP_ROWS : CSV_ROWS).add(rows);
+        (gzip ? GZIP_BYTES : CSV_BYTES).add(outputFile.length());
+        EXPORT_TIMER.recordSince(startNanos);
+    }
 
-            logger.log(Level.INFO, "Exported " + reviewers.size() + " reviewers to " + outputFile.getAbsolutePath());
+    /**
+     * Formats one chunk of rows; the first chunk starts with the header.
+     *
+     * @return The chunk's CSV bytes, or a gzip member holding them
+     */
+    private static byte[] formatChunk(Reviewer[] rows, int chunk, boolean includePercentiles, boolean gzip) {
+        int from = chunk * ROWS_PER_CHUNK;
+        int to = Math.min(rows.length, from + ROWS_PER_CHUNK);
+        RowBuffer buffer = new RowBuffer(64 * (to - from + 1));
+        if (chunk == 0) {
+            buffer.appendHeader(includePercentiles);
+        }
+        for (int i = from; i < to; i++) {
+            buffer.appendRow(rows[i], includePercentiles);
+        }
+        if (!gzip) {
+            return buffer.toByteArray();
         }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(buffer.size() / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed, GZIP_BUFFER_BYTES)) {
+            buffer.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static OutputStream open(File outputFile, boolean gzip) throws IOException {
+        FileChannel channel = FileChannel.open(outputFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        // Writes go straight to the channel in the caller's blocks
+        OutputStream out = Channels.newOutputStream(channel);
+        return gzip ? new GZIPOutputStream(out, GZIP_BUFFER_BYTES) : out;
     }
 
     /**
-     * Formats a single reviewer as a CSV row.
+     * Growable byte buffer that CSV rows are formatted into.
      */
-    private static String formatReviewerRow(Reviewer reviewer) {
-        String experienceCategory = reviewer.isExperienced() ? "Experienced" : "Low Experience";
-        String earlyReviewerStr = reviewer.isEarlyReviewer() ? "YES" : "NO";
+    private static final class RowBuffer {
+        private byte[] bytes;
+        private int size;
+
+        RowBuffer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void appendHeader(boolean includePercentiles) {
+            append(HEADER);
+            if (includePercentiles) {
+                append(PERCENTILES_HEADER);
+            }
+            appendByte('\n');
+        }
+
+        /**
+         * Appends a reviewer as a CSV row, the same as String.format("%s,%d,%d,%s,%s,%s,%s,\"%s\"")
+         * of its fields followed by the optional percentiles and a newline.
+         */
+        void appendRow(Reviewer reviewer, boolean includePercentiles) {
+            appendText(reviewer.getReviewerId());
+            appendByte(',');
+            appendLong((long) reviewer.getAverageTimeToReview());
+            appendByte(',');
+            appendLong(reviewer.getPastReviewsCount());
+            appendByte(',');
+            appendText(reviewer.isExperienced() ? "Experienced" : "Low Experience");
+            appendByte(',');
+            appendText(reviewer.hasTeamFamiliarity() ? "true" : "false");
+            appendByte(',');
+            appendText(reviewer.hasContextualKnowledge() ? "true" : "false");
+            appendByte(',');
+            appendText(reviewer.isEarlyReviewer() ? "YES" : "NO");
+            appendByte(',');
+            appendByte('"');
+            appendText(reviewer.getExplanation());
+            appendByte('"');
+            if (includePercentiles) {
+                appendByte(',');
+                appendLong(reviewer.getMedianTimeToReview());
+                appendByte(',');
+                appendLong(reviewer.getP90TimeToReview());
+                appendByte(',');
+                appendLong(reviewer.getP99TimeToReview());
+            }
+            appendByte('\n');
+        }
+
+        /**
+         * Appends text encoded in the export charset; ASCII is copied without encoding.
+         */
+        private void appendText(String text) {
+            if (text == null) {
+                text = "null";
+            }
+            int length = text.length();
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c >= 0x80) {
+                    append(text.getBytes(CHARSET));
+                    return;
+                }
+                bytes[size + i] = (byte) c;
+            }
+            size += length;
+        }
+
+        private void appendLong(long value) {
+            if (value == Long.MIN_VALUE) {
+                appendText(Long.toString(value));
+                return;
+            }
+            ensureCapacity(20);
+            if (value < 0) {
+                bytes[size++] = '-';
+                value = -value;
+            }
+            int digits = 1;
+            for (long rest = value / 10; rest != 0; rest /= 10) {
+                digits++;
+            }
+            for (int i = size + digits - 1; i >= size; i--) {
+                bytes[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            size += digits;
+        }
+
+        private void appendByte(char c) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) c;
+        }
+
+        private void append(byte[] data) {
+            ensureCapacity(data.length);
+            System.arraycopy(data, 0, bytes, size, data.length);
+            size += data.length;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+
+        int size() {
+            return size;
+        }
 
-        return String.format("%s,%d,%d,%s,%s,%s,%s,\"%s\"",
-                reviewer.getReviewerId(),
-                (long) reviewer.getAverageTimeToReview(),
-                reviewer.getPastReviewsCount(),
-                experienceCategory,
-                reviewer.hasTeamFamiliarity(),
-                reviewer.hasContextualKnowledge(),
-                earlyReviewerStr,
-                reviewer.getExplanation());
+        void reset() {
+            size = 0;
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(bytes, 0, size);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
     }
 }
@@ -9,9 +9,13 @@ import java.util.logging.SimpleFormatter;
 
 /**
  * LoggerUtil provides centralized logging configuration.
- * Sets up java.util.logging to write to both console and file.
+ * Sets up java.util.logging to write to both console and file. Records are written by an
+ * AsyncHandler on a background thread, so logging does not block the pipeline on I/O.
  */
 public class LoggerUtil {
+    // Records buffered for the background writer before new ones are dropped
+    private static final int ASYNC_QUEUE_CAPACITY = 8192;
+
     private static boolean initialized = false;
 
     /**
@@ -37,13 +41,16 @@ public class LoggerUtil {
             Handler consoleHandler = new java.util.logging.ConsoleHandler();
             consoleHandler.setLevel(Level.INFO);
             consoleHandler.setFormatter(new SimpleFormatter());
-            rootLogger.addHandler(consoleHandler);
 
             // Add file handler
             FileHandler fileHandler = new FileHandler("early_reviewer.log", true);
             fileHandler.setLevel(Level.INFO);
             fileHandler.setFormatter(new SimpleFormatter());
-            rootLogger.addHandler(fileHandler);
+
+            // Both are fed by the background writer; LogManager closes it, draining the buffer, at exit
+            Handler asyncHandler = new AsyncHandler(ASYNC_QUEUE_CAPACITY, consoleHandler, fileHandler);
+            asyncHandler.setLevel(Level.INFO);
+            rootLogger.addHandler(asyncHandler);
 
             initialized = true;
         } catch (IOException e) {
@@ -0,0 +1,131 @@
+package com.earlyreviewer.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * RejectionLog logs rejected input rows with a per-category rate limit and sums them up in
+ * summaries such as "120000 rows rejected: invalid timestamps".
+ *
+ * Each category logs at most limit individual warnings per interval; further rejections are only
+ * counted. Messages are passed as suppliers and built only when actually logged, so a suppressed
+ * rejection costs a map lookup and an increment. Instances are not thread-safe; use one per parse.
+ */
+public class RejectionLog {
+    public static final int DEFAULT_LIMIT = 10;
+    public static final long DEFAULT_INTERVAL_MILLIS = 10_000;
+
+    private final Logger logger;
+    private final int limit;
+    private final long intervalNanos;
+    private final Map<String, Category> categories = new LinkedHashMap<>();
+
+    /**
+     * Rejection counts of one category since the last summary.
+     */
+    private static final class Category {
+        long rejected;
+        long suppressed;
+        long windowStart;
+        int loggedInWindow;
+    }
+
+    public RejectionLog(Logger logger) {
+        this(logger, DEFAULT_LIMIT, DEFAULT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @param logger Logger receiving warnings and summaries
+     * @param limit Individual warnings logged per category and interval
+     * @param intervalMillis Length of the rate-limiting interval
+     */
+    public RejectionLog(Logger logger, int limit, long intervalMillis) {
+        if (limit < 0 || intervalMillis <= 0) {
+            throw new IllegalArgumentException("Invalid rate limit of " + limit + " per " + intervalMillis + " ms");
+        }
+        this.logger = logger;
+        this.limit = limit;
+        this.intervalNanos = intervalMillis * 1_000_000L;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Counts a rejection and logs its warning unless the category's limit is used up.
+     *
+     * @param category Reason shown in the summary, e.g. "invalid timestamps"
+     * @param message Builds the warning; not called when the warning is suppressed
+     */
+    public void reject(String category, Supplier<String> message) {
+        Category counts = category(category);
+        counts.rejected++;
+        if (!allow(counts)) {
+            counts.suppressed++;
+            return;
+        }
+        logger.log(Level.WARNING, message);
+    }
+
+    /**
+     * Counts rejections whose warnings were already dropped elsewhere, e.g. by a parallel chunk.
+     */
+    public void rejectSilently(String category, long rejections) {
+        Category counts = category(category);
+        counts.rejected += rejections;
+        counts.suppressed += rejections;
+    }
+
+    private Category category(String category) {
+        Category counts = categories.get(category);
+        if (counts == null) {
+            counts = new Category();
+            counts.windowStart = System.nanoTime();
+            categories.put(category, counts);
+        }
+        return counts;
+    }
+
+    private boolean allow(Category counts) {
+        if (counts.loggedInWindow < limit) {
+            counts.loggedInWindow++;
+            return true;
+        }
+        long now = System.nanoTime();
+        if (now - counts.windowStart < intervalNanos) {
+            return false;
+        }
+        counts.windowStart = now;
+        counts.loggedInWindow = limit > 0 ? 1 : 0;
+        return limit > 0;
+    }
+
+    /**
+     * Logs one summary line per category rejected since the last summary and resets the counts.
+     *
+     * @return Number of rejections summarized
+     */
+    public long summarize() {
+        long total = 0;
+        for (Map.Entry<String, Category> entry : categories.entrySet()) {
+            Category counts = entry.getValue();
+            if (counts.rejected == 0) {
+                continue;
+            }
+            String summary = counts.rejected + (counts.rejected == 1 ? " row" : " rows") + " rejected: " +
+                    entry.getKey();
+            if (counts.suppressed > 0) {
+                summary += " (" + counts.suppressed + " not logged individually)";
+            }
+            logger.log(Level.WARNING, summary);
+            total += counts.rejected;
+            counts.rejected = 0;
+            counts.suppressed = 0;
+        }
+        return total;
+    }
+}